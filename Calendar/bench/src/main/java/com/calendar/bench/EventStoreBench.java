@@ -0,0 +1,67 @@
+package com.calendar.bench;
+
+import com.calendar.model.Event;
+import com.calendar.model.EventStore;
+import com.calendar.model.EventTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Adding events and the lookups behind the month grid and the details pane, by store size. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class EventStoreBench {
+
+    @Param({ "1000", "100000", "1000000" })
+    public int size;
+
+    private EventStore store;
+    private LocalDate first;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        store = Fixtures.store(size, 42);
+        first = Fixtures.firstDay();
+    }
+
+    private LocalDate nextDay() {
+        return first.plusDays(next++ % Fixtures.SPAN_DAYS);
+    }
+
+    /** Add then delete one event, so the store stays the same size across iterations. */
+    @Benchmark
+    public boolean addAndRemove() {
+        LocalDate date = nextDay();
+        Event event = new Event(store.nextId(), "Bench", EventTime.of(600, 660));
+        store.add(date, event);
+        return store.remove(date, event);
+    }
+
+    @Benchmark
+    public List<Event> eventsOn() {
+        return store.eventsOn(nextDay());
+    }
+
+    @Benchmark
+    public int[] countsForMonth() {
+        return store.countsFor(YearMonth.from(nextDay()));
+    }
+}
@@ -0,0 +1,65 @@
+package com.calendar.bench;
+
+import com.calendar.model.Event;
+import com.calendar.model.EventTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/** Parsing typed times, and sorting a day's events by start time. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventTimeBench {
+
+    private static final String[] INPUTS = { "08:00-09:00", "13:00 - 14:00", "9:30", "All Day", "", "20:00-22:00" };
+
+    @State(Scope.Thread)
+    public static class Inputs {
+        int next;
+    }
+
+    @State(Scope.Thread)
+    public static class Day {
+        @Param({ "10", "200" })
+        public int eventsPerDay;
+
+        List<Event> events;
+
+        @Setup
+        public void setUp() {
+            SplittableRandom random = new SplittableRandom(42);
+            events = new ArrayList<>(eventsPerDay);
+            for (int i = 0; i < eventsPerDay; i++) {
+                events.add(new Event(i, "Event " + i, Fixtures.time(random)));
+            }
+        }
+    }
+
+    @Benchmark
+    public EventTime parse(Inputs inputs) {
+        return EventTime.parse(INPUTS[inputs.next++ % INPUTS.length]);
+    }
+
+    @Benchmark
+    public List<Event> sortDay(Day day) {
+        List<Event> copy = new ArrayList<>(day.events);
+        copy.sort(Event.BY_START_TIME);
+        return copy;
+    }
+}
@@ -0,0 +1,54 @@
+package com.calendar.bench;
+
+import com.calendar.model.DatedEvent;
+import com.calendar.model.Event;
+import com.calendar.model.EventStore;
+import com.calendar.model.EventTime;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/** Deterministic synthetic calendars shared by the benchmarks. */
+final class Fixtures {
+
+    static final String[] TITLES = { "Lecture", "Math Deadline", "Futsal", "Team Meeting", "Lunch", "Standup",
+            "Dentist", "Review", "Gym", "Call with Sam", "Planning", "Dinner" };
+
+    // Events are spread over this many days around today
+    static final int SPAN_DAYS = 3 * 365;
+
+    private Fixtures() {
+    }
+
+    static LocalDate firstDay() {
+        return LocalDate.now().minusDays(SPAN_DAYS / 2);
+    }
+
+    /** A store with {@code size} events; every tenth is all-day, the rest last an hour. */
+    static EventStore store(int size, long seed) {
+        EventStore store = new EventStore();
+        store.addAll(events(store, size, seed));
+        return store;
+    }
+
+    static List<DatedEvent> events(EventStore store, int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        LocalDate first = firstDay();
+        List<DatedEvent> events = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            LocalDate date = first.plusDays(random.nextInt(SPAN_DAYS));
+            events.add(new DatedEvent(date, new Event(store.nextId(), TITLES[random.nextInt(TITLES.length)],
+                    time(random))));
+        }
+        return events;
+    }
+
+    static EventTime time(SplittableRandom random) {
+        if (random.nextInt(10) == 0)
+            return EventTime.ALL_DAY;
+        int start = random.nextInt(23 * 60);
+        return EventTime.of(start, start + 60);
+    }
+}
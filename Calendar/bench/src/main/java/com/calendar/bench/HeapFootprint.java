@@ -0,0 +1,93 @@
+package com.calendar.bench;
+
+import com.calendar.model.DatedEvent;
+import com.calendar.model.Event;
+import com.calendar.model.EventStore;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * Retained heap per event of the default and the compact store, which JMH
+ * cannot measure. Loads the same events into each and reports bytes per
+ * event after a full GC. The default store is measured twice: with titles
+ * interned, as after a restart loads the snapshot file, and with a title
+ * string per event, as straight after an import or a journal replay. Exits
+ * with status 1 if the compact store saves less than
+ * {@link #REQUIRED_RATIO}x against the interned one, the smaller saving, so
+ * it can gate a build.
+ * <p>
+ * Run with {@code java -Xmx4g -cp benchmarks.jar com.calendar.bench.HeapFootprint [events]};
+ * the default is 2,000,000 events over ten years.
+ */
+public final class HeapFootprint {
+
+    private static final double REQUIRED_RATIO = 5.0;
+    private static final int SPAN_DAYS = 10 * 365;
+    private static final int BATCH = 100_000;
+
+    private HeapFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+
+        double objects = bytesPerEvent(EventStore::new, size, false);
+        double sharedTitles = bytesPerEvent(EventStore::new, size, true);
+        double compact = bytesPerEvent(EventStore::compact, size, false);
+
+        System.out.printf("%,d events over %d days%n", size, SPAN_DAYS);
+        System.out.printf("  default store, title per event:   %6.1f bytes/event%n", objects);
+        System.out.printf("  default store, titles interned:   %6.1f bytes/event%n", sharedTitles);
+        System.out.printf("  compact store:                    %6.1f bytes/event%n", compact);
+        double ratio = sharedTitles / compact;
+        System.out.printf("  ratio: %.1fx against interned titles (%.1fx against copies), required %.1fx%n", ratio,
+                objects / compact, REQUIRED_RATIO);
+        if (ratio < REQUIRED_RATIO) {
+            System.out.println("FAILED: compact store saves less than required");
+            System.exit(1);
+        }
+    }
+
+    private static double bytesPerEvent(Supplier<EventStore> newStore, int size, boolean sharedTitles) {
+        long before = usedAfterGc();
+        EventStore store = newStore.get();
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDate first = LocalDate.now().minusDays(SPAN_DAYS / 2);
+        // In batches, so the events being loaded are not counted against a store that does not keep them
+        for (int done = 0; done < size; done += BATCH) {
+            List<DatedEvent> batch = new ArrayList<>(BATCH);
+            for (int i = done; i < Math.min(size, done + BATCH); i++) {
+                String title = Fixtures.TITLES[random.nextInt(Fixtures.TITLES.length)];
+                if (!sharedTitles)
+                    title = String.valueOf(title.toCharArray()); // As parsed: a copy, not the constant
+                batch.add(new DatedEvent(first.plusDays(random.nextInt(SPAN_DAYS)),
+                        new Event(store.nextId(), title, Fixtures.time(random))));
+            }
+            store.addAll(batch);
+        }
+        long after = usedAfterGc();
+        if (store.size() != size)
+            throw new IllegalStateException("Expected " + size + " events, got " + store.size());
+        return (double) (after - before) / size;
+    }
+
+    private static long usedAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        // Until it stops shrinking, since one System.gc() may not collect everything
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            long now = memory.getHeapMemoryUsage().getUsed();
+            if (now >= used)
+                break;
+            used = now;
+        }
+        return used;
+    }
+}
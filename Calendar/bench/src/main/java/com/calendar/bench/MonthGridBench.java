@@ -0,0 +1,72 @@
+package com.calendar.bench;
+
+import com.calendar.model.EventStore;
+import com.calendar.ui.HoverAnimator;
+import com.calendar.ui.MonthGrid;
+import javafx.application.Platform;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Month-grid work behind {@code updateCalendar()}, on the headless Monocle
+ * platform so it runs without a display. Nodes that are not in a showing
+ * window may be built off the FX thread, so no hand-off is needed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw" })
+public class MonthGridBench {
+
+    private EventStore store;
+    private MonthGrid grid;
+    private YearMonth month;
+    private LocalDate today;
+
+    @Setup
+    public void setUp() {
+        Platform.startup(() -> {
+        });
+        store = Fixtures.store(100_000, 42);
+        today = LocalDate.now();
+        month = YearMonth.from(today);
+        grid = newGrid();
+    }
+
+    private MonthGrid newGrid() {
+        return new MonthGrid(date -> {
+        }, HoverAnimator::scaleAndShadow);
+    }
+
+    /** First paint: build the 42 pooled cells, then bind them to a month. */
+    @Benchmark
+    public MonthGrid construct() {
+        MonthGrid fresh = newGrid();
+        fresh.show(month, store.countsFor(month), today, today);
+        return fresh;
+    }
+
+    /** Paging with < and >: the same cells rebound to the next month, counts included. */
+    @Benchmark
+    public MonthGrid showNextMonth() {
+        month = month.plusMonths(1);
+        if (month.isAfter(YearMonth.from(today).plusYears(1)))
+            month = YearMonth.from(today).minusYears(1);
+        grid.show(month, store.countsFor(month), today, today);
+        return grid;
+    }
+}
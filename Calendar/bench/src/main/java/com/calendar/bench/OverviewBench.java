@@ -0,0 +1,144 @@
+package com.calendar.bench;
+
+import com.calendar.model.DatedEvent;
+import com.calendar.model.Event;
+import com.calendar.model.EventStore;
+import com.calendar.model.StoreSnapshot;
+import com.calendar.summary.MonthSummaries;
+import com.calendar.summary.MonthSummary;
+import com.calendar.ui.YearHeatmap;
+import javafx.application.Platform;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ten-year heatmap behind {@code updateOverview()} over five million
+ * events, on the headless Monocle platform: counted from the store as on
+ * first view, and from the cached month summaries as afterwards. Both include
+ * painting every square. Edits repaint a single square and are not measured.
+ * <p>
+ * The heatmap is only ever touched on the FX thread, as in the app: its
+ * pulse timer would otherwise paint concurrently with the benchmark. So each
+ * operation also includes one hand-off to the FX thread and back.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g", "-Dglass.platform=Monocle", "-Dmonocle.platform=Headless",
+        "-Dprism.order=sw" })
+public class OverviewBench {
+
+    private static final int YEARS = 10;
+    private static final int BATCH = 100_000;
+
+    @Param("5000000")
+    int size;
+
+    @Param({ "false", "true" })
+    boolean compact;
+
+    private EventStore store;
+    private MonthSummaries summaries;
+    private YearHeatmap heatmap;
+    private YearMonth first;
+    private LocalDate selected;
+
+    @Setup
+    public void setUp() {
+        Platform.startup(() -> {
+        });
+        store = compact ? EventStore.compact() : new EventStore();
+        first = YearMonth.of(LocalDate.now().getYear() - YEARS + 1, 1);
+        int days = (int) (first.plusYears(YEARS).atDay(1).toEpochDay() - first.atDay(1).toEpochDay());
+        SplittableRandom random = new SplittableRandom(42);
+        for (int done = 0; done < size; done += BATCH) {
+            List<DatedEvent> batch = new ArrayList<>(BATCH);
+            for (int i = done; i < Math.min(size, done + BATCH); i++) {
+                batch.add(new DatedEvent(first.atDay(1).plusDays(random.nextInt(days)), new Event(store.nextId(),
+                        Fixtures.TITLES[random.nextInt(Fixtures.TITLES.length)], Fixtures.time(random))));
+            }
+            store.addAll(batch);
+        }
+        summaries = MonthSummaries.attach(store, 240, Runnable::run);
+        summaries.range(first, YEARS * 12);
+        selected = LocalDate.now();
+        onFx(() -> {
+            heatmap = new YearHeatmap(date -> {
+            });
+            heatmap.resize(1000, 700);
+            heatmap.layout();
+        });
+    }
+
+    /** First view: 120 months counted from the store, then painted. */
+    @Benchmark
+    public YearHeatmap countedFromStore() {
+        StoreSnapshot snapshot = store.snapshot();
+        int[][] counts = new int[YEARS * 12][];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = snapshot.countsFor(first.plusMonths(i));
+        }
+        onFx(() -> {
+            heatmap.show(first.getYear(), counts, selected);
+            heatmap.flush();
+        });
+        return heatmap;
+    }
+
+    /** Later views, e.g. switching back to it: the cached summaries, then painted. */
+    @Benchmark
+    public YearHeatmap fromSummaries() {
+        List<MonthSummary> months = summaries.range(first, YEARS * 12);
+        int[][] counts = new int[months.size()][];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = months.get(i).counts();
+        }
+        onFx(() -> {
+            heatmap.show(first.getYear(), counts, selected);
+            heatmap.flush();
+        });
+        return heatmap;
+    }
+
+    // Runs on the FX thread and waits for it
+    private static void onFx(Runnable action) {
+        CountDownLatch done = new CountDownLatch(1);
+        RuntimeException[] failure = new RuntimeException[1];
+        Platform.runLater(() -> {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                failure[0] = e;
+            } finally {
+                done.countDown();
+            }
+        });
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting on the FX thread", e);
+        }
+        if (failure[0] != null)
+            throw failure[0];
+    }
+}
@@ -0,0 +1,91 @@
+package com.calendar.bench;
+
+import com.calendar.model.Event;
+import com.calendar.model.EventStore;
+import com.calendar.model.EventTime;
+import com.calendar.reminder.NotifiedReminders;
+import com.calendar.reminder.ReminderScheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Notification checking. The scheduler no longer polls, so what is measured is
+ * the work that replaced the poll: scanning today and tomorrow on launch, and
+ * keeping the queue current as events are added and deleted.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ReminderBench {
+
+    private static final List<Duration> LEAD_TIMES = List.of(Duration.ZERO, Duration.ofMinutes(10));
+
+    @Param({ "1000", "100000", "1000000" })
+    public int size;
+
+    private EventStore store;
+    private Clock clock;
+    private ReminderScheduler scheduler;
+    private LocalDate tomorrow;
+
+    @Setup
+    public void setUp() {
+        store = Fixtures.store(size, 42);
+        // Midnight, so nothing today is already past
+        ZoneId zone = ZoneId.systemDefault();
+        clock = Clock.fixed(LocalDate.now().atStartOfDay(zone).toInstant(), zone);
+        tomorrow = LocalDate.now(clock).plusDays(1);
+        scheduler = newScheduler();
+        scheduler.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        scheduler.close();
+    }
+
+    private ReminderScheduler newScheduler() {
+        return new ReminderScheduler(store, LEAD_TIMES, Duration.ofHours(1), NotifiedReminders.inMemory(), Runnable::run, r -> {
+        }, clock);
+    }
+
+    /** Launch: build the queue for today and tomorrow. Includes starting and stopping the thread. */
+    @Benchmark
+    public int launch() {
+        ReminderScheduler fresh = newScheduler();
+        fresh.start();
+        int pending = fresh.pendingCount();
+        fresh.close();
+        return pending;
+    }
+
+    /** Add then delete an event inside the window, with the day's reminders already queued. */
+    @Benchmark
+    public int addAndRemoveInWindow() {
+        Event event = new Event(store.nextId(), "Bench", EventTime.of(600, 660));
+        store.add(tomorrow, event);
+        int pending = scheduler.pendingCount();
+        store.remove(tomorrow, event);
+        return pending;
+    }
+}
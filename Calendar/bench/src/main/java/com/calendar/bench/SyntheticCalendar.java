@@ -0,0 +1,119 @@
+package com.calendar.bench;
+
+import com.calendar.model.DatedEvent;
+import com.calendar.model.Event;
+import com.calendar.model.EventStore;
+import com.calendar.model.EventTime;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic calendars with a chosen shape, for load tests: how many events,
+ * how many per day on average (which sets how many days they spread over,
+ * centred on today), how many distinct titles, and when in the day they
+ * happen. Deterministic for a given seed. {@link Fixtures} is the fixed,
+ * simpler shape the micro-benchmarks share.
+ *
+ * @param events     total one-off events
+ * @param perDay     average events on a day; days get more or fewer at random
+ * @param titles     distinct titles, e.g. 12 for a personal calendar, thousands for an imported one
+ * @param times      when in the day events start, and how long they last
+ * @param allDayRate share of events that are all-day, 0 to 1
+ * @param seed       for the random choices
+ */
+public record SyntheticCalendar(int events, double perDay, int titles, Times times, double allDayRate, long seed) {
+
+    /** When in the day events start, and how long they last. */
+    public enum Times {
+        /** Any hour of the day, an hour long. */
+        UNIFORM,
+        /** Mostly working hours on the quarter hour, 15 minutes to 2 hours long. */
+        OFFICE,
+        /** Bunched around 09:00, 12:30 and 18:00, so days are full of overlaps. */
+        CLUSTERED
+    }
+
+    private static final int[] PEAKS = { 9 * 60, 12 * 60 + 30, 18 * 60 };
+
+    public SyntheticCalendar {
+        if (events < 0 || perDay <= 0 || titles < 1 || allDayRate < 0 || allDayRate > 1)
+            throw new IllegalArgumentException("Bad calendar shape: " + events + " events, " + perDay + " per day, "
+                    + titles + " titles, all-day rate " + allDayRate);
+    }
+
+    /**
+     * The shape given by {@code harness.*} system properties: events,
+     * perDay, titles, times (uniform, office or clustered), allDayRate and
+     * seed; by default 100,000 office events at 40 a day with 500 titles.
+     */
+    public static SyntheticCalendar fromSystemProperties() {
+        return new SyntheticCalendar(Integer.getInteger("harness.events", 100_000),
+                Double.parseDouble(System.getProperty("harness.perDay", "40")),
+                Integer.getInteger("harness.titles", 500),
+                Times.valueOf(System.getProperty("harness.times", "office").toUpperCase(Locale.ROOT)),
+                Double.parseDouble(System.getProperty("harness.allDayRate", "0.05")),
+                Long.getLong("harness.seed", 42));
+    }
+
+    /** Days the events spread over. */
+    public int days() {
+        return Math.max(1, (int) Math.ceil(events / perDay));
+    }
+
+    public LocalDate firstDay() {
+        return LocalDate.now().minusDays(days() / 2);
+    }
+
+    /** The events, with ids from {@code store}. */
+    public List<DatedEvent> generate(EventStore store) {
+        SplittableRandom random = new SplittableRandom(seed);
+        String[] names = titleNames();
+        LocalDate first = firstDay();
+        int days = days();
+        List<DatedEvent> generated = new ArrayList<>(events);
+        for (int i = 0; i < events; i++) {
+            LocalDate date = first.plusDays(random.nextInt(days));
+            generated.add(new DatedEvent(date, new Event(store.nextId(), names[random.nextInt(names.length)],
+                    time(random))));
+        }
+        return generated;
+    }
+
+    // The fixture titles first, then numbered variants of them
+    private String[] titleNames() {
+        String[] names = new String[titles];
+        for (int i = 0; i < titles; i++) {
+            String base = Fixtures.TITLES[i % Fixtures.TITLES.length];
+            names[i] = i < Fixtures.TITLES.length ? base : base + " " + (i / Fixtures.TITLES.length + 1);
+        }
+        return names;
+    }
+
+    private EventTime time(SplittableRandom random) {
+        if (random.nextDouble() < allDayRate)
+            return EventTime.ALL_DAY;
+        int start;
+        int length;
+        switch (times) {
+            case OFFICE -> {
+                // Seven in ten between 09:00 and 17:00, the rest from 07:00 to 22:00
+                start = random.nextInt(10) < 7 ? 9 * 60 + random.nextInt(8 * 4) * 15
+                        : 7 * 60 + random.nextInt(15 * 4) * 15;
+                length = 15 * (1 + random.nextInt(8));
+            }
+            case CLUSTERED -> {
+                start = PEAKS[random.nextInt(PEAKS.length)] + 15 * (random.nextInt(5) - 2);
+                length = 30 + 15 * random.nextInt(5);
+            }
+            default -> {
+                start = random.nextInt(23 * 60);
+                length = 60;
+            }
+        }
+        return EventTime.of(start, Math.min(24 * 60 - 1, start + length));
+    }
+}
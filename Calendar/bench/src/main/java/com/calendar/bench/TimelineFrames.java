@@ -0,0 +1,127 @@
+package com.calendar.bench;
+
+import com.calendar.model.Event;
+import com.calendar.model.EventTime;
+import com.calendar.ui.TimelineView;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Frame rate of the week timeline while it is scrolled and hovered on every
+ * pulse, with {@code events} events in the visible week, on the headless
+ * Monocle platform. Pulses are only as frequent as frames get rendered, so
+ * the interval between them is the frame time, painting and rasterizing
+ * included. Also reports the part of each frame spent in the view on the FX
+ * thread. Exits with status 1 below {@link #REQUIRED_FPS}, so it can gate a
+ * build.
+ * <p>
+ * Run with {@code java -Dglass.platform=Monocle -Dmonocle.platform=Headless -Dprism.order=sw
+ * -cp benchmarks.jar com.calendar.bench.TimelineFrames [events] [seconds]}.
+ */
+public final class TimelineFrames {
+
+    private static final double REQUIRED_FPS = 55;
+
+    private TimelineFrames() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        CountDownLatch started = new CountDownLatch(1);
+        Platform.startup(started::countDown);
+        started.await();
+
+        List<LocalDate> week = new ArrayList<>();
+        List<List<Event>> dayEvents = new ArrayList<>();
+        LocalDate monday = LocalDate.now().minusDays(LocalDate.now().getDayOfWeek().getValue() - 1);
+        for (int d = 0; d < 7; d++) {
+            week.add(monday.plusDays(d));
+            dayEvents.add(new ArrayList<>());
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < size; i++) {
+            int start = 6 * 60 + random.nextInt(16 * 60);
+            dayEvents.get(random.nextInt(7)).add(new Event(i + 1,
+                    Fixtures.TITLES[random.nextInt(Fixtures.TITLES.length)],
+                    EventTime.of(start, start + 30 + random.nextInt(90))));
+        }
+        for (List<Event> day : dayEvents) {
+            day.sort(Event.BY_START_TIME);
+        }
+
+        int warmup = 60;
+        long[] intervals = new long[seconds * 240];
+        long[] work = new long[intervals.length];
+        int[] frames = new int[1];
+        CountDownLatch done = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            TimelineView view = new TimelineView((date, event) -> {
+            }, date -> {
+            });
+            Stage stage = new Stage();
+            stage.setScene(new Scene(view, 1000, 700));
+            stage.show();
+            view.setDays(week, dayEvents);
+
+            new AnimationTimer() {
+                private long last;
+                private double direction = 6;
+                private final SplittableRandom pointer = new SplittableRandom(7);
+
+                @Override
+                public void handle(long now) {
+                    if (last != 0 && frames[0] < intervals.length)
+                        intervals[frames[0]++] = now - last;
+                    last = now;
+                    if (frames[0] >= warmup + seconds * 60 || frames[0] == intervals.length) {
+                        stop();
+                        stage.close();
+                        done.countDown();
+                        return;
+                    }
+                    // Scroll back and forth, and move the pointer across the week
+                    long begin = System.nanoTime();
+                    view.scrollBy(direction);
+                    if (frames[0] % 100 == 99)
+                        direction = -direction;
+                    view.hover(48 + pointer.nextDouble() * 950, pointer.nextDouble() * 24 * 48);
+                    view.flush();
+                    work[frames[0]] = System.nanoTime() - begin;
+                }
+            }.start();
+        });
+        if (!done.await(seconds * 4L + 30, TimeUnit.SECONDS))
+            throw new IllegalStateException("Frames did not finish");
+        Platform.exit();
+
+        long[] measured = Arrays.copyOfRange(intervals, warmup, frames[0]);
+        long[] painting = Arrays.copyOfRange(work, warmup, frames[0]);
+        double fps = 1e9 / Arrays.stream(measured).average().orElse(0);
+        System.out.printf("%,d events in the week, %d frames%n", size, measured.length);
+        System.out.printf("  %.1f fps, frame time %s%n", fps, summary(measured));
+        System.out.printf("  scrolling, hit testing and repainting per frame %s%n", summary(painting));
+        if (fps < REQUIRED_FPS) {
+            System.out.printf("FAILED: below %.0f fps%n", REQUIRED_FPS);
+            System.exit(1);
+        }
+    }
+
+    private static String summary(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return String.format("mean %.2f ms, p99 %.2f ms, max %.2f ms", Arrays.stream(sorted).average().orElse(0) / 1e6,
+                sorted[(int) (sorted.length * 0.99)] / 1e6, sorted[sorted.length - 1] / 1e6);
+    }
+}
@@ -0,0 +1,426 @@
+package com.calendar.bench;
+
+import com.calendar.CalendarApp;
+import com.calendar.model.EventStore;
+import com.calendar.storage.EventRepository;
+import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.DialogPane;
+import javafx.scene.control.TextField;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Interaction latency of the real {@code CalendarApp} on a synthetic
+ * calendar, on the headless Monocle platform, so it runs on a machine with
+ * no display.
+ * <p>
+ * Seeds a fresh data directory with a {@link SyntheticCalendar}, starts the
+ * app in this JVM and drives it through its own controls: paging months with
+ * {@code <} and {@code >}, clicking days, adding an event through the dialog,
+ * deleting it from the list, and waiting for the reminders of events it
+ * added for the next minutes. Each interaction is timed from firing the
+ * control to the end of the pulse that laid out the result, with the bytes
+ * the FX thread allocated in between; a reminder from its due time to its
+ * alert showing. Prints percentiles per interaction and the allocation rate
+ * of the whole run, and exits with status 1 if any limit in
+ * {@code ui-thresholds.properties}, or the file {@code -Dharness.thresholds}
+ * names, is exceeded, so it can gate a build. The bench pom's
+ * {@code ui-perf} profile runs it at {@code verify}.
+ * <p>
+ * Run with {@code java -Dglass.platform=Monocle -Dmonocle.platform=Headless -Dprism.order=sw
+ * -Djava.awt.headless=true -cp benchmarks.jar com.calendar.bench.UiHarness}. The calendar's
+ * shape comes from the {@code harness.*} properties {@link SyntheticCalendar#fromSystemProperties()}
+ * reads; {@code -Dharness.rounds} sets how often each interaction is measured (200) and
+ * {@code -Dharness.reminders} how many reminders to wait for (2, a minute apart; 0 skips them).
+ */
+public final class UiHarness {
+
+    private static final long TIMEOUT_SECONDS = 30;
+    private static final String REMINDER_TITLE = "Harness reminder ";
+
+    private final Scene scene;
+    private final SplittableRandom random = new SplittableRandom(7);
+    // {nanos, FX-thread bytes}; bytes are -1 where not measured
+    private final Map<String, List<long[]>> samples = new LinkedHashMap<>();
+    private int warmup;
+    private Button addButton;
+
+    private UiHarness(Scene scene) {
+        this.scene = scene;
+    }
+
+    public static void main(String[] args) {
+        int status;
+        try {
+            status = run() ? 0 : 1;
+        } catch (Throwable t) {
+            // Not a pass: a harness that cannot drive the app must fail the build too
+            t.printStackTrace();
+            status = 2;
+        }
+        System.exit(status);
+    }
+
+    private static boolean run() throws Exception {
+        SyntheticCalendar shape = SyntheticCalendar.fromSystemProperties();
+        int rounds = Integer.getInteger("harness.rounds", 200);
+        int reminders = Integer.getInteger("harness.reminders", 2);
+        Properties limits = thresholds();
+
+        Path dataDir = Files.createTempDirectory("calendar-harness");
+        long seeding = System.nanoTime();
+        seed(dataDir, shape);
+        System.out.printf("%,d events over %,d days, %d titles, %s times: seeded in %d ms%n", shape.events(),
+                shape.days(), shape.titles(), shape.times().name().toLowerCase(),
+                (System.nanoTime() - seeding) / 1_000_000);
+        System.setProperty("calendar.dataDir", dataDir.toString());
+
+        CountDownLatch started = new CountDownLatch(1);
+        Platform.startup(started::countDown);
+        started.await();
+        CalendarApp app = new CalendarApp();
+        Stage stage = onFx(() -> {
+            Stage primary = new Stage();
+            app.start(primary);
+            return primary;
+        });
+
+        boolean passed;
+        try {
+            UiHarness harness = new UiHarness(stage.getScene());
+            harness.awaitLoaded();
+            long bytes = allThreadsAllocated();
+            long begin = System.nanoTime();
+            harness.interact(rounds);
+            harness.reminders(reminders);
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            double rate = (allThreadsAllocated() - bytes) / seconds / (1 << 20);
+            passed = harness.report(limits, rate);
+        } finally {
+            onFx(() -> {
+                app.stop();
+                stage.close();
+                return null;
+            });
+            Platform.exit();
+            deleteRecursively(dataDir);
+        }
+        return passed;
+    }
+
+    // Written the way the app writes, so it starts from a snapshot as after any normal session
+    private static void seed(Path dir, SyntheticCalendar shape) throws IOException {
+        EventStore store = new EventStore();
+        try (EventRepository repository = EventRepository.open(dir, store, Integer.MAX_VALUE)) {
+            store.addAll(shape.generate(store));
+        }
+    }
+
+    private static Properties thresholds() throws IOException {
+        Properties limits = new Properties();
+        String file = System.getProperty("harness.thresholds");
+        try (InputStream in = file != null ? Files.newInputStream(Path.of(file))
+                : UiHarness.class.getResourceAsStream("/ui-thresholds.properties")) {
+            if (in != null)
+                limits.load(in);
+        }
+        return limits;
+    }
+
+    // Events are in once the add button is enabled
+    private void awaitLoaded() throws Exception {
+        // Kept, since it is the event list's last row and scrolls out of the scene on a busy day
+        addButton = await(() -> {
+            Node node = scene.getRoot().lookup(".add-event-button");
+            return node instanceof Button button ? button : null;
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(120);
+        while (onFx(addButton::isDisabled)) {
+            if (System.nanoTime() > deadline)
+                throw new IllegalStateException("Events did not load");
+            Thread.sleep(50);
+        }
+    }
+
+    private void interact(int rounds) throws Exception {
+        warmup = Math.min(20, rounds / 5);
+        Button next = onFx(() -> button("nav-button", ">"));
+        Button previous = onFx(() -> button("nav-button", "<"));
+        for (int r = 0; r < warmup + rounds; r++) {
+            // Six months on, six back, so paging stays among the events
+            record("navigate", measure(r % 12 < 6 ? next::fire : previous::fire));
+            Button day = onFx(() -> {
+                List<Node> days = visible(".day-cell");
+                return (Button) days.get(random.nextInt(days.size()));
+            });
+            record("select day", measure(day::fire));
+            addEvent("Harness event " + r, "10:00-11:00", true);
+            Button delete = onFx(() -> {
+                List<Node> buttons = visible(".event-list .delete-button");
+                return buttons.isEmpty() ? null : (Button) buttons.get(0);
+            });
+            if (delete != null)
+                record("delete", measure(delete::fire));
+        }
+    }
+
+    // Adds events a minute apart from two minutes ahead, today, and waits for their alerts
+    private void reminders(int count) throws Exception {
+        if (count <= 0)
+            return;
+        LocalTime first = LocalTime.now().withSecond(0).withNano(0).plusMinutes(2);
+        if (first.isBefore(LocalTime.of(0, 2)) || first.plusMinutes(count).isBefore(first)) {
+            System.out.println("Reminders skipped: too close to midnight");
+            return;
+        }
+        // Back to the current month, and today
+        Button next = onFx(() -> button("nav-button", ">"));
+        Button previous = onFx(() -> button("nav-button", "<"));
+        String month = LocalDate.now().getMonth().name() + " " + LocalDate.now().getYear();
+        for (int i = 0; i < 24 && !onFx(() -> currentMonthShown(month)); i++) {
+            measure(i < 12 ? previous::fire : next::fire);
+        }
+        Button today = onFx(() -> {
+            List<Node> cells = visible(".current-day-cell");
+            return cells.isEmpty() ? null : (Button) cells.get(0);
+        });
+        if (today == null)
+            throw new IllegalStateException("Today is not on screen");
+        measure(today::fire);
+
+        Map<String, Instant> shown = new ConcurrentHashMap<>();
+        CountDownLatch alerts = new CountDownLatch(count);
+        onFx(() -> {
+            Window.getWindows().addListener((ListChangeListener<Window>) change -> {
+                while (change.next()) {
+                    for (Window window : change.getAddedSubList()) {
+                        DialogPane pane = dialogPane(window, "Event Reminder");
+                        if (pane != null) {
+                            shown.put(pane.getContentText(), Instant.now());
+                            Platform.runLater(((Stage) window)::close);
+                            alerts.countDown();
+                        }
+                    }
+                }
+            });
+            return null;
+        });
+        Map<String, Instant> due = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            LocalTime start = first.plusMinutes(i);
+            String title = REMINDER_TITLE + (i + 1);
+            addEvent(title, start.toString(), false);
+            due.put("It's time for: " + title, LocalDate.now().atTime(start).atZone(ZoneId.systemDefault())
+                    .toInstant());
+        }
+        if (!alerts.await(count + 2L, TimeUnit.MINUTES))
+            throw new IllegalStateException("Only " + shown.size() + " of " + count + " reminders went off");
+        due.forEach((text, at) -> {
+            Instant when = shown.get(text);
+            if (when != null)
+                samples.computeIfAbsent("reminder", k -> new ArrayList<>())
+                        .add(new long[] { java.time.Duration.between(at, when).toNanos(), -1 });
+        });
+    }
+
+    private boolean currentMonthShown(String month) {
+        return scene.getRoot().lookupAll(".month-year-label").stream()
+                .anyMatch(n -> month.equals(((javafx.scene.control.Label) n).getText()));
+    }
+
+    // Opens the add dialog, fills it in and measures the Add button, i.e. closing, storing and showing it
+    private void addEvent(String title, String time, boolean record) throws Exception {
+        // showAndWait runs the dialog in a nested event loop inside this runnable
+        Platform.runLater(addButton::fire);
+        DialogPane pane = await(() -> Window.getWindows().stream().map(w -> dialogPane(w, "Add New Event"))
+                .filter(p -> p != null).findFirst().orElse(null));
+        Button confirm = onFx(() -> {
+            for (Node node : pane.lookupAll(".text-field")) {
+                if (node instanceof TextField field && "Event Title".equals(field.getPromptText()))
+                    field.setText(title);
+                else if (node instanceof TextField field && field.getPromptText() != null
+                        && field.getPromptText().startsWith("Time"))
+                    field.setText(time);
+            }
+            for (ButtonType type : pane.getButtonTypes()) {
+                if ("Add".equals(type.getText()))
+                    return (Button) pane.lookupButton(type);
+            }
+            throw new IllegalStateException("No Add button");
+        });
+        long[] sample = measure(confirm::fire);
+        if (record)
+            record("add", sample);
+    }
+
+    private void record(String interaction, long[] sample) {
+        samples.computeIfAbsent(interaction, k -> new ArrayList<>()).add(sample);
+    }
+
+    /**
+     * Runs {@code action} on the FX thread and returns {nanoseconds, bytes the
+     * FX thread allocated} until the end of the next pulse's layout, which is
+     * where the app's rebuilds have all run.
+     */
+    private long[] measure(Runnable action) throws Exception {
+        CompletableFuture<long[]> result = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            long bytes = fxThreadAllocated();
+            long start = System.nanoTime();
+            action.run();
+            Runnable once = new Runnable() {
+                @Override
+                public void run() {
+                    scene.removePostLayoutPulseListener(this);
+                    result.complete(new long[] { System.nanoTime() - start, fxThreadAllocated() - bytes });
+                }
+            };
+            scene.addPostLayoutPulseListener(once);
+            Platform.requestNextPulse();
+        });
+        return result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private boolean report(Properties limits, double allocationRate) {
+        boolean passed = true;
+        System.out.printf("%-11s %5s %8s %8s %8s %8s %12s%n", "interaction", "n", "p50 ms", "p95 ms", "p99 ms",
+                "max ms", "FX KB/op");
+        for (Map.Entry<String, List<long[]>> entry : samples.entrySet()) {
+            String name = entry.getKey();
+            List<long[]> all = entry.getValue();
+            List<long[]> measured = name.equals("reminder") ? all : all.subList(Math.min(warmup, all.size()),
+                    all.size());
+            if (measured.isEmpty())
+                continue;
+            long[] nanos = measured.stream().mapToLong(s -> s[0]).sorted().toArray();
+            double kb = measured.stream().mapToLong(s -> s[1]).average().orElse(0) / 1024; // Negative if not measured
+            double p95 = percentile(nanos, 0.95) / 1e6;
+            System.out.printf("%-11s %5d %8.2f %8.2f %8.2f %8.2f %12s%n", name, nanos.length,
+                    percentile(nanos, 0.5) / 1e6, p95, percentile(nanos, 0.99) / 1e6, nanos[nanos.length - 1] / 1e6,
+                    kb < 0 ? "-" : String.format("%.1f", kb));
+            String key = name.replace(' ', '-');
+            passed &= within(limits, key + ".p95Millis", p95);
+            if (kb >= 0)
+                passed &= within(limits, key + ".allocatedKb", kb);
+        }
+        System.out.printf("allocation rate %.1f MB/s, all threads%n", allocationRate);
+        passed &= within(limits, "allocationRateMb", allocationRate);
+        System.out.println(passed ? "PASSED" : "FAILED: limits exceeded");
+        return passed;
+    }
+
+    private static boolean within(Properties limits, String key, double value) {
+        String limit = limits.getProperty(key);
+        if (limit == null || value <= Double.parseDouble(limit))
+            return true;
+        System.out.printf("  %s = %.2f, limit %s%n", key, value, limit);
+        return false;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))];
+    }
+
+    // FX thread only; the pane of a showing dialog with that title, or null
+    private static DialogPane dialogPane(Window window, String title) {
+        if (!(window instanceof Stage stage) || !title.equals(stage.getTitle()) || !stage.isShowing())
+            return null;
+        return (DialogPane) stage.getScene().getRoot().lookup(".dialog-pane");
+    }
+
+    // FX thread only
+    private Button button(String styleClass, String text) {
+        for (Node node : scene.getRoot().lookupAll("." + styleClass)) {
+            if (node instanceof Button button && text.equals(button.getText()))
+                return button;
+        }
+        throw new IllegalStateException("No ." + styleClass + " button " + text);
+    }
+
+    // FX thread only; nodes that are showing, e.g. day cells of the month or list rows rather than pooled ones
+    private List<Node> visible(String selector) {
+        List<Node> nodes = new ArrayList<>();
+        for (Node node : scene.getRoot().lookupAll(selector)) {
+            Node n = node;
+            while (n != null && n.isVisible()) {
+                n = n.getParent();
+            }
+            if (n == null)
+                nodes.add(node);
+        }
+        return nodes;
+    }
+
+    private static <T> T onFx(java.util.concurrent.Callable<T> task) throws Exception {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                result.complete(task.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        return result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // Polls on the FX thread until the supplier has an answer
+    private static <T> T await(Supplier<T> poll) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (true) {
+            T value = onFx(poll::get);
+            if (value != null)
+                return value;
+            if (System.nanoTime() > deadline)
+                throw new IllegalStateException("Timed out waiting on the UI");
+            Thread.sleep(10);
+        }
+    }
+
+    private static long fxThreadAllocated() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    // Live threads only, which is close enough over a run dominated by the FX thread
+    private static long allThreadsAllocated() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        return Arrays.stream(threads.getThreadAllocatedBytes(threads.getAllThreadIds())).filter(b -> b > 0).sum();
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
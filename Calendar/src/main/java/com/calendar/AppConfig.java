@@ -0,0 +1,143 @@
+package com.calendar;
+
+import com.calendar.model.EventTime;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runtime settings, read from system properties so they can be changed with
+ * {@code -D} flags without a config file.
+ */
+final class AppConfig {
+
+    private static final System.Logger LOG = System.getLogger(AppConfig.class.getName());
+
+    private AppConfig() {
+    }
+
+    /** Where the journal and snapshot live. {@code -Dcalendar.dataDir=...} */
+    static Path dataDir() {
+        String dir = System.getProperty("calendar.dataDir");
+        if (dir != null && !dir.isBlank())
+            return Path.of(dir);
+        return Path.of(System.getProperty("user.home"), ".calendar");
+    }
+
+    /** Journal records written before the journal is folded into a new snapshot. */
+    static int compactionThreshold() {
+        return Integer.getInteger("calendar.compactAfter", 50_000);
+    }
+
+    /**
+     * How long before an event its reminders go off, e.g.
+     * {@code -Dcalendar.reminderLeadMinutes=10,0} for "10 minutes before" and
+     * "at start". Defaults to at start only.
+     */
+    static List<Duration> reminderLeadTimes() {
+        List<Duration> leads = new ArrayList<>();
+        for (String part : System.getProperty("calendar.reminderLeadMinutes", "0").split(",")) {
+            try {
+                leads.add(Duration.ofMinutes(Long.parseLong(part.trim())));
+            } catch (NumberFormatException e) {
+                LOG.log(System.Logger.Level.WARNING, "Ignoring invalid reminder lead time: " + part, e);
+            }
+        }
+        return leads;
+    }
+
+    /** How late a reminder may still fire after a suspend or clock jump. */
+    static Duration reminderCatchUpWindow() {
+        return Duration.ofMinutes(Integer.getInteger("calendar.reminderCatchUpMinutes", 60));
+    }
+
+    /**
+     * Hours free slots are suggested in, e.g.
+     * {@code -Dcalendar.freeSlotHours=09:00-17:00}. Defaults to 08:00-20:00.
+     */
+    static EventTime freeSlotHours() {
+        String hours = System.getProperty("calendar.freeSlotHours", "08:00-20:00");
+        try {
+            EventTime time = EventTime.parse(hours);
+            if (time.hasEnd())
+                return time;
+            LOG.log(System.Logger.Level.WARNING, "Ignoring free slot hours without an end: {0}", hours);
+        } catch (IllegalArgumentException e) {
+            LOG.log(System.Logger.Level.WARNING, "Ignoring invalid free slot hours: " + hours, e);
+        }
+        return EventTime.of(8 * 60, 20 * 60);
+    }
+
+    /**
+     * {@code -Dcalendar.compactStore=true} keeps events packed in memory instead
+     * of as objects, for very large calendars; see {@code EventStore.compact()}.
+     */
+    static boolean compactStore() {
+        return Boolean.getBoolean("calendar.compactStore");
+    }
+
+    /**
+     * Months of day counts kept cached for the month grid and the year
+     * overview, least recently viewed dropped first. Enough for the
+     * multi-year overview with room to spare for paging.
+     */
+    static int cachedMonths() {
+        return Integer.getInteger("calendar.cachedMonths", 240);
+    }
+
+    /** Years the multi-year overview spans, ending with the year shown. */
+    static int overviewYears() {
+        return Math.max(2, Integer.getInteger("calendar.overviewYears", 10));
+    }
+
+    /** Edits that can be undone, newest first; older ones are forgotten. */
+    static int undoDepth() {
+        return Integer.getInteger("calendar.undoDepth", 100);
+    }
+
+    /**
+     * Port for the sync server, e.g. {@code -Dcalendar.syncPort=8765}; off
+     * (0) by default. See {@code com.calendar.sync.SyncServer}.
+     */
+    static int syncPort() {
+        return Integer.getInteger("calendar.syncPort", 0);
+    }
+
+    /**
+     * Address the sync server listens on. Loopback by default; use
+     * {@code -Dcalendar.syncHost=0.0.0.0} to reach it from the LAN, ideally
+     * together with a secret. Without one, clients must address the server
+     * by IP or as localhost, not by name.
+     */
+    static String syncHost() {
+        return System.getProperty("calendar.syncHost", "127.0.0.1");
+    }
+
+    /** Bearer token sync clients must send, {@code -Dcalendar.syncSecret=...}; none by default. */
+    static String syncSecret() {
+        String secret = System.getProperty("calendar.syncSecret");
+        return secret == null || secret.isBlank() ? null : secret;
+    }
+
+    /** {@code -Dcalendar.background=false} turns the animated star field off. */
+    static boolean backgroundEnabled() {
+        return Boolean.parseBoolean(System.getProperty("calendar.background", "true"));
+    }
+
+    /** Upper bound on star field frames per second. */
+    static int backgroundFps() {
+        return Integer.getInteger("calendar.background.fps", 30);
+    }
+
+    /** Stars drawn when frames keep up; fewer are drawn on slow machines. */
+    static int backgroundParticles() {
+        return Integer.getInteger("calendar.background.particles", 150);
+    }
+
+    /** {@code -Dcalendar.diagnostics=true} shows the diagnostics overlay at launch; Ctrl+Shift+D toggles it. */
+    static boolean diagnosticsOverlay() {
+        return Boolean.getBoolean("calendar.diagnostics");
+    }
+}
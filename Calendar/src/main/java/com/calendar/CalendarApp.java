@@ -1,17 +1,46 @@
 package com.calendar;
 
+import com.calendar.diagnostics.Diagnostics;
+import com.calendar.diagnostics.DiagnosticsOverlay;
+import com.calendar.history.UndoHistory;
+import com.calendar.ics.IcsExportTask;
+import com.calendar.ics.IcsImportTask;
+import com.calendar.ics.IcsReader;
+import com.calendar.model.DatedEvent;
+import com.calendar.model.Event;
+import com.calendar.model.EventStore;
+import com.calendar.model.EventTime;
+import com.calendar.model.RecurrenceRule;
+import com.calendar.model.Series;
+import com.calendar.model.StoreSnapshot;
+import com.calendar.reminder.NotifiedReminders;
+import com.calendar.reminder.ReminderScheduler;
+import com.calendar.schedule.Schedule;
+import com.calendar.search.SearchIndex;
+import com.calendar.storage.EventRepository;
+import com.calendar.summary.MonthSummaries;
+import com.calendar.summary.MonthSummary;
+import com.calendar.sync.SyncServer;
+import com.calendar.ui.EventList;
+import com.calendar.ui.HoverAnimator;
+import com.calendar.ui.MonthGrid;
+import com.calendar.ui.RenderScheduler;
+import com.calendar.ui.RenderScheduler.Area;
+import com.calendar.ui.SearchBox;
+import com.calendar.ui.StarfieldBackground;
+import com.calendar.ui.TimelineView;
+import com.calendar.ui.YearHeatmap;
 import javafx.application.Application;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import javafx.scene.control.ScrollPane;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
-import javafx.scene.shape.SVGPath;
 import javafx.stage.Stage;
 
+import java.io.IOException;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.YearMonth;
@@ -21,29 +50,68 @@ import java.util.*;
 
 public class CalendarApp extends Application {
 
+    /** What the calendar pane shows. */
+    private enum ViewMode {
+        MONTH, WEEK, DAY, YEAR, YEARS
+    }
+
     private YearMonth currentYearMonth;
     private LocalDate selectedDate;
-    private final Map<LocalDate, List<Event>> events = new HashMap<>();
-
-    private GridPane calendarGrid;
+    private final EventStore events = AppConfig.compactStore() ? EventStore.compact() : new EventStore();
+    private EventRepository repository;
+    private ReminderScheduler reminders;
+    private SyncServer syncServer;
+    private SearchIndex searchIndex;
+    private MonthSummaries monthSummaries; // Null until loaded
+    private UndoHistory history;
+    private Diagnostics diagnostics;
+    private RenderScheduler renders;
+
+    private MonthGrid calendarGrid;
+    private TimelineView timeline;
+    private YearHeatmap overview;
+    private HBox viewButtons;
+    private ViewMode viewMode = ViewMode.MONTH;
     private Label monthYearLabel;
-    private VBox eventsContainer;
+    private EventList eventList;
     private Label selectedDateDayLabel;
     private Label selectedDateFullLabel;
     private Button addEventBtn;
+    private Button importBtn;
+    private Button exportBtn;
+    private SearchBox searchBox;
+    private javafx.scene.control.ProgressBar transferProgress;
+    private Scene scene;
+    private javafx.concurrent.Task<EventRepository> loader;
+    private javafx.concurrent.Task<Integer> transfer; // The latest import or export, and its thread
+    private Thread transferWorker;
+
+    private static final System.Logger LOG = System.getLogger(CalendarApp.class.getName());
+    private static final javafx.scene.input.KeyCombination UNDO = javafx.scene.input.KeyCombination
+            .keyCombination("Shortcut+Z");
+    private static final javafx.scene.input.KeyCombination REDO = javafx.scene.input.KeyCombination
+            .keyCombination("Shortcut+Shift+Z");
+    private static final javafx.scene.input.KeyCombination REDO_ALT = javafx.scene.input.KeyCombination
+            .keyCombination("Shortcut+Y");
 
     public static void main(String[] args) {
         launch(args);
     }
 
+    /*
+     * Startup runs in phases so the window appears before the data is read:
+     * the chrome and an empty month are shown first, events are loaded (and
+     * indexed) on a background thread, and the month fills in as they arrive.
+     * Editing, search and reminders are switched on once loading is done.
+     * Each phase is reported through diagnostics.
+     */
     @Override
     public void start(Stage primaryStage) {
+        diagnostics = new Diagnostics(events);
+        diagnostics.phase(Diagnostics.Phase.START);
         currentYearMonth = YearMonth.now();
         selectedDate = LocalDate.now();
 
-        // Seed some data for demo purposes
-        seedData();
-
         // Main Layout
         HBox mainContent = new HBox(30);
         mainContent.setPadding(new Insets(30));
@@ -70,60 +138,216 @@ public class CalendarApp extends Application {
         // 2. Main Content
         root.getChildren().add(mainContent);
 
-        // Start Animation
-        startBackgroundAnimation(canvas);
+        // 3. Diagnostics read-out, hidden until toggled
+        DiagnosticsOverlay overlay = new DiagnosticsOverlay(diagnostics);
+        root.getChildren().add(overlay);
 
-        Scene scene = new Scene(root, 1000, 700);
+        scene = new Scene(root, 1000, 700);
         scene.getStylesheets().add(getClass().getResource("/styles.css").toExternalForm());
+        scene.getAccelerators().put(DiagnosticsOverlay.TOGGLE, overlay::toggle);
+
+        // Handlers only mark what they made stale; the next pulse rebuilds each marked part once
+        renders = new RenderScheduler(scene);
+        renders.setRenderer(Area.HEADER, this::updateHeader);
+        renders.setRenderer(Area.GRID, this::updateCalendar);
+        renders.setRenderer(Area.SELECTION, this::updateSelection);
+        renders.setRenderer(Area.DETAILS, this::updateDetails);
+        renders.setDayRenderer(this::updateDay);
+        diagnostics.observe(renders);
+
+        // The month is drawn empty until the events arrive
+        renders.invalidate(Area.HEADER, Area.GRID, Area.DETAILS);
+        setDataControlsDisabled(true);
 
         primaryStage.setTitle("Calendar");
         primaryStage.setScene(scene);
         primaryStage.show();
+        diagnostics.phase(Diagnostics.Phase.SHOWN);
+        afterNextFrame(() -> diagnostics.phase(Diagnostics.Phase.FIRST_FRAME));
 
         // Bind canvas size to scene size
         canvas.widthProperty().bind(scene.widthProperty());
         canvas.heightProperty().bind(scene.heightProperty());
 
-        updateCalendar();
-        updateDetails();
-
-        startNotificationService();
+        // Start Animation
+        StarfieldBackground background = new StarfieldBackground(canvas, AppConfig.backgroundFps(),
+                AppConfig.backgroundParticles());
+        background.setEnabled(AppConfig.backgroundEnabled());
+        background.pauseWhenHidden(primaryStage);
+        background.start();
+        diagnostics.observe(background);
+        overlay.setShown(AppConfig.diagnosticsOverlay());
+
+        // Writes from any thread (loading, imports, undo) show up here, at most once per pulse
+        events.addChangeListener(this::storeChanged, javafx.application.Platform::runLater);
+        history = new UndoHistory(events, AppConfig.undoDepth());
+        scene.getAccelerators().put(UNDO, history::undo);
+        scene.getAccelerators().put(REDO, history::redo);
+        scene.getAccelerators().put(REDO_ALT, history::redo);
+        loadEvents();
     }
 
-    private final Set<Event> notifiedEvents = new HashSet<>();
+    @Override
+    public void stop() {
+        if (reminders != null) {
+            reminders.close();
+        }
+        if (syncServer != null) {
+            syncServer.close();
+        }
+        if (repository == null && loader != null) {
+            // Closed before the hand-over; let the load finish so its writes are flushed
+            try {
+                repository = loader.get(5, java.util.concurrent.TimeUnit.SECONDS);
+            } catch (Exception e) {
+                // Nothing was loaded, so nothing to save
+            }
+        }
+        if (diagnostics != null) {
+            diagnostics.close();
+        }
+        if (transferWorker != null && transferWorker.isAlive()) {
+            // An import still writing would race the final snapshot
+            transfer.cancel();
+            try {
+                transferWorker.join(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (repository != null) {
+            try {
+                repository.close();
+            } catch (IOException e) {
+                LOG.log(System.Logger.Level.ERROR, "Failed to save events", e);
+            }
+        }
+    }
 
-    private void startNotificationService() {
-        // Check every 30 seconds
-        javafx.animation.Timeline timeline = new javafx.animation.Timeline(
-                new javafx.animation.KeyFrame(javafx.util.Duration.seconds(30), e -> {
-                    checkEventsForNotification();
-                }));
-        timeline.setCycleCount(javafx.animation.Animation.INDEFINITE);
-        timeline.play();
+    // Reads, seeds and indexes the store on a background thread
+    private void loadEvents() {
+        loader = new javafx.concurrent.Task<>() {
+            @Override
+            protected EventRepository call() {
+                EventRepository repo = null;
+                try {
+                    repo = EventRepository.open(AppConfig.dataDir(), events, AppConfig.compactionThreshold());
+                } catch (IOException e) {
+                    // Still usable, just not persistent for this session
+                    LOG.log(System.Logger.Level.ERROR, "Failed to load events, running in memory only", e);
+                }
+                // Seed some data for demo purposes, but only into a new data dir, so deleted demo
+                // events stay deleted; in memory only, every session starts empty and gets them
+                if (repo == null ? events.isEmpty() : repo.isFresh()) {
+                    seedData();
+                }
+                // Follows the store from here on, so adds and deletes keep it current
+                searchIndex = SearchIndex.attach(events);
+                monthSummaries = MonthSummaries.attach(events, AppConfig.cachedMonths(),
+                        java.util.concurrent.Executors.newSingleThreadExecutor(r -> {
+                            Thread t = new Thread(r, "calendar-prefetch");
+                            t.setDaemon(true);
+                            return t;
+                        }));
+                return repo;
+            }
+        };
+        loader.setOnSucceeded(e -> dataLoaded(loader.getValue()));
+        loader.setOnFailed(e -> {
+            LOG.log(System.Logger.Level.ERROR, "Failed to load events", loader.getException());
+            dataLoaded(null);
+        });
+        Thread worker = new Thread(loader, "calendar-loader");
+        worker.setDaemon(true);
+        worker.start();
     }
 
-    private void checkEventsForNotification() {
-        java.time.LocalTime now = java.time.LocalTime.now();
-        LocalDate today = LocalDate.now();
+    // Populate first, so the month is on screen before search and reminders start up
+    private void dataLoaded(EventRepository repo) {
+        repository = repo;
+        renders.invalidate(Area.GRID, Area.DETAILS);
+        setDataControlsDisabled(false);
+        diagnostics.phase(Diagnostics.Phase.DATA_LOADED);
+
+        javafx.application.Platform.runLater(() -> {
+            if (searchIndex != null)
+                searchBox.setIndex(searchIndex);
+            startNotificationService();
+            startSyncServer();
+            afterNextFrame(() -> diagnostics.phase(Diagnostics.Phase.INTERACTIVE));
+        });
+    }
 
-        if (events.containsKey(today)) {
-            for (Event event : events.get(today)) {
-                if (notifiedEvents.contains(event))
-                    continue;
+    // Only the badges of days that changed, unless the change is too broad to say
+    private void storeChanged(StoreSnapshot snapshot, EventStore.Change change) {
+        if (change.isEverything()) {
+            renders.invalidate(Area.GRID);
+        } else {
+            for (LocalDate date : change.dates()) {
+                if (isShown(date))
+                    renders.invalidateDay(date);
+            }
+        }
+        if (change.touches(selectedDate))
+            renders.invalidate(Area.DETAILS);
+    }
 
-                java.time.LocalTime eventTime = parseStartTime(event);
-                if (eventTime == java.time.LocalTime.MAX)
-                    continue; // Invalid time
+    private void setDataControlsDisabled(boolean disabled) {
+        addEventBtn.setDisable(disabled);
+        importBtn.setDisable(disabled);
+        exportBtn.setDisable(disabled);
+    }
 
-                // Check if match (ignoring seconds)
-                if (eventTime.getHour() == now.getHour() && eventTime.getMinute() == now.getMinute()) {
-                    showNotification("Event Reminder", "It's time for: " + event.title);
-                    notifiedEvents.add(event);
-                }
+    // Runs once the next pulse has laid out and rendered the scene
+    private void afterNextFrame(Runnable action) {
+        Runnable once = new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                action.run();
             }
+        };
+        scene.addPostLayoutPulseListener(once);
+        javafx.application.Platform.requestNextPulse();
+    }
+
+    private void startNotificationService() {
+        // Kept next to the events, unless those could not be loaded either
+        NotifiedReminders notified = repository != null
+                ? NotifiedReminders.open(AppConfig.dataDir().resolve("notified-reminders"))
+                : NotifiedReminders.inMemory();
+        reminders = new ReminderScheduler(events, AppConfig.reminderLeadTimes(), AppConfig.reminderCatchUpWindow(),
+                notified, javafx.application.Platform::runLater,
+                reminder -> {
+                    diagnostics.reminderDelivered(reminder.event().getTitle(), reminder.due(),
+                            java.time.Instant.now());
+                    javafx.application.Platform.runLater(() -> showNotification("Event Reminder",
+                            reminderMessage(reminder)));
+                },
+                java.time.Clock.systemDefaultZone());
+        reminders.start();
+    }
+
+    // Off unless a port is configured; remote edits reach the views through the store's change listener
+    private void startSyncServer() {
+        int port = AppConfig.syncPort();
+        if (port <= 0)
+            return;
+        try {
+            syncServer = SyncServer.start(events, new java.net.InetSocketAddress(AppConfig.syncHost(), port),
+                    AppConfig.syncSecret());
+        } catch (IOException e) {
+            LOG.log(System.Logger.Level.ERROR, "Failed to start sync server on port " + port, e);
         }
     }
 
+    private String reminderMessage(ReminderScheduler.Reminder reminder) {
+        long minutes = reminder.leadTime().toMinutes();
+        if (minutes <= 0)
+            return "It's time for: " + reminder.event().getTitle();
+        return reminder.event().getTitle() + " starts in " + minutes + (minutes == 1 ? " minute" : " minutes");
+    }
+
     private void showNotification(String title, String message) {
         // Use JavaFX Alert with a specific "Stop" button to simulate dismissing an
         // alarm
@@ -145,135 +369,6 @@ public class CalendarApp extends Application {
         java.awt.Toolkit.getDefaultToolkit().beep();
     }
 
-    private void startBackgroundAnimation(javafx.scene.canvas.Canvas canvas) {
-        javafx.scene.canvas.GraphicsContext gc = canvas.getGraphicsContext2D();
-        Random rand = new Random();
-        int particleCount = 150; // More particles for stars
-        double[] x = new double[particleCount];
-        double[] y = new double[particleCount];
-        double[] vx = new double[particleCount];
-        double[] vy = new double[particleCount];
-        double[] size = new double[particleCount];
-        double[] opacity = new double[particleCount];
-        double[] opacitySpeed = new double[particleCount];
-
-        // Initialize particles
-        for (int i = 0; i < particleCount; i++) {
-            x[i] = rand.nextDouble() * 1000;
-            y[i] = rand.nextDouble() * 700;
-            // Very slow drift
-            vx[i] = (rand.nextDouble() - 0.5) * 0.2;
-            vy[i] = (rand.nextDouble() - 0.5) * 0.2;
-            size[i] = 1 + rand.nextDouble() * 3; // Small stars
-            opacity[i] = rand.nextDouble();
-            opacitySpeed[i] = (rand.nextDouble() - 0.5) * 0.02; // Twinkle speed
-        }
-
-        new javafx.animation.AnimationTimer() {
-            @Override
-            public void handle(long now) {
-                // Clear background
-                gc.setFill(Color.web("#0b0b0b"));
-                gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
-
-                for (int i = 0; i < particleCount; i++) {
-                    // Update movement
-                    x[i] += vx[i];
-                    y[i] += vy[i];
-
-                    // Wrap around screen
-                    if (x[i] < -10)
-                        x[i] = canvas.getWidth() + 10;
-                    if (x[i] > canvas.getWidth() + 10)
-                        x[i] = -10;
-                    if (y[i] < -10)
-                        y[i] = canvas.getHeight() + 10;
-                    if (y[i] > canvas.getHeight() + 10)
-                        y[i] = -10;
-
-                    // Update twinkle
-                    opacity[i] += opacitySpeed[i];
-                    if (opacity[i] > 1.0 || opacity[i] < 0.2) {
-                        opacitySpeed[i] = -opacitySpeed[i]; // Reverse twinkle direction
-                    }
-                    // Clamp opacity
-                    double currentOpacity = Math.max(0.2, Math.min(1.0, opacity[i]));
-
-                    gc.setFill(Color.color(1, 1, 1, currentOpacity)); // White stars
-                    gc.fillOval(x[i], y[i], size[i], size[i]);
-                }
-            }
-        }.start();
-    }
-
-    // Helper to add hover animation to buttons
-    private void addSmoothColorAnimation(Button btn, Color normalBg, Color hoverBg, Color normalText, Color hoverText) {
-        btn.setOnMouseEntered(e -> {
-            javafx.animation.Transition t = new javafx.animation.Transition() {
-                {
-                    setCycleDuration(javafx.util.Duration.millis(300));
-                } // 300ms smooth transition
-
-                @Override
-                protected void interpolate(double frac) {
-                    Color currentBg = normalBg.interpolate(hoverBg, frac);
-                    Color currentText = normalText.interpolate(hoverText, frac);
-                    String bgHex = toHex(currentBg);
-                    String textHex = toHex(currentText);
-                    btn.setStyle(String.format(
-                            "-fx-background-color: %s; -fx-text-fill: %s; -fx-background-radius: 6; -fx-border-color: rgba(255, 255, 255, 0.15); -fx-border-radius: 6; -fx-padding: 12 30; -fx-font-size: 14px; -fx-font-weight: 700;",
-                            bgHex, textHex));
-                }
-            };
-            t.play();
-        });
-
-        btn.setOnMouseExited(e -> {
-            javafx.animation.Transition t = new javafx.animation.Transition() {
-                {
-                    setCycleDuration(javafx.util.Duration.millis(300));
-                }
-
-                @Override
-                protected void interpolate(double frac) {
-                    Color currentBg = hoverBg.interpolate(normalBg, frac);
-                    Color currentText = hoverText.interpolate(normalText, frac);
-                    String bgHex = toHex(currentBg);
-                    String textHex = toHex(currentText);
-                    btn.setStyle(String.format(
-                            "-fx-background-color: %s; -fx-text-fill: %s; -fx-background-radius: 6; -fx-border-color: rgba(255, 255, 255, 0.15); -fx-border-radius: 6; -fx-padding: 12 30; -fx-font-size: 14px; -fx-font-weight: 700;",
-                            bgHex, textHex));
-                }
-
-            };
-            t.play();
-        });
-    }
-
-    private String toHex(Color c) {
-        return String.format("#%02X%02X%02X",
-                (int) (c.getRed() * 255),
-                (int) (c.getGreen() * 255),
-                (int) (c.getBlue() * 255));
-    }
-
-    private void addInteractiveAnimation(javafx.scene.Node node) {
-        javafx.animation.ScaleTransition st = new javafx.animation.ScaleTransition(javafx.util.Duration.millis(200),
-                node);
-        node.setOnMouseEntered(e -> {
-            st.setToX(1.1);
-            st.setToY(1.1);
-            st.playFromStart();
-            node.setEffect(new javafx.scene.effect.DropShadow(10, Color.BLACK));
-        });
-        node.setOnMouseExited(e -> {
-            st.setToX(1.0);
-            st.setToY(1.0);
-            st.playFromStart();
-            node.setEffect(null);
-        });
-    }
-
     private void seedData() {
         LocalDate today = LocalDate.now();
         // Create some events for "today" or specific dates
@@ -291,7 +386,7 @@ public class CalendarApp extends Application {
     }
 
     private void addEvent(LocalDate date, String title, String time) {
-        events.computeIfAbsent(date, k -> new ArrayList<>()).add(new Event(title, time));
+        events.add(date, new Event(events.nextId(), title, EventTime.parse(time)));
     }
 
     private VBox buildCalendarPane() {
@@ -328,37 +423,248 @@ public class CalendarApp extends Application {
 
             dialog.showAndWait().ifPresent(date -> {
                 currentYearMonth = java.time.YearMonth.from(date);
-                updateCalendar();
+                if (isTimeline())
+                    selectedDate = date; // The week or day shown follows the selection
+                renders.invalidate(Area.HEADER, Area.GRID, Area.DETAILS);
             });
         });
 
         Button nextBtn = new Button(">");
         nextBtn.getStyleClass().add("nav-button");
-        addInteractiveAnimation(nextBtn);
-        nextBtn.setOnAction(e -> {
-            currentYearMonth = currentYearMonth.plusMonths(1);
-            updateCalendar();
-        });
+        HoverAnimator.scaleAndShadow(nextBtn);
+        nextBtn.setOnAction(e -> step(1));
 
         Button prevBtn = new Button("<");
         prevBtn.getStyleClass().add("nav-button");
-        addInteractiveAnimation(prevBtn);
-        prevBtn.setOnAction(e -> {
-            currentYearMonth = currentYearMonth.minusMonths(1);
-            updateCalendar();
+        HoverAnimator.scaleAndShadow(prevBtn);
+        prevBtn.setOnAction(e -> step(-1));
+
+        viewButtons = new HBox(4);
+        viewButtons.setAlignment(Pos.CENTER_LEFT);
+        for (ViewMode mode : ViewMode.values()) {
+            Button modeBtn = new Button(mode.name());
+            modeBtn.getStyleClass().add("tool-button");
+            modeBtn.setOnAction(e -> setViewMode(mode));
+            viewButtons.getChildren().add(modeBtn);
+        }
+        viewButtons.getChildren().get(viewMode.ordinal()).getStyleClass().add("active");
+
+        // Import / export, right-aligned
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+
+        transferProgress = new javafx.scene.control.ProgressBar();
+        transferProgress.getStyleClass().add("transfer-progress");
+        transferProgress.setVisible(false);
+
+        importBtn = new Button("IMPORT");
+        importBtn.getStyleClass().add("tool-button");
+        HoverAnimator.scaleAndShadow(importBtn);
+        importBtn.setOnAction(e -> importCalendar());
+
+        exportBtn = new Button("EXPORT");
+        exportBtn.getStyleClass().add("tool-button");
+        HoverAnimator.scaleAndShadow(exportBtn);
+        exportBtn.setOnAction(e -> exportCalendar());
+
+        searchBox = new SearchBox(hit -> {
+            selectedDate = hit.date();
+            currentYearMonth = YearMonth.from(hit.date());
+            renders.invalidate(Area.HEADER, Area.GRID, Area.DETAILS);
         });
 
-        header.getChildren().addAll(monthYearLabel, prevBtn, nextBtn);
+        header.getChildren().addAll(monthYearLabel, prevBtn, nextBtn, viewButtons, spacer, searchBox,
+                transferProgress, importBtn, exportBtn);
 
         // Grid
-        calendarGrid = new GridPane();
-        calendarGrid.setHgap(10);
-        calendarGrid.setVgap(10);
+        calendarGrid = new MonthGrid(this::selectDay, HoverAnimator::scaleAndShadow);
+
+        // Week and day timelines, drawn on a canvas; hidden until chosen
+        timeline = new TimelineView((date, event) -> selectDay(date), this::selectDay);
+        timeline.setVisible(false);
+        timeline.setManaged(false);
+        timeline.scrollToMinute(8 * 60);
 
-        pane.getChildren().addAll(header, calendarGrid);
+        // Year and multi-year heatmap; a click opens that day's month
+        overview = new YearHeatmap(date -> {
+            selectedDate = date;
+            setViewMode(ViewMode.MONTH);
+            renders.invalidate(Area.DETAILS);
+        });
+        overview.setVisible(false);
+        overview.setManaged(false);
+
+        StackPane calendarView = new StackPane(calendarGrid, timeline, overview);
+        calendarView.setAlignment(Pos.TOP_LEFT);
+        VBox.setVgrow(calendarView, Priority.ALWAYS);
+        pane.getChildren().addAll(header, calendarView);
         return pane;
     }
 
+    // Only the old and new highlight change
+    private void selectDay(LocalDate date) {
+        selectedDate = date;
+        renders.invalidate(Area.SELECTION, Area.DETAILS);
+    }
+
+    // < and >: a month, a week, a day or the years, whichever is shown
+    private void step(int direction) {
+        switch (viewMode) {
+            case MONTH -> currentYearMonth = currentYearMonth.plusMonths(direction);
+            case WEEK -> selectedDate = selectedDate.plusWeeks(direction);
+            case DAY -> selectedDate = selectedDate.plusDays(direction);
+            case YEAR -> currentYearMonth = currentYearMonth.plusYears(direction);
+            case YEARS -> currentYearMonth = currentYearMonth.plusYears((long) direction * AppConfig.overviewYears());
+        }
+        if (isTimeline()) {
+            currentYearMonth = YearMonth.from(selectedDate);
+            renders.invalidate(Area.DETAILS);
+        }
+        renders.invalidate(Area.HEADER, Area.GRID);
+    }
+
+    private void setViewMode(ViewMode mode) {
+        viewButtons.getChildren().get(viewMode.ordinal()).getStyleClass().remove("active");
+        viewButtons.getChildren().get(mode.ordinal()).getStyleClass().add("active");
+        viewMode = mode;
+        boolean month = mode == ViewMode.MONTH;
+        calendarGrid.setVisible(month);
+        calendarGrid.setManaged(month);
+        timeline.setVisible(isTimeline());
+        timeline.setManaged(isTimeline());
+        overview.setVisible(isOverview());
+        overview.setManaged(isOverview());
+        currentYearMonth = YearMonth.from(selectedDate);
+        renders.invalidate(Area.HEADER, Area.GRID);
+    }
+
+    private boolean isTimeline() {
+        return viewMode == ViewMode.WEEK || viewMode == ViewMode.DAY;
+    }
+
+    private boolean isOverview() {
+        return viewMode == ViewMode.YEAR || viewMode == ViewMode.YEARS;
+    }
+
+    // The years the overview spans, ending with the one shown
+    private int overviewYears() {
+        return viewMode == ViewMode.YEARS ? AppConfig.overviewYears() : 1;
+    }
+
+    private void importCalendar() {
+        if (transferProgress.isVisible())
+            return; // One import/export at a time
+        javafx.stage.FileChooser chooser = new javafx.stage.FileChooser();
+        chooser.setTitle("Import Calendar");
+        chooser.getExtensionFilters().add(new javafx.stage.FileChooser.ExtensionFilter("iCalendar", "*.ics"));
+        java.io.File file = chooser.showOpenDialog(calendarGrid.getScene().getWindow());
+        if (file == null)
+            return;
+
+        // However many batches it takes, the whole import is one undo step
+        UndoHistory.Step step = history.begin("Import " + file.getName());
+        IcsImportTask task = new IcsImportTask(file.toPath(), java.time.ZoneId.systemDefault(),
+                batch -> history.record(step, () -> {
+                    List<DatedEvent> added = new ArrayList<>(batch.size());
+                    List<Series> repeating = new ArrayList<>();
+                    for (IcsReader.VEvent v : batch) {
+                        Event event = new Event(events.nextId(), v.summary(), v.time());
+                        if (v.rule() != null) {
+                            repeating.add(new Series(event, v.date(), v.rule(), v.exceptions()));
+                        } else {
+                            added.add(new DatedEvent(v.date(), event));
+                        }
+                    }
+                    events.putAllSeries(repeating);
+                    events.addAll(added); // the month refreshes through storeChanged, once per pulse
+                }));
+        task.runningProperty().addListener((obs, was, running) -> {
+            if (!running)
+                history.commit(step); // a failed or cancelled import can be undone too
+        });
+        runTransfer(task, "Import failed");
+    }
+
+    private void exportCalendar() {
+        if (transferProgress.isVisible())
+            return;
+        javafx.scene.control.DatePicker fromPicker = new javafx.scene.control.DatePicker(currentYearMonth.atDay(1));
+        javafx.scene.control.DatePicker toPicker = new javafx.scene.control.DatePicker(currentYearMonth.atEndOfMonth());
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.add(new Label("From:"), 0, 0);
+        grid.add(fromPicker, 1, 0);
+        grid.add(new Label("To:"), 0, 1);
+        grid.add(toPicker, 1, 1);
+
+        javafx.scene.control.Dialog<LocalDate[]> dialog = new javafx.scene.control.Dialog<>();
+        dialog.setTitle("Export Calendar");
+        dialog.setHeaderText("Choose the range to export");
+        dialog.getDialogPane().setContent(grid);
+        dialog.getDialogPane().getButtonTypes().addAll(
+                javafx.scene.control.ButtonType.OK,
+                javafx.scene.control.ButtonType.CANCEL);
+        dialog.setResultConverter(btnType -> btnType == javafx.scene.control.ButtonType.OK
+                ? new LocalDate[] { fromPicker.getValue(), toPicker.getValue() }
+                : null);
+
+        LocalDate[] range = dialog.showAndWait().orElse(null);
+        if (range == null || range[0] == null || range[1] == null || range[0].isAfter(range[1]))
+            return;
+
+        javafx.stage.FileChooser chooser = new javafx.stage.FileChooser();
+        chooser.setTitle("Export Calendar");
+        chooser.setInitialFileName("calendar.ics");
+        chooser.getExtensionFilters().add(new javafx.stage.FileChooser.ExtensionFilter("iCalendar", "*.ics"));
+        java.io.File file = chooser.showSaveDialog(calendarGrid.getScene().getWindow());
+        if (file == null)
+            return;
+
+        // Copy the range here; the writer runs off the FX thread. Series go out whole, with their rule,
+        // if they overlap the range at all
+        StoreSnapshot snapshot = events.snapshot();
+        List<DatedEvent> toWrite = new ArrayList<>();
+        snapshot.storedEventsBetween(range[0], range[1]).forEach((date, dayEvents) -> {
+            for (Event event : dayEvents) {
+                toWrite.add(new DatedEvent(date, event));
+            }
+        });
+        List<Series> seriesToWrite = new ArrayList<>();
+        for (Series s : snapshot.allSeries()) {
+            LocalDate last = s.lastDate();
+            if (!s.start().isAfter(range[1]) && (last == null || !last.isBefore(range[0])))
+                seriesToWrite.add(s);
+        }
+        runTransfer(new IcsExportTask(file.toPath(), toWrite, seriesToWrite), "Export failed");
+    }
+
+    private void runTransfer(javafx.concurrent.Task<Integer> task, String failureTitle) {
+        transfer = task;
+        transferProgress.progressProperty().bind(task.progressProperty());
+        transferProgress.setVisible(true);
+        task.setOnSucceeded(e -> {
+            transferProgress.setVisible(false);
+            renders.invalidate(Area.GRID, Area.DETAILS);
+        });
+        task.setOnFailed(e -> {
+            transferProgress.setVisible(false);
+            renders.invalidate(Area.GRID, Area.DETAILS);
+            javafx.scene.control.Alert alert = new javafx.scene.control.Alert(
+                    javafx.scene.control.Alert.AlertType.ERROR);
+            alert.setTitle(failureTitle);
+            alert.setHeaderText(failureTitle);
+            alert.setContentText(String.valueOf(task.getException().getMessage()));
+            alert.initOwner(calendarGrid.getScene().getWindow());
+            alert.show();
+        });
+        Thread worker = new Thread(task, "calendar-transfer");
+        worker.setDaemon(true);
+        transferWorker = worker;
+        worker.start();
+    }
+
     private VBox buildDetailsPane() {
         VBox pane = new VBox(20);
         pane.getStyleClass().add("details-pane");
@@ -373,23 +679,14 @@ public class CalendarApp extends Application {
 
         dateHeader.getChildren().addAll(selectedDateDayLabel, selectedDateFullLabel);
 
-        // Events List
-        ScrollPane scrollPane = new ScrollPane();
-        scrollPane.setFitToWidth(true);
-        scrollPane.getStyleClass().add("event-scroll-pane");
-        VBox.setVgrow(scrollPane, Priority.ALWAYS);
-
-        eventsContainer = new VBox(10);
-        scrollPane.setContent(eventsContainer);
-
         // Add Event Button
         addEventBtn = new Button("ADD EVENT");
         addEventBtn.getStyleClass().add("add-event-button");
         addEventBtn.setMaxWidth(Double.MAX_VALUE);
-        addInteractiveAnimation(addEventBtn);
+        HoverAnimator.scaleAndShadow(addEventBtn);
 
         // Smooth transition for AUDIT & BUILD style (Dark to White)
-        addSmoothColorAnimation(addEventBtn,
+        HoverAnimator.colorFade(addEventBtn, new CornerRadii(6),
                 Color.web("#111111"), Color.WHITE, // Bg: Dark -> White
                 Color.WHITE, Color.BLACK // Text: White -> Black
         );
@@ -398,7 +695,10 @@ public class CalendarApp extends Application {
             // Create a custom dialog for entering event details
             javafx.scene.control.Dialog<Event> dialog = new javafx.scene.control.Dialog<>();
             dialog.setTitle("Add New Event");
-            dialog.setHeaderText("Enter event details");
+            // Picking a suggested slot on another day moves the event there
+            LocalDate[] targetDate = { selectedDate };
+            DateTimeFormatter headerFormat = DateTimeFormatter.ofPattern("EEEE d MMM yy", Locale.ENGLISH);
+            dialog.setHeaderText("Enter event details for " + targetDate[0].format(headerFormat));
 
             // Set the button types
             javafx.scene.control.ButtonType loginButtonType = new javafx.scene.control.ButtonType("Add",
@@ -421,6 +721,96 @@ public class CalendarApp extends Application {
             grid.add(new Label("Time:"), 0, 1);
             grid.add(timeField, 1, 1);
 
+            // Recurrence: stored once as a series, expanded only when viewed
+            javafx.scene.control.ComboBox<String> repeatBox = new javafx.scene.control.ComboBox<>();
+            repeatBox.getItems().addAll("Never", "Daily", "Weekly", "Monthly", "Yearly");
+            repeatBox.setValue("Never");
+            javafx.scene.control.Spinner<Integer> everySpinner = new javafx.scene.control.Spinner<>(1, 99, 1);
+            javafx.scene.control.DatePicker untilPicker = new javafx.scene.control.DatePicker();
+            untilPicker.setPromptText("Until (optional)");
+            javafx.scene.control.TextField countField = new javafx.scene.control.TextField();
+            countField.setPromptText("Number of times (optional)");
+
+            grid.add(new Label("Repeat:"), 0, 2);
+            grid.add(repeatBox, 1, 2);
+            grid.add(new Label("Every:"), 0, 3);
+            grid.add(everySpinner, 1, 3);
+            grid.add(new Label("Ends:"), 0, 4);
+            grid.add(new HBox(10, untilPicker, countField), 1, 4);
+
+            // Validate as the user types so a bad time never reaches the store
+            Label errorLbl = new Label();
+            errorLbl.setStyle("-fx-text-fill: #FF5252;");
+            grid.add(errorLbl, 1, 5);
+
+            // Overlaps only warn; double-booking is sometimes intended
+            Label warningLbl = new Label();
+            warningLbl.setStyle("-fx-text-fill: #FFB74D;");
+            grid.add(warningLbl, 1, 6);
+            HBox freeSlots = new HBox(6);
+            freeSlots.setAlignment(Pos.CENTER_LEFT);
+            grid.add(new Label("Free:"), 0, 7);
+            grid.add(freeSlots, 1, 7);
+
+            // Indexed once for this dialog; each keystroke is then an index lookup
+            Schedule schedule = new Schedule(events.snapshot());
+            EventTime window = AppConfig.freeSlotHours();
+            DateTimeFormatter slotDayFormat = DateTimeFormatter.ofPattern("EEE ", Locale.ENGLISH);
+
+            javafx.scene.Node addButton = dialog.getDialogPane().lookupButton(loginButtonType);
+            Runnable validate = () -> {
+                String error = null;
+                boolean repeats = !"Never".equals(repeatBox.getValue());
+                everySpinner.setDisable(!repeats);
+                untilPicker.setDisable(!repeats);
+                countField.setDisable(!repeats);
+                EventTime time = null;
+                try {
+                    time = EventTime.parse(timeField.getText());
+                } catch (IllegalArgumentException ex) {
+                    error = ex.getMessage();
+                }
+                if (error == null && titleField.getText().isBlank()) {
+                    error = "";
+                } else if (error == null && repeats) {
+                    try {
+                        recurrenceRule(repeatBox.getValue(), everySpinner.getValue(), countField.getText(),
+                                untilPicker.getValue(), targetDate[0]);
+                    } catch (IllegalArgumentException ex) {
+                        error = ex.getMessage();
+                    }
+                }
+                addButton.setDisable(error != null);
+                errorLbl.setText(error == null ? "" : error);
+
+                List<Event> overlaps = time == null ? List.of() : schedule.conflictsWith(targetDate[0], time);
+                warningLbl.setText(overlaps.isEmpty() ? ""
+                        : "Overlaps " + overlaps.get(0).getTitle() + " (" + overlaps.get(0).getTime() + ")"
+                                + (overlaps.size() > 1 ? " and " + (overlaps.size() - 1) + " more" : ""));
+
+                // Suggest slots as long as the typed time, or an hour
+                int length = time != null && time.hasEnd() ? time.getEndMinute() - time.getStartMinute() : 60;
+                List<javafx.scene.control.Hyperlink> links = new ArrayList<>();
+                for (Schedule.Slot slot : schedule.freeSlots(targetDate[0], targetDate[0].plusDays(6), length,
+                        window.getStartMinute(), window.getEndMinute(), java.time.LocalDateTime.now(), 3)) {
+                    String day = slot.date().equals(targetDate[0]) ? "" : slot.date().format(slotDayFormat);
+                    javafx.scene.control.Hyperlink link = new javafx.scene.control.Hyperlink(day + slot.time());
+                    link.setOnAction(ev -> {
+                        targetDate[0] = slot.date();
+                        dialog.setHeaderText("Enter event details for " + targetDate[0].format(headerFormat));
+                        timeField.setText(slot.time().toString());
+                    });
+                    links.add(link);
+                }
+                freeSlots.getChildren().setAll(links);
+            };
+            titleField.textProperty().addListener((obs, oldText, newText) -> validate.run());
+            timeField.textProperty().addListener((obs, oldText, newText) -> validate.run());
+            repeatBox.valueProperty().addListener((obs, oldValue, newValue) -> validate.run());
+            untilPicker.valueProperty().addListener((obs, oldValue, newValue) -> validate.run());
+            countField.textProperty().addListener((obs, oldText, newText) -> validate.run());
+            validate.run();
+
             dialog.getDialogPane().setContent(grid);
 
             // Request focus on the title field by default.
@@ -430,7 +820,9 @@ public class CalendarApp extends Application {
             // clicked.
             dialog.setResultConverter(dialogButton -> {
                 if (dialogButton == loginButtonType) {
-                    return new Event(titleField.getText(), timeField.getText());
+                    // Blank time means all day
+                    return new Event(events.nextId(), titleField.getText().trim(),
+                            EventTime.parse(timeField.getText()));
                 }
                 return null;
             });
@@ -438,217 +830,208 @@ public class CalendarApp extends Application {
             Optional<Event> result = dialog.showAndWait();
 
             result.ifPresent(event -> {
-                if (!event.title.isEmpty()) {
-                    addEvent(selectedDate, event.title, event.time.isEmpty() ? "All Day" : event.time);
-                    updateDetails();
-                    updateCalendar();
+                LocalDate date = targetDate[0];
+                if ("Never".equals(repeatBox.getValue())) {
+                    history.record("Add event", () -> events.add(date, event));
+                    if (date.equals(selectedDate)) {
+                        renders.invalidateDay(date);
+                        eventList.insert(event, events.eventsOn(date).indexOf(event)); // just the new row
+                        return;
+                    }
+                } else {
+                    RecurrenceRule rule = recurrenceRule(repeatBox.getValue(), everySpinner.getValue(),
+                            countField.getText(), untilPicker.getValue(), date);
+                    history.record("Add repeating event", () -> events.putSeries(new Series(event, date, rule,
+                            Set.of())));
                 }
+                // A series can touch every day of the month, and a suggested slot may be on another day
+                selectedDate = date;
+                currentYearMonth = YearMonth.from(date);
+                renders.invalidate(Area.HEADER, Area.GRID, Area.DETAILS);
             });
         });
 
-        pane.getChildren().addAll(dateHeader, scrollPane);
+        // Events List: virtualized, with the add button as its last row
+        eventList = new EventList(addEventBtn, this::deleteEvent);
+        VBox.setVgrow(eventList, Priority.ALWAYS);
+
+        pane.getChildren().addAll(dateHeader, eventList);
         return pane;
 
     }
 
-    private void updateCalendar() {
-        monthYearLabel.setText(currentYearMonth.getMonth().name() + " " + currentYearMonth.getYear());
-        calendarGrid.getChildren().clear();
-
-        // Days of week can be headers if desired, but image doesn't show them clearly
-        // inside the grid cells.
-        // Image assumes a grid. Let's make it 7 columns.
-
-        LocalDate firstDayOfMonth = currentYearMonth.atDay(1);
-        int dayOfWeekValue = firstDayOfMonth.getDayOfWeek().getValue(); // 1=Mon, 7=Sun
-
-        // Adjust standard calendar start (Sunday vs Monday). Let's start Monday (1) for
-        // now or match image?
-        // Image has 7 cols. If we assume row 1 col 1 is the 1st of month:
-        // That means we fill purely by date, not aligning to weekdays?
-        // "31" is on row 5, col 3.
-        // It's safer to align to weekdays. Let's align to Sunday-Saturday or
-        // Monday-Sunday.
-        // I will use Monday start.
-
-        // Let's assume the user wants a standard calendar view.
-        // 1-indexed.
-        int col = 0;
-        int row = 0;
-
-        // Pad previous month? Image doesn't show previous month days.
-        // We just need to offset the start.
-        // If we want Mon-Sun:
-        int offset = dayOfWeekValue - 1; // Mon(1) -> 0 offset.
-
-        // Fill empty slots
-        for (int i = 0; i < offset; i++) {
-            Region spacer = new Region();
-            calendarGrid.add(spacer, i, 0);
-        }
-
-        col = offset;
-
-        int daysInMonth = currentYearMonth.lengthOfMonth();
-        for (int day = 1; day <= daysInMonth; day++) {
-            LocalDate date = currentYearMonth.atDay(day);
-            Button dayCell = createDayCell(date);
-            calendarGrid.add(dayCell, col, row);
-
-            col++;
-            if (col > 6) {
-                col = 0;
-                row++;
+    // Throws IllegalArgumentException with a message for the dialog
+    private RecurrenceRule recurrenceRule(String repeat, int every, String countText, LocalDate until,
+            LocalDate first) {
+        int count = 0;
+        if (!countText.isBlank()) {
+            try {
+                count = Integer.parseInt(countText.trim());
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Number of times must be a whole number");
             }
+            if (count < 1)
+                throw new IllegalArgumentException("Number of times must be at least 1");
         }
+        if (until != null && until.isBefore(first))
+            throw new IllegalArgumentException("Until must not be before the first date");
+        return new RecurrenceRule(RecurrenceRule.Frequency.valueOf(repeat.toUpperCase()), every, count, until);
     }
 
-    private Button createDayCell(LocalDate date) {
-        Button cell = new Button();
-        cell.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
-        cell.setPrefSize(80, 80);
-        cell.setAlignment(Pos.TOP_LEFT);
-        cell.getStyleClass().add("day-cell");
-
-        VBox content = new VBox(0);
-        content.setAlignment(Pos.TOP_LEFT);
-
-        Label dateLbl = new Label(String.valueOf(date.getDayOfMonth()));
-        dateLbl.setStyle("-fx-text-fill: white; -fx-font-size: 16px; -fx-font-weight: 700;");
-        content.getChildren().add(dateLbl);
-
-        List<Event> evs = events.get(date);
-        if (evs != null && !evs.isEmpty()) {
-            HBox countBox = new HBox(0);
-            countBox.setAlignment(Pos.CENTER_LEFT);
-
-            Label countLbl = new Label(String.valueOf(evs.size()));
-            countLbl.setStyle("-fx-text-fill: #FF5252; -fx-font-size: 11px; -fx-font-weight: 900;");
-
-            SVGPath icon = new SVGPath();
-            // Bell/Alarm icon path
-            icon.setContent(
-                    "M12 22c1.1 0 2-.9 2-2h-4c0 1.1.9 2 2 2zm6-6v-5c0-3.07-1.63-5.64-4.5-6.32V4c0-.83-.67-1.5-1.5-1.5s-1.5.67-1.5 1.5v.68C7.64 5.36 6 7.92 6 11v5l-2 2v1h16v-1l-2-2z");
-            icon.setFill(Color.web("#FF5252")); // Neon Red
-            icon.setScaleX(0.6);
-            icon.setScaleY(0.6);
-
-            // Container for icon to ensure correct spacing/sizing
-            StackPane iconPane = new StackPane(icon);
-            iconPane.prefWidthProperty().set(16);
-            iconPane.prefHeightProperty().set(16);
-
-            countBox.getChildren().addAll(countLbl, iconPane);
-            content.getChildren().add(countBox);
+    private void updateHeader() {
+        int year = currentYearMonth.getYear();
+        if (viewMode == ViewMode.YEAR) {
+            monthYearLabel.setText(Integer.toString(year));
+        } else if (viewMode == ViewMode.YEARS) {
+            monthYearLabel.setText((year - overviewYears() + 1) + " \u2013 " + year);
+        } else {
+            monthYearLabel.setText(currentYearMonth.getMonth().name() + " " + year);
         }
+    }
 
-        cell.setGraphic(content);
+    private void updateCalendar() {
+        if (isTimeline()) {
+            updateTimeline();
+            return;
+        }
+        if (isOverview()) {
+            updateOverview();
+            return;
+        }
+        long started = diagnostics.start();
+        // Cached counts once loaded, so paging does not touch events; the grid just rebinds its pooled cells
+        int[] counts = monthSummaries != null ? monthSummaries.get(currentYearMonth).counts()
+                : events.countsFor(currentYearMonth);
+        calendarGrid.show(currentYearMonth, counts, LocalDate.now(), selectedDate);
+        diagnostics.rendered(Diagnostics.View.MONTH, started, calendarGrid);
+    }
 
-        addInteractiveAnimation(cell);
+    // The week around the selection, or just the selected day
+    private void updateTimeline() {
+        long started = diagnostics.start();
+        LocalDate first = viewMode == ViewMode.WEEK
+                ? selectedDate.minusDays(selectedDate.getDayOfWeek().getValue() - 1)
+                : selectedDate;
+        int length = viewMode == ViewMode.WEEK ? 7 : 1;
+        StoreSnapshot snapshot = events.snapshot();
+        List<LocalDate> dates = new ArrayList<>(length);
+        List<List<Event>> dayEvents = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            dates.add(first.plusDays(i));
+            dayEvents.add(snapshot.eventsOn(first.plusDays(i)));
+        }
+        timeline.setDays(dates, dayEvents);
+        timeline.setSelected(selectedDate);
+        timeline.flush();
+        diagnostics.rendered(Diagnostics.View.TIMELINE, started, timeline);
+    }
 
-        if (date.equals(LocalDate.now())) {
-            cell.getStyleClass().add("current-day-cell");
+    // Whole years from the cached month counts, so no events are read once they are cached
+    private void updateOverview() {
+        long started = diagnostics.start();
+        int firstYear = currentYearMonth.getYear() - overviewYears() + 1;
+        YearMonth first = YearMonth.of(firstYear, 1);
+        int[][] counts = new int[overviewYears() * 12][];
+        if (monthSummaries != null) {
+            List<MonthSummary> summaries = monthSummaries.range(first, counts.length);
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = summaries.get(i).counts();
+            }
+        } else {
+            StoreSnapshot snapshot = events.snapshot();
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = snapshot.countsFor(first.plusMonths(i));
+            }
         }
+        overview.show(firstYear, counts, selectedDate);
+        overview.flush();
+        diagnostics.rendered(Diagnostics.View.OVERVIEW, started, overview);
+    }
 
-        if (date.equals(selectedDate)) {
-            cell.getStyleClass().add("selected-day-cell");
+    private void updateSelection() {
+        if (isTimeline()) {
+            timeline.setSelected(selectedDate);
+        } else if (isOverview()) {
+            overview.setSelected(selectedDate);
+        } else {
+            calendarGrid.select(selectedDate);
         }
+    }
 
-        cell.setOnAction(e -> {
-            selectedDate = date;
-            updateCalendar(); // to refresh selection
-            updateDetails();
-        });
+    // Whether the calendar view shows date, i.e. whether a change on it needs redrawing
+    private boolean isShown(LocalDate date) {
+        if (isTimeline())
+            return timeline.shows(date);
+        if (isOverview())
+            return overview.shows(date);
+        return YearMonth.from(date).equals(currentYearMonth);
+    }
 
-        return cell;
+    // After an add or delete only that day's badge, timeline column or heatmap square needs refreshing
+    private void updateDay(LocalDate date) {
+        if (isTimeline()) {
+            timeline.setDay(date, events.eventsOn(date));
+            timeline.flush();
+            return;
+        }
+        int count = monthSummaries != null ? monthSummaries.get(YearMonth.from(date)).countOn(date.getDayOfMonth())
+                : events.countOn(date);
+        if (isOverview()) {
+            overview.setCount(date, count);
+            overview.flush();
+        } else {
+            calendarGrid.setCount(date, count);
+        }
     }
 
     private void updateDetails() {
         if (selectedDate == null)
             return;
 
+        long started = diagnostics.start();
         selectedDateDayLabel
                 .setText(selectedDate.getDayOfWeek().getDisplayName(TextStyle.FULL, Locale.ENGLISH).toUpperCase());
         DateTimeFormatter dtf = DateTimeFormatter.ofPattern("d MMM yy");
         selectedDateFullLabel.setText(selectedDate.format(dtf).toUpperCase());
 
-        eventsContainer.getChildren().clear();
-        List<Event> daysEvents = events.getOrDefault(selectedDate, Collections.emptyList());
-
-        List<Event> sortedEvents = new ArrayList<>(daysEvents);
-        sortedEvents.sort(Comparator.comparing(this::parseStartTime));
-
-        for (Event event : sortedEvents) {
-            eventsContainer.getChildren().add(createEventCard(event));
-        }
-        eventsContainer.getChildren().add(addEventBtn);
+        // The store keeps each day sorted by start time
+        eventList.setEvents(events.eventsOn(selectedDate));
+        diagnostics.rendered(Diagnostics.View.DETAILS, started, eventList);
     }
 
-    private java.time.LocalTime parseStartTime(Event event) {
-        try {
-            // Attempt to parse the first 5 characters "HH:mm"
-            // We strip any whitespace first just in case
-            String t = event.time.trim();
-            if (t.matches("^\\d{1,2}:\\d{2}.*")) {
-                // If it looks like H:mm or HH:mm...
-                // Normalize "8:00" to "08:00" if necessary for standard parsing,
-                // but LocalTime.parse usually wants 08:00.
-                if (t.indexOf(':') == 1) {
-                    t = "0" + t;
-                }
-                return java.time.LocalTime.parse(t.substring(0, 5));
+    private void deleteEvent(Event event) {
+        Series series = events.seriesOf(event);
+        if (series != null) {
+            deleteOccurrence(series, selectedDate);
+        } else {
+            boolean[] removed = new boolean[1];
+            history.record("Delete event", () -> removed[0] = events.remove(selectedDate, event));
+            if (removed[0]) {
+                eventList.remove(event);
+                renders.invalidateDay(selectedDate);
             }
-        } catch (Exception e) {
-            // Fallthrough
         }
-        // If parsing fails, put it at the end
-        return java.time.LocalTime.MAX;
-    }
-
-    private HBox createEventCard(Event event) {
-        HBox card = new HBox(10);
-        card.getStyleClass().add("event-card");
-        card.setAlignment(Pos.CENTER_LEFT);
-
-        VBox txt = new VBox(2);
-        Label title = new Label(event.title);
-        title.getStyleClass().add("event-title");
-        Label time = new Label(event.time);
-        time.getStyleClass().add("event-time");
-        txt.getChildren().addAll(title, time);
-        HBox.setHgrow(txt, Priority.ALWAYS);
-
-        Button delBtn = new Button();
-        delBtn.getStyleClass().add("delete-button");
-        addInteractiveAnimation(delBtn);
-        SVGPath trashIcon = new SVGPath();
-        trashIcon.setContent("M15.5 4l-1-1h-5l-1 1H5v2h14V4zM6 19c0 1.1.9 2 2 2h8c1.1 0 2-.9 2-2V7H6v12z"); // Simple
-                                                                                                            // trash can
-        trashIcon.setFill(Color.WHITE);
-        trashIcon.setScaleX(0.7);
-        trashIcon.setScaleY(0.7);
-        delBtn.setGraphic(trashIcon);
-
-        delBtn.setOnAction(e -> {
-            List<Event> daysEvents = events.get(selectedDate);
-            if (daysEvents != null) {
-                daysEvents.remove(event);
-                updateDetails();
-                updateCalendar();
-            }
-        });
-
-        card.getChildren().addAll(txt, delBtn);
-        return card;
     }
 
-    static class Event {
-        String title;
-        String time;
+    private void deleteOccurrence(Series series, LocalDate date) {
+        javafx.scene.control.ButtonType thisOne = new javafx.scene.control.ButtonType("This Event");
+        javafx.scene.control.ButtonType all = new javafx.scene.control.ButtonType("All Events");
+        javafx.scene.control.Alert alert = new javafx.scene.control.Alert(
+                javafx.scene.control.Alert.AlertType.CONFIRMATION, "", thisOne, all,
+                javafx.scene.control.ButtonType.CANCEL);
+        alert.setTitle("Delete Repeating Event");
+        alert.setHeaderText("\"" + series.event().getTitle() + "\" repeats. Delete just this one or all of them?");
+        alert.initOwner(calendarGrid.getScene().getWindow());
 
-        public Event(String title, String time) {
-            this.title = title;
-            this.time = time;
-        }
+        alert.showAndWait().ifPresent(choice -> {
+            if (choice == thisOne) {
+                history.record("Delete event", () -> events.putSeries(series.withException(date)));
+                renders.invalidateDay(date);
+                eventList.remove(series.event()); // every occurrence shares the series' event
+            } else if (choice == all) {
+                history.record("Delete repeating event", () -> events.removeSeries(series.id()));
+                renders.invalidate(Area.GRID, Area.DETAILS);
+            }
+        });
     }
 }
@@ -0,0 +1,320 @@
+package com.calendar.diagnostics;
+
+import com.calendar.model.EventStore;
+import com.calendar.model.StoreSnapshot;
+import com.calendar.ui.RenderScheduler;
+import com.calendar.ui.StarfieldBackground;
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timers and counters for the paths that make the calendar feel slow,
+ * reported as JFR events and shown by the {@link DiagnosticsOverlay}.
+ * <p>
+ * Nothing is measured unless someone is looking: while no JFR recording is
+ * running and the overlay is hidden, {@link #start()} returns 0 without reading
+ * the clock, {@link #rendered} returns at once, and the star field has no frame
+ * observer. Reminder latency is the exception, being one subtraction per
+ * reminder. Hooking into JFR itself is done on a background thread, and the
+ * periodic store-size event is only registered once a recording starts,
+ * because registering it loads JFR's metadata (a third of a second).
+ * <p>
+ * Startup phases are always recorded; there are only a handful and they are
+ * what time-to-first-frame and time-to-interactive are tracked by.
+ * <p>
+ * Everything but {@link #reminderDelivered} is called on the FX thread.
+ */
+public final class Diagnostics implements StarfieldBackground.FrameObserver, AutoCloseable {
+
+    /** What {@link #rendered} was about. */
+    public enum View {
+        MONTH, TIMELINE, OVERVIEW, DETAILS
+    }
+
+    /** Startup milestones, in the order they are reached. */
+    public enum Phase {
+        /** {@code Application.start} entered: JVM and toolkit are up. */
+        START,
+        /** Window built and shown, with an empty month. */
+        SHOWN,
+        /** The empty window has been laid out and rendered once. */
+        FIRST_FRAME,
+        /** Events are loaded and the month shows them. */
+        DATA_LOADED,
+        /** Search and reminders are running; the populated month has been rendered. */
+        INTERACTIVE
+    }
+
+    private static final System.Logger LOG = System.getLogger(Diagnostics.class.getName());
+
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+    // Process start when the OS reports it, else as early as this class can tell
+    private static final Instant LAUNCHED = ProcessHandle.current().info().startInstant().orElse(Instant.now());
+
+    private final EventStore store;
+    private final Runnable storeSizeHook;
+    private final FlightRecorderListener recordingListener;
+    private StarfieldBackground background;
+    private RenderScheduler renders;
+
+    private volatile boolean recording;
+    private boolean periodicRegistered; // Guarded by this
+    private boolean overlayShown;
+    private boolean active;
+
+    // Latest figures, for the overlay
+    private final long[] renderNanos = new long[View.values().length];
+    private final long[] maxRenderNanos = new long[View.values().length];
+    private final int[] renderNodes = new int[View.values().length];
+    private FrameWindow frames = new FrameWindow();
+    private FrameWindow lastFrames = new FrameWindow();
+    private final AtomicLong lastReminderNanos = new AtomicLong(-1);
+    private final AtomicLong maxReminderNanos = new AtomicLong();
+    private final long[] phaseNanos = new long[Phase.values().length]; // Since launch, -1 until reached
+
+    public Diagnostics(EventStore store) {
+        this.store = store;
+        java.util.Arrays.fill(phaseNanos, -1);
+        storeSizeHook = () -> {
+            StoreSizeEvent e = new StoreSizeEvent();
+            // One version, so the two figures agree
+            StoreSnapshot snapshot = store.snapshot();
+            e.events = snapshot.size();
+            e.series = snapshot.seriesCount();
+            e.commit();
+        };
+        recordingListener = new FlightRecorderListener() {
+            @Override
+            public void recordingStateChanged(Recording r) {
+                checkRecordings();
+            }
+        };
+        Thread setup = new Thread(() -> {
+            FlightRecorder.addListener(recordingListener);
+            // A recording started with -XX:StartFlightRecording may already be running
+            if (FlightRecorder.isInitialized())
+                checkRecordings();
+        }, "calendar-diagnostics");
+        setup.setDaemon(true);
+        setup.start();
+    }
+
+    private synchronized void checkRecordings() {
+        boolean any = false;
+        for (Recording each : FlightRecorder.getFlightRecorder().getRecordings()) {
+            any |= each.getState() == RecordingState.RUNNING;
+        }
+        if (any && !periodicRegistered) {
+            FlightRecorder.addPeriodicEvent(StoreSizeEvent.class, storeSizeHook);
+            periodicRegistered = true;
+        }
+        recording = any;
+        Platform.runLater(this::updateActive);
+    }
+
+    /** Starts reporting the star field's frames while anything is measured. */
+    public void observe(StarfieldBackground background) {
+        this.background = background;
+        updateActive();
+    }
+
+    /** Shows how many rebuilds {@code renders} coalesced away. */
+    public void observe(RenderScheduler renders) {
+        this.renders = renders;
+    }
+
+    void setOverlayShown(boolean shown) {
+        overlayShown = shown;
+        updateActive();
+    }
+
+    private void updateActive() {
+        active = recording || overlayShown;
+        if (background != null)
+            background.setFrameObserver(active ? this : null);
+        frames = new FrameWindow();
+    }
+
+    /** Start of a timed section, or 0 when nothing is being measured. */
+    public long start() {
+        return active ? System.nanoTime() : 0;
+    }
+
+    /**
+     * End of a render that began with {@link #start()}. Counts the nodes under
+     * {@code root}, so it is only done while measuring.
+     */
+    public void rendered(View view, long started, Parent root) {
+        if (started == 0)
+            return;
+        long nanos = System.nanoTime() - started;
+        int nodes = countNodes(root);
+        int i = view.ordinal();
+        renderNanos[i] = nanos;
+        maxRenderNanos[i] = Math.max(maxRenderNanos[i], nanos);
+        renderNodes[i] = nodes;
+
+        RenderEvent e = new RenderEvent();
+        if (e.shouldCommit()) {
+            e.view = view.name().toLowerCase();
+            e.renderTime = nanos;
+            e.nodes = nodes;
+            e.commit();
+        }
+    }
+
+    /**
+     * Marks a startup milestone as reached now. Reaching {@link Phase#INTERACTIVE}
+     * logs all of them.
+     */
+    public void phase(Phase phase) {
+        long sinceLaunch = Math.max(0, Duration.between(LAUNCHED, Instant.now()).toNanos());
+        long previous = 0;
+        for (int i = phase.ordinal() - 1; i >= 0 && previous == 0; i--) {
+            previous = Math.max(0, phaseNanos[i]);
+        }
+        phaseNanos[phase.ordinal()] = sinceLaunch;
+
+        StartupPhaseEvent e = new StartupPhaseEvent();
+        if (e.shouldCommit()) {
+            e.phase = phase.name().toLowerCase();
+            e.sinceLaunch = sinceLaunch;
+            e.phaseTime = sinceLaunch - previous;
+            e.commit();
+        }
+        if (phase == Phase.INTERACTIVE)
+            LOG.log(System.Logger.Level.INFO, "Startup: {0}", startupSummary());
+    }
+
+    private String startupSummary() {
+        StringBuilder sb = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            long nanos = phaseNanos[phase.ordinal()];
+            if (nanos < 0)
+                continue;
+            if (sb.length() > 0)
+                sb.append(", ");
+            sb.append(phase.name().toLowerCase().replace('_', ' ')).append(' ').append(nanos / 1_000_000).append(" ms");
+        }
+        return sb.toString();
+    }
+
+    /** A reminder reached its sink; may be called on any thread. */
+    public void reminderDelivered(String title, Instant due, Instant now) {
+        long nanos = Math.max(0, Duration.between(due, now).toNanos());
+        lastReminderNanos.set(nanos);
+        maxReminderNanos.accumulateAndGet(nanos, Math::max);
+
+        ReminderLatencyEvent e = new ReminderLatencyEvent();
+        if (e.shouldCommit()) {
+            e.title = title;
+            e.latency = nanos;
+            e.commit();
+        }
+    }
+
+    @Override
+    public void frameDrawn(long drawNanos, int droppedPulses, int stars) {
+        FrameWindow w = frames;
+        long now = System.nanoTime();
+        if (w.start == 0)
+            w.start = now;
+        w.frames++;
+        w.droppedPulses += droppedPulses;
+        w.totalDraw += drawNanos;
+        w.maxDraw = Math.max(w.maxDraw, drawNanos);
+        w.stars = stars;
+        if (now - w.start < WINDOW_NANOS)
+            return;
+        w.end = now;
+
+        // One summary per second rather than an event per frame
+        FrameStatsEvent e = new FrameStatsEvent();
+        if (e.shouldCommit()) {
+            e.frames = w.frames;
+            e.droppedPulses = w.droppedPulses;
+            e.averageDraw = w.totalDraw / w.frames;
+            e.maxDraw = w.maxDraw;
+            e.stars = w.stars;
+            e.commit();
+        }
+        lastFrames = w;
+        frames = new FrameWindow();
+    }
+
+    /** Multi-line summary for the overlay. */
+    String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (View view : View.values()) {
+            int i = view.ordinal();
+            sb.append(String.format("%-8s %6.2f ms  max %6.2f ms  %5d nodes%n", view.name().toLowerCase(),
+                    renderNanos[i] / 1e6, maxRenderNanos[i] / 1e6, renderNodes[i]));
+        }
+        if (renders != null)
+            sb.append(String.format("renders  %,d passes  %,d rebuilds  %,d skipped%n", renders.passes(),
+                    renders.rebuilds(), renders.skipped()));
+        FrameWindow w = lastFrames;
+        if (w.frames == 0) {
+            sb.append(String.format("frames   -%n"));
+        } else {
+            double seconds = (w.end - w.start) / 1e9;
+            sb.append(String.format("frames   %4.0f fps  draw %5.2f ms  max %5.2f ms  dropped %d  stars %d%n",
+                    (w.frames - 1) / seconds, w.totalDraw / 1e6 / w.frames, w.maxDraw / 1e6,
+                    w.droppedPulses, w.stars));
+        }
+        long last = lastReminderNanos.get();
+        if (last < 0) {
+            sb.append(String.format("reminder -%n"));
+        } else {
+            sb.append(String.format("reminder %6.1f ms late  max %6.1f ms%n", last / 1e6,
+                    maxReminderNanos.get() / 1e6));
+        }
+        long ttff = phaseNanos[Phase.FIRST_FRAME.ordinal()];
+        long tti = phaseNanos[Phase.INTERACTIVE.ordinal()];
+        sb.append(String.format("startup  first frame %s  interactive %s%n",
+                ttff < 0 ? "-" : ttff / 1_000_000 + " ms", tti < 0 ? "-" : tti / 1_000_000 + " ms"));
+        sb.append(String.format("store    %,d events  %,d series", store.size(), store.seriesCount()));
+        return sb.toString();
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (periodicRegistered)
+                FlightRecorder.removePeriodicEvent(storeSizeHook);
+        }
+        FlightRecorder.removeListener(recordingListener);
+        if (background != null)
+            background.setFrameObserver(null);
+    }
+
+    static int countNodes(Node node) {
+        int count = 1;
+        if (node instanceof Parent p) {
+            for (Node child : p.getChildrenUnmodifiable()) {
+                count += countNodes(child);
+            }
+        }
+        return count;
+    }
+
+    // Frames from the first one until the one that crosses a second
+    private static final class FrameWindow {
+        long start;
+        long end;
+        int frames;
+        int droppedPulses;
+        long totalDraw;
+        long maxDraw;
+        int stars;
+    }
+}
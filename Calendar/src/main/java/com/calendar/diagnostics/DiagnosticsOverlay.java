@@ -0,0 +1,56 @@
+package com.calendar.diagnostics;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.layout.StackPane;
+import javafx.util.Duration;
+
+/**
+ * Small read-out of the {@link Diagnostics} figures in a corner of the window,
+ * toggled with {@link #TOGGLE}. It refreshes twice a second while shown and is
+ * idle otherwise; showing it is also what switches measuring on.
+ */
+public class DiagnosticsOverlay extends Label {
+
+    /** Ctrl+Shift+D (Cmd+Shift+D on macOS). */
+    public static final KeyCombination TOGGLE = new KeyCodeCombination(KeyCode.D, KeyCombination.SHORTCUT_DOWN,
+            KeyCombination.SHIFT_DOWN);
+
+    private final Diagnostics diagnostics;
+    private final Timeline refresh;
+
+    public DiagnosticsOverlay(Diagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+        getStyleClass().add("diagnostics-overlay");
+        setMouseTransparent(true);
+        setVisible(false);
+        setManaged(false);
+        StackPane.setAlignment(this, Pos.TOP_RIGHT);
+        StackPane.setMargin(this, new Insets(8));
+
+        refresh = new Timeline(new KeyFrame(Duration.millis(500), e -> setText(diagnostics.summary())));
+        refresh.setCycleCount(Timeline.INDEFINITE);
+    }
+
+    public void toggle() {
+        setShown(!isVisible());
+    }
+
+    public void setShown(boolean shown) {
+        setVisible(shown);
+        setManaged(shown);
+        diagnostics.setOverlayShown(shown);
+        if (shown) {
+            setText(diagnostics.summary());
+            refresh.play();
+        } else {
+            refresh.stop();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.calendar.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.calendar.BackgroundFrames")
+@Label("Background Frames")
+@Description("Star field frames over the last second")
+@Category({ "Calendar", "UI" })
+@StackTrace(false)
+class FrameStatsEvent extends jdk.jfr.Event {
+
+    @Label("Frames")
+    int frames;
+
+    @Label("Dropped Pulses")
+    @Description("Pulses that never reached the animation timer")
+    int droppedPulses;
+
+    @Label("Average Draw Time")
+    @Timespan
+    long averageDraw;
+
+    @Label("Longest Draw Time")
+    @Timespan
+    long maxDraw;
+
+    @Label("Stars")
+    int stars;
+}
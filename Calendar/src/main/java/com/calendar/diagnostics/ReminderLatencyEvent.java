@@ -0,0 +1,23 @@
+package com.calendar.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.calendar.ReminderLatency")
+@Label("Reminder Latency")
+@Description("How long after its due time a reminder was delivered")
+@Category({ "Calendar", "Reminders" })
+@StackTrace(false)
+class ReminderLatencyEvent extends jdk.jfr.Event {
+
+    @Label("Event")
+    String title;
+
+    @Label("Latency")
+    @Timespan
+    long latency;
+}
@@ -0,0 +1,27 @@
+package com.calendar.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.calendar.Render")
+@Label("Calendar Render")
+@Description("One rebuild of the month grid, the timeline, the year overview or the details pane")
+@Category({ "Calendar", "UI" })
+@StackTrace(false)
+class RenderEvent extends jdk.jfr.Event {
+
+    @Label("View")
+    String view;
+
+    @Label("Render Time")
+    @Timespan
+    long renderTime;
+
+    @Label("Nodes")
+    @Description("Scene-graph nodes under the view afterwards")
+    int nodes;
+}
@@ -0,0 +1,27 @@
+package com.calendar.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.calendar.StartupPhase")
+@Label("Startup Phase")
+@Description("A startup milestone, timed from process launch")
+@Category({ "Calendar", "Startup" })
+@StackTrace(false)
+class StartupPhaseEvent extends jdk.jfr.Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Since Launch")
+    @Timespan
+    long sinceLaunch;
+
+    @Label("Since Previous Phase")
+    @Timespan
+    long phaseTime;
+}
@@ -0,0 +1,21 @@
+package com.calendar.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+@Name("com.calendar.StoreSize")
+@Label("Event Store Size")
+@Category({ "Calendar", "Storage" })
+@Period("5 s")
+@StackTrace(false)
+class StoreSizeEvent extends jdk.jfr.Event {
+
+    @Label("Events")
+    int events;
+
+    @Label("Repeating Series")
+    int series;
+}
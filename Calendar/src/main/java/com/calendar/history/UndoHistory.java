@@ -0,0 +1,346 @@
+package com.calendar.history;
+
+import com.calendar.model.DatedEvent;
+import com.calendar.model.Event;
+import com.calendar.model.EventStore;
+import com.calendar.model.Series;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Undo and redo for edits to an {@link EventStore}.
+ * <p>
+ * A step remembers only what it changed, as references to the store's own
+ * immutable events, so history never copies the calendar: a single delete is
+ * one entry. Bulk adds, such as an import, keep just the added ids, as runs
+ * of consecutive ids and the days they span, and undo finds the events in
+ * the store again. A 500,000 event import then costs a few longs per batch
+ * rather than the events themselves. Undoing a step applies the inverse as one
+ * batched write per kind of change inside one store batch, so change
+ * listeners see it as a single change and re-render once.
+ * <p>
+ * Only edits made inside {@link #record} are recorded, attributed by thread,
+ * so loading, syncing and undo itself never land in the history. At most
+ * {@code depth} steps are kept; older ones are forgotten. Any thread may
+ * record, undo and redo.
+ */
+public final class UndoHistory implements EventStore.Listener {
+
+    /** An edit being recorded; committed as one undoable step. */
+    public static final class Step {
+        private final String label;
+        // Guarded by this step; appended to while recording, swapped between events and ids by undo and redo
+        private final List<List<DatedEvent>> added = new ArrayList<>();
+        private final List<AddedIds> addedIds = new ArrayList<>();
+        private final List<DatedEvent> removed = new ArrayList<>();
+        private final List<Series[]> seriesChanges = new ArrayList<>(); // {previous, current}
+
+        private Step(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+
+        boolean isEmpty() {
+            return added.isEmpty() && addedIds.isEmpty() && removed.isEmpty() && seriesChanges.isEmpty();
+        }
+    }
+
+    /** The ids of a bulk add, as {@code [from, to]} pairs of consecutive ids, and the days they landed on. */
+    private record AddedIds(long[] runs, long firstDay, long lastDay) {
+
+        static AddedIds of(List<DatedEvent> events) {
+            long[] ids = new long[events.size()];
+            long firstDay = Long.MAX_VALUE;
+            long lastDay = Long.MIN_VALUE;
+            for (int i = 0; i < ids.length; i++) {
+                DatedEvent e = events.get(i);
+                ids[i] = e.event().getId();
+                firstDay = Math.min(firstDay, e.date().toEpochDay());
+                lastDay = Math.max(lastDay, e.date().toEpochDay());
+            }
+            Arrays.sort(ids);
+            long[] runs = new long[2];
+            int n = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (n > 0 && ids[i] <= runs[n - 1] + 1) {
+                    runs[n - 1] = ids[i];
+                    continue;
+                }
+                if (n == runs.length)
+                    runs = Arrays.copyOf(runs, n * 2);
+                runs[n++] = ids[i];
+                runs[n++] = ids[i];
+            }
+            return new AddedIds(Arrays.copyOf(runs, n), firstDay, lastDay);
+        }
+
+        boolean contains(long id) {
+            int lo = 0;
+            int hi = runs.length / 2 - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (id < runs[2 * mid]) {
+                    hi = mid - 1;
+                } else if (id > runs[2 * mid + 1]) {
+                    lo = mid + 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final EventStore store;
+    private final int depth;
+    private final ThreadLocal<Step> recording = new ThreadLocal<>();
+    // Guarded by this, which is never held while writing to the store
+    private final Deque<Step> undo = new ArrayDeque<>();
+    private final Deque<Step> redo = new ArrayDeque<>();
+
+    /** Starts following {@code store}, keeping at most {@code depth} steps. */
+    public UndoHistory(EventStore store, int depth) {
+        this.store = store;
+        this.depth = Math.max(1, depth);
+        store.addListener(this);
+    }
+
+    /** A step to record into, possibly over several calls and threads, then {@link #commit}. */
+    public Step begin(String label) {
+        return new Step(label);
+    }
+
+    /** Runs {@code edit}, recording the store changes it makes on this thread into {@code step}. */
+    public void record(Step step, Runnable edit) {
+        Step outer = recording.get();
+        recording.set(step);
+        try {
+            edit.run();
+        } finally {
+            recording.set(outer);
+        }
+    }
+
+    /** Runs {@code edit} as one step of its own. */
+    public void record(String label, Runnable edit) {
+        Step step = begin(label);
+        record(step, edit);
+        commit(step);
+    }
+
+    /** Makes {@code step} the one to undo next, unless it changed nothing. Clears redo. */
+    public void commit(Step step) {
+        synchronized (step) {
+            if (step.isEmpty())
+                return;
+        }
+        synchronized (this) {
+            pushUndo(step);
+            redo.clear();
+        }
+    }
+
+    private void pushUndo(Step step) {
+        undo.push(step);
+        while (undo.size() > depth) {
+            undo.removeLast();
+        }
+    }
+
+    public synchronized boolean canUndo() {
+        return !undo.isEmpty();
+    }
+
+    public synchronized boolean canRedo() {
+        return !redo.isEmpty();
+    }
+
+    /** Reverts the latest step; returns its label, or null if there was nothing to undo. */
+    public String undo() {
+        Step step;
+        synchronized (this) {
+            step = undo.poll();
+        }
+        if (step == null)
+            return null;
+        apply(step, true);
+        synchronized (this) {
+            redo.push(step);
+        }
+        return step.label;
+    }
+
+    /** Re-applies the last undone step; returns its label, or null if there was nothing to redo. */
+    public String redo() {
+        Step step;
+        synchronized (this) {
+            step = redo.poll();
+        }
+        if (step == null)
+            return null;
+        apply(step, false);
+        synchronized (this) {
+            pushUndo(step);
+        }
+        return step.label;
+    }
+
+    // Events both added and removed within the step cancel out
+    private void apply(Step step, boolean backwards) {
+        List<DatedEvent> added = new ArrayList<>();
+        List<AddedIds> addedIds;
+        List<DatedEvent> removed;
+        List<Series[]> seriesChanges;
+        synchronized (step) {
+            for (List<DatedEvent> batch : step.added) {
+                added.addAll(batch);
+            }
+            addedIds = new ArrayList<>(step.addedIds);
+            removed = new ArrayList<>(step.removed);
+            seriesChanges = new ArrayList<>(step.seriesChanges);
+        }
+
+        store.batch(() -> {
+            if (!addedIds.isEmpty())
+                added.addAll(resolve(addedIds));
+            if (!added.isEmpty() && !removed.isEmpty()) {
+                Set<DatedEvent> both = new HashSet<>(added);
+                both.retainAll(new HashSet<>(removed));
+                if (!both.isEmpty()) {
+                    added.removeIf(both::contains);
+                    removed.removeIf(both::contains);
+                }
+            }
+            if (backwards) {
+                store.removeAll(added);
+                store.addAll(removed);
+                for (int i = seriesChanges.size() - 1; i >= 0; i--) {
+                    Series[] change = seriesChanges.get(i);
+                    setSeries(change[1], change[0]);
+                }
+            } else {
+                store.addAll(added);
+                store.removeAll(removed);
+                for (Series[] change : seriesChanges) {
+                    setSeries(change[0], change[1]);
+                }
+            }
+        });
+
+        // Out of the store, the events are only in the step until redone; in it, ids are enough again
+        if (!addedIds.isEmpty() || !backwards) {
+            synchronized (step) {
+                step.added.clear();
+                step.addedIds.clear();
+                if (backwards) {
+                    step.added.add(added);
+                } else if (!added.isEmpty()) {
+                    step.addedIds.add(AddedIds.of(added));
+                }
+            }
+        }
+    }
+
+    // The stored events with the given ids, read from the days they were added on
+    private List<DatedEvent> resolve(List<AddedIds> addedIds) {
+        long firstDay = Long.MAX_VALUE;
+        long lastDay = Long.MIN_VALUE;
+        for (AddedIds ids : addedIds) {
+            firstDay = Math.min(firstDay, ids.firstDay());
+            lastDay = Math.max(lastDay, ids.lastDay());
+        }
+        List<DatedEvent> found = new ArrayList<>();
+        store.storedEventsBetween(LocalDate.ofEpochDay(firstDay), LocalDate.ofEpochDay(lastDay))
+                .forEach((date, events) -> {
+                    for (Event e : events) {
+                        for (AddedIds ids : addedIds) {
+                            if (ids.contains(e.getId())) {
+                                found.add(new DatedEvent(date, e));
+                                break;
+                            }
+                        }
+                    }
+                });
+        return found;
+    }
+
+    // Moves a series from one state to another, where null means absent
+    private void setSeries(Series from, Series to) {
+        if (to != null) {
+            store.putSeries(to);
+        } else if (from != null) {
+            store.removeSeries(from.id());
+        }
+    }
+
+    @Override
+    public void eventAdded(LocalDate date, Event event) {
+        Step step = recording.get();
+        if (step != null) {
+            synchronized (step) {
+                step.added.add(List.of(new DatedEvent(date, event)));
+            }
+        }
+    }
+
+    @Override
+    public void eventsAdded(List<DatedEvent> added) {
+        Step step = recording.get();
+        if (step != null) {
+            synchronized (step) {
+                step.addedIds.add(AddedIds.of(added));
+            }
+        }
+    }
+
+    @Override
+    public void eventRemoved(LocalDate date, Event event) {
+        Step step = recording.get();
+        if (step != null) {
+            synchronized (step) {
+                recordRemoved(step, new DatedEvent(date, event));
+            }
+        }
+    }
+
+    @Override
+    public void eventsRemoved(List<DatedEvent> removed) {
+        Step step = recording.get();
+        if (step != null) {
+            synchronized (step) {
+                for (DatedEvent e : removed) {
+                    recordRemoved(step, e);
+                }
+            }
+        }
+    }
+
+    // A bulk-added event removed again cancels out here, as its id can't tell it apart from an earlier one
+    private static void recordRemoved(Step step, DatedEvent removed) {
+        for (AddedIds ids : step.addedIds) {
+            if (ids.contains(removed.event().getId()))
+                return;
+        }
+        step.removed.add(removed);
+    }
+
+    @Override
+    public void seriesChanged(Series previous, Series current) {
+        Step step = recording.get();
+        if (step != null) {
+            synchronized (step) {
+                step.seriesChanges.add(new Series[] { previous, current });
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.calendar.ics;
+
+import com.calendar.model.DatedEvent;
+import com.calendar.model.Series;
+
+import javafx.concurrent.Task;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Writes events to an .ics file on a background thread: one-off events, then
+ * each series once with its rule. The lists must not change while the task
+ * runs; take a copy on the FX thread first. The value is the number of
+ * VEVENTs written.
+ */
+public class IcsExportTask extends Task<Integer> {
+
+    private final Path file;
+    private final List<DatedEvent> events;
+    private final List<Series> series;
+
+    public IcsExportTask(Path file, List<DatedEvent> events, List<Series> series) {
+        this.file = file;
+        this.events = events;
+        this.series = series;
+    }
+
+    @Override
+    protected Integer call() throws Exception {
+        int total = events.size() + series.size();
+        int written = 0;
+        try (IcsWriter writer = new IcsWriter(new BufferedWriter(
+                new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), 1 << 16))) {
+            for (DatedEvent e : events) {
+                if (isCancelled())
+                    break;
+                writer.write(e.date(), e.event());
+                if (++written % 10_000 == 0) {
+                    updateProgress(written, total);
+                    updateMessage("Exported " + written + " events");
+                }
+            }
+            for (Series s : series) {
+                if (isCancelled())
+                    break;
+                writer.write(s);
+                written++;
+            }
+        }
+        updateProgress(written, total);
+        updateMessage("Exported " + written + " events");
+        return written;
+    }
+}
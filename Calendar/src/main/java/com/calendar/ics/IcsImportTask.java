@@ -0,0 +1,96 @@
+package com.calendar.ics;
+
+import javafx.concurrent.Task;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Imports an .ics file on a background thread.
+ * <p>
+ * Events are parsed one at a time and handed to {@code applyBatch} in batches,
+ * on the import thread itself: the store takes writes from any thread, so the
+ * FX thread only hears about the result, and parsing waits for each batch to
+ * be applied, which keeps memory bounded however large the file is. Progress
+ * is reported by bytes read. The value is the number of events imported.
+ */
+public class IcsImportTask extends Task<Integer> {
+
+    private static final int BATCH_SIZE = 5_000;
+
+    private final Path file;
+    private final ZoneId zone;
+    private final Consumer<List<IcsReader.VEvent>> applyBatch;
+
+    /** @param applyBatch called on the import thread with each batch */
+    public IcsImportTask(Path file, ZoneId zone, Consumer<List<IcsReader.VEvent>> applyBatch) {
+        this.file = file;
+        this.zone = zone;
+        this.applyBatch = applyBatch;
+    }
+
+    @Override
+    protected Integer call() throws Exception {
+        long size = Math.max(1, Files.size(file));
+        int imported = 0;
+        try (CountingInputStream counter = new CountingInputStream(Files.newInputStream(file));
+                IcsReader reader = new IcsReader(new BufferedReader(
+                        new InputStreamReader(counter, StandardCharsets.UTF_8), 1 << 16), zone)) {
+            List<IcsReader.VEvent> batch = new ArrayList<>(BATCH_SIZE);
+            IcsReader.VEvent event;
+            while ((event = reader.next()) != null) {
+                batch.add(event);
+                if (batch.size() == BATCH_SIZE) {
+                    if (isCancelled())
+                        break;
+                    applyBatch.accept(batch);
+                    imported += batch.size();
+                    batch = new ArrayList<>(BATCH_SIZE);
+                    updateProgress(counter.count, size);
+                    updateMessage("Imported " + imported + " events");
+                }
+            }
+            if (!batch.isEmpty() && !isCancelled()) {
+                applyBatch.accept(batch);
+                imported += batch.size();
+            }
+        }
+        updateProgress(size, size);
+        updateMessage("Imported " + imported + " events");
+        return imported;
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0)
+                count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0)
+                count += n;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.calendar.ics;
+
+import com.calendar.model.EventTime;
+import com.calendar.model.RecurrenceRule;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Streaming reader for RFC 5545 iCalendar files.
+ * <p>
+ * {@link #next()} scans forward to the next VEVENT and returns just that
+ * event, so memory use does not depend on the size of the file. Folded lines
+ * are unfolded, nested components such as VALARM are skipped, and UTC or
+ * TZID-qualified times are converted to the local zone. Only what the
+ * calendar can show is kept: the summary, the start day and the time of day.
+ * <p>
+ * Simple RRULEs (FREQ with INTERVAL, COUNT and UNTIL) and EXDATEs are read
+ * into a {@link RecurrenceRule}. Rules using BYxxx parts the calendar cannot
+ * represent come back without a rule, i.e. as just their first occurrence.
+ */
+public final class IcsReader implements Closeable {
+
+    /** The parts of a VEVENT the calendar uses. {@code rule} is null for one-off events. */
+    public record VEvent(String uid, String summary, LocalDate date, EventTime time, RecurrenceRule rule,
+            Set<LocalDate> exceptions) {
+    }
+
+    private final BufferedReader in;
+    private final ZoneId zone;
+    private String lookahead;
+
+    public IcsReader(BufferedReader in, ZoneId zone) {
+        this.in = in;
+        this.zone = zone;
+    }
+
+    /** The next event in the file, or null at the end. Events without a start are skipped. */
+    public VEvent next() throws IOException {
+        boolean inEvent = false;
+        int nested = 0;
+        String uid = null;
+        String summary = null;
+        LocalDateTime start = null;
+        boolean allDay = false;
+        LocalDateTime end = null;
+        Duration duration = null;
+        String rrule = null;
+        Set<LocalDate> exceptions = new HashSet<>();
+
+        String line;
+        while ((line = readLogicalLine()) != null) {
+            if (!inEvent) {
+                if (line.equalsIgnoreCase("BEGIN:VEVENT")) {
+                    inEvent = true;
+                    uid = null;
+                    summary = null;
+                    start = null;
+                    allDay = false;
+                    end = null;
+                    duration = null;
+                    rrule = null;
+                    exceptions = new HashSet<>();
+                }
+                continue;
+            }
+            if (startsWithIgnoreCase(line, "BEGIN:")) {
+                nested++;
+                continue;
+            }
+            if (startsWithIgnoreCase(line, "END:")) {
+                if (nested > 0) {
+                    nested--;
+                    continue;
+                }
+                inEvent = false;
+                if (start != null)
+                    return build(uid, summary, start, allDay, end, duration, rrule, exceptions);
+                continue;
+            }
+            if (nested > 0)
+                continue;
+
+            int colon = valueSeparator(line);
+            if (colon < 0)
+                continue;
+            int semi = line.indexOf(';');
+            String name = line.substring(0, semi >= 0 && semi < colon ? semi : colon);
+            String params = semi >= 0 && semi < colon ? line.substring(semi + 1, colon) : "";
+            String value = line.substring(colon + 1);
+
+            try {
+                if (name.equalsIgnoreCase("SUMMARY")) {
+                    summary = unescape(value);
+                } else if (name.equalsIgnoreCase("UID")) {
+                    uid = value;
+                } else if (name.equalsIgnoreCase("DTSTART")) {
+                    allDay = value.length() == 8;
+                    start = parseDateTime(value, params);
+                } else if (name.equalsIgnoreCase("DTEND")) {
+                    end = parseDateTime(value, params);
+                } else if (name.equalsIgnoreCase("DURATION")) {
+                    duration = parseDuration(value);
+                } else if (name.equalsIgnoreCase("RRULE")) {
+                    rrule = value;
+                } else if (name.equalsIgnoreCase("EXDATE")) {
+                    for (String date : value.split(",")) {
+                        exceptions.add(parseDateTime(date.trim(), params).toLocalDate());
+                    }
+                }
+            } catch (RuntimeException e) {
+                // A malformed property only costs us that property, not the import
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private VEvent build(String uid, String summary, LocalDateTime start, boolean allDay, LocalDateTime end,
+            Duration duration, String rrule, Set<LocalDate> exceptions) {
+        String title = summary == null || summary.isBlank() ? "(No title)" : summary;
+        LocalDate date = start.toLocalDate();
+        RecurrenceRule rule = null;
+        if (rrule != null) {
+            try {
+                rule = parseRule(rrule, date);
+            } catch (RuntimeException e) {
+                // Unreadable rule: keep the first occurrence
+            }
+        }
+        if (allDay)
+            return new VEvent(uid, title, date, EventTime.ALL_DAY, rule, exceptions);
+
+        if (end == null && duration != null)
+            end = start.plus(duration);
+        int startMinute = start.getHour() * 60 + start.getMinute();
+        int endMinute = -1;
+        if (end != null && end.toLocalDate().equals(date)) {
+            int m = end.getHour() * 60 + end.getMinute();
+            if (m > startMinute)
+                endMinute = m;
+        }
+        return new VEvent(uid, title, date, EventTime.of(startMinute, endMinute), rule, exceptions);
+    }
+
+    // Null if the rule needs parts we cannot represent
+    private RecurrenceRule parseRule(String rrule, LocalDate start) {
+        RecurrenceRule.Frequency frequency = null;
+        int interval = 1;
+        int count = 0;
+        LocalDate until = null;
+        for (String part : rrule.split(";")) {
+            int eq = part.indexOf('=');
+            if (eq < 0)
+                continue;
+            String key = part.substring(0, eq).toUpperCase();
+            String value = part.substring(eq + 1);
+            switch (key) {
+                case "FREQ" -> {
+                    try {
+                        frequency = RecurrenceRule.Frequency.valueOf(value.toUpperCase());
+                    } catch (IllegalArgumentException e) {
+                        return null; // HOURLY and finer
+                    }
+                }
+                case "INTERVAL" -> interval = Integer.parseInt(value);
+                case "COUNT" -> count = Integer.parseInt(value);
+                case "UNTIL" -> until = parseDateTime(value, "").toLocalDate();
+                case "WKST" -> {
+                    // Only matters together with BYxxx parts
+                }
+                case "BYDAY" -> {
+                    // Exporters often spell out the start's own weekday on weekly rules; that is harmless
+                    String weekday = start.getDayOfWeek().name().substring(0, 2);
+                    if (!value.equalsIgnoreCase(weekday))
+                        return null;
+                }
+                default -> {
+                    return null;
+                }
+            }
+        }
+        return frequency == null ? null : new RecurrenceRule(frequency, interval, count, until);
+    }
+
+    // DATE (yyyyMMdd) or DATE-TIME (yyyyMMdd'T'HHmmss, optionally with Z or a TZID parameter)
+    private LocalDateTime parseDateTime(String value, String params) {
+        int year = digits(value, 0, 4);
+        int month = digits(value, 4, 6);
+        int day = digits(value, 6, 8);
+        if (value.length() == 8)
+            return LocalDateTime.of(year, month, day, 0, 0);
+
+        LocalDateTime local = LocalDateTime.of(year, month, day, digits(value, 9, 11), digits(value, 11, 13),
+                digits(value, 13, 15));
+        if (value.endsWith("Z") || value.endsWith("z"))
+            return local.atOffset(ZoneOffset.UTC).atZoneSameInstant(zone).toLocalDateTime();
+
+        String tzid = param(params, "TZID");
+        if (tzid != null) {
+            try {
+                return local.atZone(ZoneId.of(tzid)).withZoneSameInstant(zone).toLocalDateTime();
+            } catch (RuntimeException e) {
+                // Unknown zone name (e.g. a Windows one): treat as local time
+            }
+        }
+        return local;
+    }
+
+    private static Duration parseDuration(String value) {
+        String v = value.trim();
+        boolean negative = v.startsWith("-");
+        if (negative || v.startsWith("+"))
+            v = v.substring(1);
+        // java.time does not know the week form, e.g. P2W
+        Duration d = v.endsWith("W") ? Duration.ofDays(7L * Long.parseLong(v.substring(1, v.length() - 1)))
+                : Duration.parse(v);
+        return negative ? d.negated() : d;
+    }
+
+    private static int digits(String s, int from, int to) {
+        int n = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9')
+                throw new IllegalArgumentException("Bad date-time: " + s);
+            n = n * 10 + (c - '0');
+        }
+        return n;
+    }
+
+    private static String param(String params, String name) {
+        for (String p : params.split(";")) {
+            int eq = p.indexOf('=');
+            if (eq > 0 && p.substring(0, eq).equalsIgnoreCase(name)) {
+                String v = p.substring(eq + 1);
+                return v.length() >= 2 && v.startsWith("\"") && v.endsWith("\"") ? v.substring(1, v.length() - 1) : v;
+            }
+        }
+        return null;
+    }
+
+    // First ':' outside a quoted parameter value
+    private static int valueSeparator(String line) {
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ':' && !quoted) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0)
+            return value;
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char n = value.charAt(++i);
+                // Titles are single-line, so escaped newlines become spaces
+                sb.append(n == 'n' || n == 'N' ? ' ' : n);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean startsWithIgnoreCase(String s, String prefix) {
+        return s.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
+    // A content line with any folded continuation lines joined back on
+    private String readLogicalLine() throws IOException {
+        String line = lookahead != null ? lookahead : in.readLine();
+        lookahead = null;
+        if (line == null)
+            return null;
+
+        StringBuilder sb = null;
+        String next;
+        while ((next = in.readLine()) != null && !next.isEmpty()
+                && (next.charAt(0) == ' ' || next.charAt(0) == '\t')) {
+            if (sb == null)
+                sb = new StringBuilder(line);
+            sb.append(next, 1, next.length());
+        }
+        lookahead = next;
+        return sb == null ? line : sb.toString();
+    }
+}
@@ -0,0 +1,154 @@
+package com.calendar.ics;
+
+import com.calendar.model.Event;
+import com.calendar.model.EventTime;
+import com.calendar.model.RecurrenceRule;
+import com.calendar.model.Series;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming writer for RFC 5545 iCalendar files. Events are written one at a
+ * time as VEVENTs with floating (local) times; {@link #close()} ends the
+ * calendar. A series is a single VEVENT with an RRULE and its deleted dates
+ * as EXDATEs, never its expanded occurrences, so every UID is written once.
+ */
+public final class IcsWriter implements Closeable {
+
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private final Writer out;
+    private final String stamp;
+
+    public IcsWriter(Writer out) throws IOException {
+        this.out = out;
+        this.stamp = STAMP.format(Instant.now());
+        line("BEGIN:VCALENDAR");
+        line("VERSION:2.0");
+        line("PRODID:-//com.calendar//CalendarApp//EN");
+        line("CALSCALE:GREGORIAN");
+    }
+
+    public void write(LocalDate date, Event event) throws IOException {
+        begin(date, event);
+        line("END:VEVENT");
+    }
+
+    /** Writes the whole series, from its start, as one recurring VEVENT. */
+    public void write(Series series) throws IOException {
+        EventTime time = series.event().getTime();
+        begin(series.start(), series.event());
+        line("RRULE:" + rule(series.rule(), time));
+        if (!series.exceptions().isEmpty()) {
+            List<LocalDate> dates = new ArrayList<>(series.exceptions());
+            dates.sort(null);
+            StringBuilder sb = new StringBuilder(time.isAllDay() ? "EXDATE;VALUE=DATE:" : "EXDATE:");
+            for (int i = 0; i < dates.size(); i++) {
+                if (i > 0)
+                    sb.append(',');
+                // Same value type as DTSTART, as RFC 5545 requires
+                sb.append(formatDate(dates.get(i)));
+                if (!time.isAllDay())
+                    sb.append(formatTime(time.getStartMinute()));
+            }
+            line(sb.toString());
+        }
+        line("END:VEVENT");
+    }
+
+    // Everything up to the properties only a series has
+    private void begin(LocalDate date, Event event) throws IOException {
+        EventTime time = event.getTime();
+        line("BEGIN:VEVENT");
+        line("UID:event-" + event.getId() + "@com.calendar");
+        line("DTSTAMP:" + stamp);
+        if (time.isAllDay()) {
+            line("DTSTART;VALUE=DATE:" + formatDate(date));
+            line("DTEND;VALUE=DATE:" + formatDate(date.plusDays(1)));
+        } else {
+            line("DTSTART:" + formatDate(date) + formatTime(time.getStartMinute()));
+            if (time.hasEnd())
+                line("DTEND:" + formatDate(date) + formatTime(time.getEndMinute()));
+        }
+        line("SUMMARY:" + escape(event.getTitle()));
+    }
+
+    // UNTIL must be a floating date-time when DTSTART is one; the last minute of the day keeps it inclusive
+    private static String rule(RecurrenceRule rule, EventTime time) {
+        StringBuilder sb = new StringBuilder("FREQ=").append(rule.frequency());
+        if (rule.interval() != 1)
+            sb.append(";INTERVAL=").append(rule.interval());
+        if (rule.count() > 0)
+            sb.append(";COUNT=").append(rule.count());
+        if (rule.until() != null)
+            sb.append(";UNTIL=").append(formatDate(rule.until())).append(time.isAllDay() ? "" : "T235900");
+        return sb.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            line("END:VCALENDAR");
+        } finally {
+            out.close();
+        }
+    }
+
+    private void line(String content) throws IOException {
+        // Fold at 75 octets, never inside a UTF-8 sequence
+        int octets = 0;
+        int limit = MAX_LINE_OCTETS;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            int size = c < 0x80 ? 1 : c < 0x800 ? 2 : Character.isHighSurrogate(c) ? 4 : 3;
+            if (octets + size > limit) {
+                out.write("\r\n ");
+                octets = 0;
+                limit = MAX_LINE_OCTETS - 1; // The leading space counts
+            }
+            out.write(c);
+            if (size == 4 && i + 1 < content.length())
+                out.write(content.charAt(++i));
+            octets += size;
+        }
+        out.write("\r\n");
+    }
+
+    private static String formatDate(LocalDate date) {
+        int y = date.getYear();
+        int m = date.getMonthValue();
+        int d = date.getDayOfMonth();
+        return String.valueOf(y) + (m < 10 ? "0" : "") + m + (d < 10 ? "0" : "") + d;
+    }
+
+    private static String formatTime(int minute) {
+        int h = minute / 60;
+        int m = minute % 60;
+        return "T" + (h < 10 ? "0" : "") + h + (m < 10 ? "0" : "") + m + "00";
+    }
+
+    private static String escape(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\', ';', ',' -> sb.append('\\').append(c);
+                case '\n' -> sb.append("\\n");
+                case '\r' -> {
+                }
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
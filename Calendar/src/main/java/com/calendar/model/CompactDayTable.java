@@ -0,0 +1,294 @@
+package com.calendar.model;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+
+/**
+ * A table that keeps events as packed columns instead of objects: one chunk
+ * per month holding a {@code long} of day, start, end, title id and id
+ * offset per event, 8 bytes where an event object with its time and title
+ * costs 50 to 100. Titles go through a
+ * {@link TitleDictionary} shared by every version of the store.
+ * <p>
+ * Day lists are views that build an {@link Event} each time one is read, so
+ * only what is actually being looked at exists as objects. Counting reads the
+ * columns directly. A change re-packs the chunks of the months it touches,
+ * so writes cost a month rather than a day.
+ */
+final class CompactDayTable implements DayTable {
+
+    private final PersistentTreeMap<YearMonth, MonthColumns> months;
+    private final TitleDictionary titles;
+
+    private CompactDayTable(PersistentTreeMap<YearMonth, MonthColumns> months, TitleDictionary titles) {
+        this.months = months;
+        this.titles = titles;
+    }
+
+    /** An empty table with a dictionary of its own; one per store. */
+    static CompactDayTable empty() {
+        return new CompactDayTable(PersistentTreeMap.empty(), new TitleDictionary());
+    }
+
+    @Override
+    public List<Event> get(LocalDate date) {
+        MonthColumns m = months.get(YearMonth.from(date));
+        if (m == null)
+            return null;
+        int from = m.dayStart(date.getDayOfMonth());
+        int to = m.dayStart(date.getDayOfMonth() + 1);
+        return from == to ? null : new DayView(m, from, to);
+    }
+
+    @Override
+    public int countOn(LocalDate date) {
+        MonthColumns m = months.get(YearMonth.from(date));
+        return m == null ? 0 : m.dayStart(date.getDayOfMonth() + 1) - m.dayStart(date.getDayOfMonth());
+    }
+
+    @Override
+    public Event find(LocalDate date, long id) {
+        MonthColumns m = months.get(YearMonth.from(date));
+        if (m == null)
+            return null;
+        for (int i = m.dayStart(date.getDayOfMonth()), to = m.dayStart(date.getDayOfMonth() + 1); i < to; i++) {
+            if (m.id(i) == id)
+                return m.event(i, titles);
+        }
+        return null;
+    }
+
+    @Override
+    public void countsInto(YearMonth month, int[] counts) {
+        MonthColumns m = months.get(month);
+        if (m == null)
+            return;
+        // Events are sorted by day, so each count is the gap between two day starts
+        int start = 0;
+        for (int day = 1; day <= counts.length; day++) {
+            int next = m.dayStart(day + 1);
+            counts[day - 1] = next - start;
+            start = next;
+        }
+    }
+
+    @Override
+    public void forEachInRange(LocalDate from, LocalDate to, BiConsumer<LocalDate, List<Event>> action) {
+        months.forEachInRange(YearMonth.from(from), YearMonth.from(to), (month, m) -> {
+            int i = 0;
+            while (i < m.size()) {
+                int day = m.day(i);
+                int end = m.dayStart(day + 1);
+                LocalDate date = month.atDay(day);
+                if (date.isAfter(to))
+                    break;
+                if (!date.isBefore(from))
+                    action.accept(date, new DayView(m, i, end));
+                i = end;
+            }
+        });
+    }
+
+    @Override
+    public DayTable with(Map<LocalDate, List<Event>> changed) {
+        Map<YearMonth, Map<Integer, List<Event>>> byMonth = new TreeMap<>();
+        for (Map.Entry<LocalDate, List<Event>> day : changed.entrySet()) {
+            byMonth.computeIfAbsent(YearMonth.from(day.getKey()), m -> new TreeMap<>())
+                    .put(day.getKey().getDayOfMonth(), day.getValue());
+        }
+        PersistentTreeMap<YearMonth, MonthColumns> newMonths = months;
+        for (Map.Entry<YearMonth, Map<Integer, List<Event>>> month : byMonth.entrySet()) {
+            MonthColumns packed = MonthColumns.pack(months.get(month.getKey()), month.getValue(), titles);
+            newMonths = packed == null ? newMonths.remove(month.getKey()) : newMonths.put(month.getKey(), packed);
+        }
+        return new CompactDayTable(newMonths, titles);
+    }
+
+    /**
+     * One month's events, ordered by day and then as in the day's list. The
+     * low bits of each {@code meta} entry are {@code (day - 1) << 22 |
+     * (start + 1) << 11 | (end + 1)}, where 0 stands for no start (all day)
+     * or no end; the title id sits above them. The id is kept as an offset
+     * from the month's smallest one: in the same long, between the two, when
+     * title and offset fit in the 37 bits left, as they do unless a month's
+     * ids are spread over billions or its titles number in the millions;
+     * otherwise in a column of its own.
+     */
+    private static final class MonthColumns {
+
+        private static final int DAY_SHIFT = 22;
+        private static final int START_SHIFT = 11;
+        private static final int MINUTE_MASK = (1 << 11) - 1;
+        private static final int ID_SHIFT = 27;
+        private static final long SLOT_MASK = (1L << ID_SHIFT) - 1;
+
+        private final long[] meta;
+        private final int titleShift;
+        private final long baseId;
+        private final int[] idOffsets; // Both null when the ids are in meta
+        private final long[] wideIds; // Set instead of idOffsets when the ids did not fit in 32 bits
+
+        private MonthColumns(long[] meta, int titleShift, long baseId, int[] idOffsets, long[] wideIds) {
+            this.meta = meta;
+            this.titleShift = titleShift;
+            this.baseId = baseId;
+            this.idOffsets = idOffsets;
+            this.wideIds = wideIds;
+        }
+
+        /** {@code old} with the given days (day of month to list) replaced; null if nothing is left. */
+        static MonthColumns pack(MonthColumns old, Map<Integer, List<Event>> changed, TitleDictionary titles) {
+            int oldSize = old == null ? 0 : old.size();
+            int size = oldSize;
+            for (Map.Entry<Integer, List<Event>> day : changed.entrySet()) {
+                if (old != null)
+                    size -= old.dayStart(day.getKey() + 1) - old.dayStart(day.getKey());
+                if (day.getValue() != null)
+                    size += day.getValue().size();
+            }
+            if (size == 0)
+                return null;
+
+            // Unpacked first, since how the rest is laid out depends on every id and title
+            long[] slots = new long[size];
+            int[] titleIds = new int[size];
+            long[] ids = new long[size];
+            int n = 0;
+            int i = 0;
+            for (int day = 1; day <= 31; day++) {
+                int end = i;
+                while (end < oldSize && old.day(end) == day) {
+                    end++;
+                }
+                if (changed.containsKey(day)) {
+                    List<Event> dayEvents = changed.get(day);
+                    if (dayEvents != null) {
+                        for (Event e : dayEvents) {
+                            slots[n] = slot(day, e.getTime());
+                            titleIds[n] = titles.idOf(e.getTitle());
+                            ids[n++] = e.getId();
+                        }
+                    }
+                } else {
+                    for (int j = i; j < end; j++) {
+                        slots[n] = old.meta[j] & SLOT_MASK;
+                        titleIds[n] = old.titleId(j);
+                        ids[n++] = old.id(j);
+                    }
+                }
+                i = end;
+            }
+
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            int maxTitle = 0;
+            for (int j = 0; j < size; j++) {
+                min = Math.min(min, ids[j]);
+                max = Math.max(max, ids[j]);
+                maxTitle = Math.max(maxTitle, titleIds[j]);
+            }
+            long[] meta = new long[size];
+            boolean narrow = max - min >= 0 && max - min <= 0xFFFF_FFFFL;
+            int idBits = 64 - Long.numberOfLeadingZeros(max - min);
+            int titleBits = 32 - Integer.numberOfLeadingZeros(maxTitle);
+            if (narrow && ID_SHIFT + idBits + titleBits < 64) { // Not 64: a shift by 64 is no shift at all
+                int titleShift = ID_SHIFT + idBits;
+                for (int j = 0; j < size; j++) {
+                    meta[j] = (long) titleIds[j] << titleShift | ids[j] - min << ID_SHIFT | slots[j];
+                }
+                return new MonthColumns(meta, titleShift, min, null, null);
+            }
+            for (int j = 0; j < size; j++) {
+                meta[j] = (long) titleIds[j] << ID_SHIFT | slots[j];
+            }
+            if (!narrow)
+                return new MonthColumns(meta, ID_SHIFT, 0, null, ids);
+            int[] offsets = new int[size];
+            for (int j = 0; j < size; j++) {
+                offsets[j] = (int) (ids[j] - min);
+            }
+            return new MonthColumns(meta, ID_SHIFT, min, offsets, null);
+        }
+
+        private static long slot(int day, EventTime t) {
+            long start = t.isAllDay() ? 0 : t.getStartMinute() + 1;
+            long end = t.hasEnd() ? t.getEndMinute() + 1 : 0;
+            return (long) (day - 1) << DAY_SHIFT | start << START_SHIFT | end;
+        }
+
+        int size() {
+            return meta.length;
+        }
+
+        int day(int i) {
+            return (int) (meta[i] >>> DAY_SHIFT & 31) + 1;
+        }
+
+        int titleId(int i) {
+            return (int) (meta[i] >>> titleShift);
+        }
+
+        long id(int i) {
+            if (idOffsets != null)
+                return baseId + Integer.toUnsignedLong(idOffsets[i]);
+            if (wideIds != null)
+                return wideIds[i];
+            return baseId + ((meta[i] & (1L << titleShift) - 1) >>> ID_SHIFT);
+        }
+
+        /** Index of the first event on {@code dayOfMonth} or later; {@link #size()} if none. */
+        int dayStart(int dayOfMonth) {
+            int lo = 0;
+            int hi = meta.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (day(mid) < dayOfMonth) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        Event event(int i, TitleDictionary titles) {
+            long m = meta[i];
+            int start = (int) (m >>> START_SHIFT & MINUTE_MASK);
+            int end = (int) (m & MINUTE_MASK);
+            EventTime time = start == 0 ? EventTime.ALL_DAY : EventTime.of(start - 1, end - 1);
+            return new Event(id(i), titles.title(titleId(i)), time);
+        }
+    }
+
+    /** A day's slice of a month chunk; events are built as they are read. */
+    private final class DayView extends AbstractList<Event> implements RandomAccess {
+
+        private final MonthColumns month;
+        private final int from;
+        private final int to;
+
+        DayView(MonthColumns month, int from, int to) {
+            this.month = month;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Event get(int index) {
+            if (index < 0 || index >= to - from)
+                throw new IndexOutOfBoundsException(index);
+            return month.event(from + index, titles);
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
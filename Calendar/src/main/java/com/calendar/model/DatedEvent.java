@@ -0,0 +1,7 @@
+package com.calendar.model;
+
+import java.time.LocalDate;
+
+/** An event together with the day it is on, for bulk operations. */
+public record DatedEvent(LocalDate date, Event event) {
+}
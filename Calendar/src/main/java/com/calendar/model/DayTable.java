@@ -0,0 +1,35 @@
+package com.calendar.model;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * How a snapshot keeps its one-off events by day. Persistent like the
+ * snapshot: a change returns a new table sharing everything it did not touch.
+ * Day lists handed out are sorted by start time and unmodifiable.
+ */
+interface DayTable {
+
+    /** The day's events, or null if there are none. */
+    List<Event> get(LocalDate date);
+
+    int countOn(LocalDate date);
+
+    /** The one-off event with {@code id} on {@code date}, or null. */
+    Event find(LocalDate date, long id);
+
+    /** Sets {@code counts[d - 1]} to the number of events on day {@code d} of {@code month}. */
+    void countsInto(YearMonth month, int[] counts);
+
+    /** Visits the non-empty days in {@code [from, to]}, in date order. */
+    void forEachInRange(LocalDate from, LocalDate to, BiConsumer<LocalDate, List<Event>> action);
+
+    /**
+     * Replaces each given day with its list (null or empty removes the day).
+     * The lists must not be changed afterwards.
+     */
+    DayTable with(Map<LocalDate, List<Event>> changed);
+}
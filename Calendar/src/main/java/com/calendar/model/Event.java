@@ -0,0 +1,50 @@
+package com.calendar.model;
+
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * A single calendar entry. The id is unique within a store and is what the
+ * journal uses to refer back to it.
+ * <p>
+ * Events are values: two with the same id, title and time are equal, since a
+ * compact store hands out a fresh object for an event each time it is read.
+ */
+public class Event {
+
+    /** Orders events by start time, all-day events last. */
+    public static final Comparator<Event> BY_START_TIME = Comparator.comparingInt(e -> e.time.sortKey());
+
+    private final long id;
+    private final String title;
+    private final EventTime time;
+
+    public Event(long id, String title, EventTime time) {
+        this.id = id;
+        this.title = title;
+        this.time = time;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public EventTime getTime() {
+        return time;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Event other && other.id == id && Objects.equals(other.title, title)
+                && Objects.equals(other.time, time);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(id);
+    }
+}
@@ -0,0 +1,626 @@
+package com.calendar.model;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ordered index of events by day, safe for any number of threads.
+ * <p>
+ * Every change publishes a new immutable {@link StoreSnapshot}; days live in
+ * a persistent sorted tree, so a version shares everything but the changed
+ * day with the one before and range questions ("this month") are a walk over
+ * just that range. Each day's list is kept sorted by start time, so callers
+ * can render it as-is.
+ * <p>
+ * Readers never lock: {@link #snapshot()} is one volatile read, and the read
+ * methods here are shorthands for reading the latest snapshot. Anything that
+ * reads more than once and needs the answers to agree (a render, an export)
+ * should take a snapshot and read from that. Writers are serialized, so a
+ * background import and an edit on the FX thread simply take turns.
+ * <p>
+ * Recurring events are kept as {@link Series}, one entry per series, and are
+ * only expanded into occurrences for the month a caller asks about. All read
+ * methods include occurrences.
+ */
+public class EventStore {
+
+    /**
+     * Notified of every add and remove, e.g. by the journal. Calls come on the
+     * writing thread, in the order the changes were made, while other writers
+     * wait; keep them short.
+     */
+    public interface Listener {
+        void eventAdded(LocalDate date, Event event);
+
+        void eventRemoved(LocalDate date, Event event);
+
+        /** Called once for a batch from {@link #addAll}; override to handle it in one go. */
+        default void eventsAdded(List<DatedEvent> added) {
+            for (DatedEvent e : added) {
+                eventAdded(e.date(), e.event());
+            }
+        }
+
+        /** Called once for a batch from {@link #removeAll}; override to handle it in one go. */
+        default void eventsRemoved(List<DatedEvent> removed) {
+            for (DatedEvent e : removed) {
+                eventRemoved(e.date(), e.event());
+            }
+        }
+
+        /** A series was added ({@code previous} null), changed, or removed ({@code current} null). */
+        default void seriesChanged(Series previous, Series current) {
+        }
+
+        /**
+         * Called once for a batch from {@link #putAllSeries}, where {@code previous.get(i)} is what
+         * {@code current.get(i)} replaced, or null; override to handle it in one go.
+         */
+        default void seriesPut(List<Series> previous, List<Series> current) {
+            for (int i = 0; i < current.size(); i++) {
+                seriesChanged(previous.get(i), current.get(i));
+            }
+        }
+    }
+
+    /**
+     * Told that the store has moved on, e.g. to re-render. Changes made while a
+     * notification is pending are folded into it, so a burst of writes costs
+     * one call.
+     */
+    public interface ChangeListener {
+        /** @param snapshot the latest version; {@code change} covers everything since the last call */
+        void changed(StoreSnapshot snapshot, Change change);
+    }
+
+    /** What changed since the last notification. */
+    public static final class Change {
+        private final Set<LocalDate> dates;
+        private final boolean everything;
+
+        private Change(Set<LocalDate> dates, boolean everything) {
+            this.dates = dates;
+            this.everything = everything;
+        }
+
+        /** True when the change is too broad to list by day, e.g. a series changed. */
+        public boolean isEverything() {
+            return everything;
+        }
+
+        public boolean touches(LocalDate date) {
+            return everything || dates.contains(date);
+        }
+
+        public boolean touches(YearMonth month) {
+            if (everything)
+                return true;
+            for (LocalDate date : dates) {
+                if (date.getYear() == month.getYear() && date.getMonth() == month.getMonth())
+                    return true;
+            }
+            return false;
+        }
+
+        /** The changed days; empty when {@link #isEverything()}. */
+        public Set<LocalDate> dates() {
+            return everything ? Collections.emptySet() : Collections.unmodifiableSet(dates);
+        }
+    }
+
+    // A change feed stops listing days past this and reports everything instead
+    private static final int MAX_TRACKED_DATES = 1024;
+
+    private final Object writeLock = new Object();
+    private volatile StoreSnapshot current;
+    private final AtomicLong lastId = new AtomicLong();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final List<ChangeFeed> feeds = new CopyOnWriteArrayList<>();
+    private int batchDepth; // Guarded by writeLock
+
+    public EventStore() {
+        this(StoreSnapshot.EMPTY);
+    }
+
+    private EventStore(StoreSnapshot empty) {
+        current = empty;
+    }
+
+    /**
+     * A store that keeps one-off events packed into per-month columns with
+     * shared titles instead of as objects, for calendars with millions of
+     * events. Reads hand out lightweight views that build each event as it is
+     * read, so they allocate where the default store does not, and a write
+     * re-packs the month it touches. Events read back are equal to, but not
+     * the same objects as, the ones stored.
+     */
+    public static EventStore compact() {
+        return new EventStore(StoreSnapshot.emptyCompact());
+    }
+
+    /**
+     * Starts notifying {@code listener}. Returns the version its first
+     * notification will follow, so it can catch up from exactly there.
+     */
+    public StoreSnapshot addListener(Listener listener) {
+        synchronized (writeLock) {
+            listeners.add(listener);
+            return current;
+        }
+    }
+
+    /**
+     * Stops notifying {@code listener}. Waits for any write in progress, so
+     * once this returns the listener hears nothing more.
+     */
+    public void removeListener(Listener listener) {
+        synchronized (writeLock) {
+            listeners.remove(listener);
+        }
+    }
+
+    /** Delivers coalesced changes through {@code executor}, e.g. {@code Platform::runLater}. */
+    public void addChangeListener(ChangeListener listener, Executor executor) {
+        feeds.add(new ChangeFeed(listener, executor));
+    }
+
+    public void removeChangeListener(ChangeListener listener) {
+        feeds.removeIf(feed -> feed.listener == listener);
+    }
+
+    /** The current version. */
+    public StoreSnapshot snapshot() {
+        return current;
+    }
+
+    /** Next unused event id; ids restored from disk are taken into account. */
+    public long nextId() {
+        return lastId.incrementAndGet();
+    }
+
+    /** Highest id handed out or seen so far. */
+    public long lastId() {
+        return lastId.get();
+    }
+
+    /** Makes sure ids up to {@code id} are never handed out again, even if those events are gone. */
+    public void reserveIdsThrough(long id) {
+        lastId.accumulateAndGet(id, Math::max);
+    }
+
+    public void add(LocalDate date, Event event) {
+        synchronized (writeLock) {
+            List<Event> dayEvents = copyOfDay(date, 1);
+            dayEvents.add(insertionPoint(dayEvents, event), event);
+            publish(current.withDay(date, dayEvents), date);
+            reserveIdsThrough(event.getId());
+            for (Listener l : listeners) {
+                l.eventAdded(date, event);
+            }
+        }
+    }
+
+    /**
+     * Runs {@code writes} as one change for change listeners, which get all of
+     * it in a single delivery, and keeps other writers out until it is done.
+     * Plain listeners and readers of {@link #snapshot()} still see each write.
+     */
+    public void batch(Runnable writes) {
+        synchronized (writeLock) {
+            batchDepth++;
+            try {
+                writes.run();
+            } finally {
+                if (--batchDepth == 0) {
+                    for (ChangeFeed feed : feeds) {
+                        feed.flush();
+                    }
+                }
+            }
+        }
+    }
+
+    /** Adds a batch, e.g. from an import, as one version with one listener notification for all of it. */
+    public void addAll(List<DatedEvent> batch) {
+        if (batch.isEmpty())
+            return;
+        // Each day's list is copied once however many of the batch land on it
+        Map<LocalDate, List<Event>> byDay = new LinkedHashMap<>();
+        long maxId = 0;
+        for (DatedEvent e : batch) {
+            byDay.computeIfAbsent(e.date(), d -> new ArrayList<>()).add(e.event());
+            maxId = Math.max(maxId, e.event().getId());
+        }
+        synchronized (writeLock) {
+            Map<LocalDate, List<Event>> changed = new LinkedHashMap<>();
+            for (Map.Entry<LocalDate, List<Event>> day : byDay.entrySet()) {
+                List<Event> stored = current.storedOn(day.getKey());
+                List<Event> dayEvents = new ArrayList<>(
+                        (stored == null ? 0 : stored.size()) + day.getValue().size());
+                if (stored != null)
+                    dayEvents.addAll(stored);
+                for (Event event : day.getValue()) {
+                    dayEvents.add(insertionPoint(dayEvents, event), event);
+                }
+                changed.put(day.getKey(), dayEvents);
+            }
+            publish(current.withDays(changed), byDay.keySet());
+            reserveIdsThrough(maxId);
+            List<DatedEvent> added = Collections.unmodifiableList(batch);
+            for (Listener l : listeners) {
+                l.eventsAdded(added);
+            }
+        }
+    }
+
+    /**
+     * Bulk-loads a whole day that is already sorted by start time, e.g. from a
+     * snapshot. Skips the per-event insertion search and does not notify
+     * listeners, though change listeners still hear about it.
+     */
+    public void restoreDay(LocalDate date, List<Event> sortedEvents) {
+        restoreDays(Collections.singletonMap(date, sortedEvents));
+    }
+
+    /**
+     * {@link #restoreDay} for several days as one write, so a compact store
+     * packs each month touched once rather than once per day.
+     */
+    public void restoreDays(Map<LocalDate, List<Event>> sortedDays) {
+        Map<LocalDate, List<Event>> copies = new HashMap<>();
+        long maxId = 0;
+        for (Map.Entry<LocalDate, List<Event>> day : sortedDays.entrySet()) {
+            if (day.getValue().isEmpty())
+                continue;
+            for (Event e : day.getValue()) {
+                maxId = Math.max(maxId, e.getId());
+            }
+            copies.put(day.getKey(), new ArrayList<>(day.getValue()));
+        }
+        if (copies.isEmpty())
+            return;
+        synchronized (writeLock) {
+            publish(current.withDays(copies), copies.keySet());
+            reserveIdsThrough(maxId);
+        }
+    }
+
+    /** Removes the event with the given id from a day, used when replaying deletes. */
+    public Event removeById(LocalDate date, long id) {
+        synchronized (writeLock) {
+            List<Event> dayEvents = current.storedOn(date);
+            if (dayEvents == null)
+                return null;
+            for (Event e : dayEvents) {
+                if (e.getId() == id) {
+                    remove(date, e);
+                    return e;
+                }
+            }
+            return null;
+        }
+    }
+
+    /** Adds a series, or replaces the one with the same id (e.g. to add an exception). */
+    public void putSeries(Series s) {
+        synchronized (writeLock) {
+            Series previous = restoreSeries(s);
+            for (Listener l : listeners) {
+                l.seriesChanged(previous, s);
+            }
+        }
+    }
+
+    /** Adds or replaces several series as one write, e.g. the repeating events of an import. */
+    public void putAllSeries(List<Series> batch) {
+        if (batch.isEmpty())
+            return;
+        synchronized (writeLock) {
+            List<Series> previous = new ArrayList<>(batch.size());
+            long lastId = 0;
+            for (Series s : batch) {
+                previous.add(current.series(s.id()));
+                lastId = Math.max(lastId, s.id());
+            }
+            publishEverything(current.withAllSeries(previous, batch));
+            reserveIdsThrough(lastId);
+            for (Listener l : listeners) {
+                l.seriesPut(previous, batch);
+            }
+        }
+    }
+
+    /**
+     * Adds or replaces a series without notifying listeners, e.g. when loading
+     * a snapshot. Returns the series it replaced, if any.
+     */
+    public Series restoreSeries(Series s) {
+        synchronized (writeLock) {
+            Series previous = current.series(s.id());
+            publishEverything(current.withSeries(previous, s));
+            reserveIdsThrough(s.id());
+            return previous;
+        }
+    }
+
+    public Series removeSeries(long id) {
+        synchronized (writeLock) {
+            Series previous = current.series(id);
+            if (previous != null) {
+                publishEverything(current.withSeries(previous, null));
+                for (Listener l : listeners) {
+                    l.seriesChanged(previous, null);
+                }
+            }
+            return previous;
+        }
+    }
+
+    public boolean remove(LocalDate date, Event event) {
+        synchronized (writeLock) {
+            List<Event> stored = current.storedOn(date);
+            if (stored == null)
+                return false;
+
+            // Ids tell apart events with the same title and time
+            for (int i = 0; i < stored.size(); i++) {
+                if (stored.get(i).equals(event)) {
+                    List<Event> dayEvents = new ArrayList<>(stored);
+                    dayEvents.remove(i);
+                    publish(current.withDay(date, dayEvents), date);
+                    for (Listener l : listeners) {
+                        l.eventRemoved(date, event);
+                    }
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Removes a batch, e.g. when undoing an import, as one version with one
+     * listener notification. Events not in the store are skipped; matched
+     * as in {@link #remove}.
+     */
+    public void removeAll(List<DatedEvent> batch) {
+        if (batch.isEmpty())
+            return;
+        Map<LocalDate, Set<Event>> byDay = new LinkedHashMap<>();
+        for (DatedEvent e : batch) {
+            byDay.computeIfAbsent(e.date(), d -> new HashSet<>()).add(e.event());
+        }
+        synchronized (writeLock) {
+            Map<LocalDate, List<Event>> changed = new LinkedHashMap<>();
+            List<DatedEvent> removed = new ArrayList<>(batch.size());
+            for (Map.Entry<LocalDate, Set<Event>> day : byDay.entrySet()) {
+                List<Event> stored = current.storedOn(day.getKey());
+                if (stored == null)
+                    continue;
+                List<Event> kept = new ArrayList<>(stored.size());
+                for (Event event : stored) {
+                    if (day.getValue().contains(event)) {
+                        removed.add(new DatedEvent(day.getKey(), event));
+                    } else {
+                        kept.add(event);
+                    }
+                }
+                if (kept.size() < stored.size())
+                    changed.put(day.getKey(), kept);
+            }
+            if (removed.isEmpty())
+                return;
+            publish(current.withDays(changed), changed.keySet());
+            List<DatedEvent> done = Collections.unmodifiableList(removed);
+            for (Listener l : listeners) {
+                l.eventsRemoved(done);
+            }
+        }
+    }
+
+    // Reads, each from the latest version
+
+    /** The series {@code event} is an occurrence of, or null for a one-off event. */
+    public Series seriesOf(Event event) {
+        return current.seriesOf(event);
+    }
+
+    /** The series with {@code id}, or null if there is none (it may still be a one-off event's id). */
+    public Series series(long id) {
+        return current.series(id);
+    }
+
+    public Collection<Series> allSeries() {
+        return current.allSeries();
+    }
+
+    /** Events on the given day, including series occurrences, sorted by start time. */
+    public List<Event> eventsOn(LocalDate date) {
+        return current.eventsOn(date);
+    }
+
+    public int countOn(LocalDate date) {
+        return current.countOn(date);
+    }
+
+    /**
+     * All non-empty days in {@code [from, to]}, inclusive on both ends, in date
+     * order, including series occurrences.
+     */
+    public NavigableMap<LocalDate, List<Event>> eventsBetween(LocalDate from, LocalDate to) {
+        return current.eventsBetween(from, to);
+    }
+
+    /** One-off events only, as stored, without expanding any series. Used for persistence. */
+    public NavigableMap<LocalDate, List<Event>> storedEventsBetween(LocalDate from, LocalDate to) {
+        return current.storedEventsBetween(from, to);
+    }
+
+    /** Per-day event counts for a month, including occurrences; index 0 is the 1st. */
+    public int[] countsFor(YearMonth month) {
+        return current.countsFor(month);
+    }
+
+    /** Number of one-off events; a series counts once in {@link #seriesCount()}. */
+    public int size() {
+        return current.size();
+    }
+
+    public int seriesCount() {
+        return current.seriesCount();
+    }
+
+    public boolean isEmpty() {
+        return current.isEmpty();
+    }
+
+    private List<Event> copyOfDay(LocalDate date, int extra) {
+        List<Event> stored = current.storedOn(date);
+        List<Event> copy = new ArrayList<>((stored == null ? 0 : stored.size()) + extra);
+        if (stored != null)
+            copy.addAll(stored);
+        return copy;
+    }
+
+    private void publish(StoreSnapshot next, LocalDate date) {
+        current = next;
+        for (ChangeFeed feed : feeds) {
+            feed.record(date);
+        }
+    }
+
+    private void publish(StoreSnapshot next, Collection<LocalDate> dates) {
+        current = next;
+        for (ChangeFeed feed : feeds) {
+            feed.record(dates);
+        }
+    }
+
+    private void publishEverything(StoreSnapshot next) {
+        current = next;
+        for (ChangeFeed feed : feeds) {
+            feed.recordEverything();
+        }
+    }
+
+    /** Collects changes for one change listener until its executor gets round to delivering them. */
+    private final class ChangeFeed {
+        final ChangeListener listener;
+        private final Executor executor;
+        // Guarded by this
+        private Set<LocalDate> dates = new HashSet<>();
+        private boolean everything;
+        private boolean scheduled;
+        private boolean held;
+
+        ChangeFeed(ChangeListener listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        void record(LocalDate date) {
+            boolean schedule;
+            synchronized (this) {
+                if (!everything && dates.add(date) && dates.size() > MAX_TRACKED_DATES)
+                    markEverything();
+                schedule = !scheduled;
+                scheduled = true;
+            }
+            if (schedule)
+                dispatch();
+        }
+
+        void record(Collection<LocalDate> changed) {
+            boolean schedule;
+            synchronized (this) {
+                if (!everything) {
+                    if (dates.size() + changed.size() > MAX_TRACKED_DATES) {
+                        markEverything();
+                    } else {
+                        dates.addAll(changed);
+                    }
+                }
+                schedule = !scheduled;
+                scheduled = true;
+            }
+            if (schedule)
+                dispatch();
+        }
+
+        void recordEverything() {
+            boolean schedule;
+            synchronized (this) {
+                markEverything();
+                schedule = !scheduled;
+                scheduled = true;
+            }
+            if (schedule)
+                dispatch();
+        }
+
+        // Inside a batch, delivery waits for the batch to finish
+        private void dispatch() {
+            if (batchDepth > 0) {
+                synchronized (this) {
+                    held = true;
+                }
+            } else {
+                executor.execute(this::deliver);
+            }
+        }
+
+        void flush() {
+            synchronized (this) {
+                if (!held)
+                    return;
+                held = false;
+            }
+            executor.execute(this::deliver);
+        }
+
+        private void markEverything() {
+            everything = true;
+            dates = new HashSet<>();
+        }
+
+        private void deliver() {
+            Change change;
+            synchronized (this) {
+                change = new Change(dates, everything);
+                dates = new HashSet<>();
+                everything = false;
+                scheduled = false;
+            }
+            // Read after clearing, so a write racing with this call is either in it or scheduled again
+            listener.changed(current, change);
+        }
+    }
+
+    // Upper bound, so events with equal start times keep their insertion order
+    private static int insertionPoint(List<Event> dayEvents, Event event) {
+        int lo = 0;
+        int hi = dayEvents.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Event.BY_START_TIME.compare(dayEvents.get(mid), event) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,126 @@
+package com.calendar.model;
+
+/**
+ * When an event happens within its day, parsed once from what the user typed.
+ * <p>
+ * Times are minutes since midnight. An all-day event has no start; a timed
+ * event may or may not have an end. Accepted input is {@code "All Day"} (or
+ * blank), {@code "8:00"}, {@code "08:00"} and ranges like {@code "08:00-09:00"}
+ * with optional spaces around the dash.
+ */
+public final class EventTime {
+
+    public static final EventTime ALL_DAY = new EventTime((short) -1, (short) -1);
+
+    private static final short NONE = -1;
+
+    private final short startMinute;
+    private final short endMinute;
+
+    private EventTime(short startMinute, short endMinute) {
+        this.startMinute = startMinute;
+        this.endMinute = endMinute;
+    }
+
+    /** A timed event; pass -1 as {@code endMinute} for no end. */
+    public static EventTime of(int startMinute, int endMinute) {
+        checkMinute(startMinute);
+        if (endMinute != NONE) {
+            checkMinute(endMinute);
+            if (endMinute <= startMinute)
+                throw new IllegalArgumentException("End time must be after start time");
+        }
+        return new EventTime((short) startMinute, (short) endMinute);
+    }
+
+    /**
+     * Parses user input.
+     *
+     * @throws IllegalArgumentException with a message fit for showing to the user
+     */
+    public static EventTime parse(String text) {
+        String t = text.trim();
+        if (t.isEmpty() || t.equalsIgnoreCase("All Day"))
+            return ALL_DAY;
+
+        int dash = t.indexOf('-');
+        if (dash < 0)
+            return of(parseClock(t), NONE);
+        return of(parseClock(t.substring(0, dash).trim()), parseClock(t.substring(dash + 1).trim()));
+    }
+
+    public boolean isAllDay() {
+        return startMinute == NONE;
+    }
+
+    /** Minutes since midnight, or -1 for all-day events. */
+    public int getStartMinute() {
+        return startMinute;
+    }
+
+    /** Minutes since midnight, or -1 if there is no end. */
+    public int getEndMinute() {
+        return endMinute;
+    }
+
+    public boolean hasEnd() {
+        return endMinute != NONE;
+    }
+
+    /** Ordering key within a day: by start, with all-day events last. */
+    public int sortKey() {
+        return startMinute == NONE ? Integer.MAX_VALUE : startMinute;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof EventTime other && other.startMinute == startMinute && other.endMinute == endMinute;
+    }
+
+    @Override
+    public int hashCode() {
+        return startMinute * 31 + endMinute;
+    }
+
+    /** The display form, which {@link #parse} reads back. */
+    @Override
+    public String toString() {
+        if (isAllDay())
+            return "All Day";
+        if (!hasEnd())
+            return formatClock(startMinute);
+        return formatClock(startMinute) + "-" + formatClock(endMinute);
+    }
+
+    private static int parseClock(String s) {
+        int colon = s.indexOf(':');
+        if ((colon != 1 && colon != 2) || s.length() != colon + 3)
+            throw new IllegalArgumentException("Use HH:mm, e.g. 08:00 or 08:00-09:00");
+
+        int hour = 0;
+        for (int i = 0; i < colon; i++) {
+            hour = hour * 10 + digit(s.charAt(i));
+        }
+        int minute = digit(s.charAt(colon + 1)) * 10 + digit(s.charAt(colon + 2));
+        if (hour > 23 || minute > 59)
+            throw new IllegalArgumentException("Not a valid time of day: " + s);
+        return hour * 60 + minute;
+    }
+
+    private static int digit(char c) {
+        if (c < '0' || c > '9')
+            throw new IllegalArgumentException("Use HH:mm, e.g. 08:00 or 08:00-09:00");
+        return c - '0';
+    }
+
+    private static void checkMinute(int minute) {
+        if (minute < 0 || minute >= 24 * 60)
+            throw new IllegalArgumentException("Minute of day out of range: " + minute);
+    }
+
+    private static String formatClock(int minute) {
+        int h = minute / 60;
+        int m = minute % 60;
+        return (h < 10 ? "0" : "") + h + (m < 10 ? ":0" : ":") + m;
+    }
+}
@@ -0,0 +1,65 @@
+package com.calendar.model;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/** The default table: each day's events as a list of event objects, in a persistent tree by date. */
+final class ListDayTable implements DayTable {
+
+    static final ListDayTable EMPTY = new ListDayTable(PersistentTreeMap.empty());
+
+    private final PersistentTreeMap<LocalDate, List<Event>> days;
+
+    private ListDayTable(PersistentTreeMap<LocalDate, List<Event>> days) {
+        this.days = days;
+    }
+
+    @Override
+    public List<Event> get(LocalDate date) {
+        return days.get(date);
+    }
+
+    @Override
+    public int countOn(LocalDate date) {
+        List<Event> dayEvents = days.get(date);
+        return dayEvents == null ? 0 : dayEvents.size();
+    }
+
+    @Override
+    public Event find(LocalDate date, long id) {
+        List<Event> dayEvents = days.get(date);
+        if (dayEvents != null) {
+            for (Event e : dayEvents) {
+                if (e.getId() == id)
+                    return e;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void countsInto(YearMonth month, int[] counts) {
+        days.forEachInRange(month.atDay(1), month.atEndOfMonth(),
+                (date, dayEvents) -> counts[date.getDayOfMonth() - 1] = dayEvents.size());
+    }
+
+    @Override
+    public void forEachInRange(LocalDate from, LocalDate to, BiConsumer<LocalDate, List<Event>> action) {
+        days.forEachInRange(from, to, action);
+    }
+
+    @Override
+    public DayTable with(Map<LocalDate, List<Event>> changed) {
+        PersistentTreeMap<LocalDate, List<Event>> newDays = days;
+        for (Map.Entry<LocalDate, List<Event>> day : changed.entrySet()) {
+            List<Event> dayEvents = day.getValue();
+            newDays = dayEvents == null || dayEvents.isEmpty() ? newDays.remove(day.getKey())
+                    : newDays.put(day.getKey(), Collections.unmodifiableList(dayEvents));
+        }
+        return new ListDayTable(newDays);
+    }
+}
@@ -0,0 +1,185 @@
+package com.calendar.model;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable sorted map. Every update returns a new map that shares all but
+ * the O(log n) nodes on the changed path with the old one, so old versions
+ * stay valid and cheap to keep around.
+ * <p>
+ * An AVL tree; nodes also carry their subtree size.
+ */
+final class PersistentTreeMap<K extends Comparable<? super K>, V> {
+
+    private static final PersistentTreeMap<?, ?> EMPTY = new PersistentTreeMap<>(null);
+
+    private final Node<K, V> root;
+
+    private PersistentTreeMap(Node<K, V> root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K extends Comparable<? super K>, V> PersistentTreeMap<K, V> empty() {
+        return (PersistentTreeMap<K, V>) EMPTY;
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    boolean isEmpty() {
+        return root == null;
+    }
+
+    /** Levels from the root to the deepest leaf; at most about 1.44 log2(n) while balanced. */
+    int height() {
+        return height(root);
+    }
+
+    V get(K key) {
+        Node<K, V> n = root;
+        while (n != null) {
+            int c = key.compareTo(n.key);
+            if (c == 0)
+                return n.value;
+            n = c < 0 ? n.left : n.right;
+        }
+        return null;
+    }
+
+    PersistentTreeMap<K, V> put(K key, V value) {
+        return new PersistentTreeMap<>(put(root, key, value));
+    }
+
+    PersistentTreeMap<K, V> remove(K key) {
+        Node<K, V> newRoot = remove(root, key);
+        return newRoot == root ? this : new PersistentTreeMap<>(newRoot);
+    }
+
+    /** Visits every entry in key order. */
+    void forEach(BiConsumer<? super K, ? super V> action) {
+        forEach(root, action);
+    }
+
+    /** Visits the entries with keys in {@code [from, to]}, in key order. */
+    void forEachInRange(K from, K to, BiConsumer<? super K, ? super V> action) {
+        forEachInRange(root, from, to, action);
+    }
+
+    private static <K extends Comparable<? super K>, V> Node<K, V> put(Node<K, V> n, K key, V value) {
+        if (n == null)
+            return new Node<>(key, value, null, null);
+        int c = key.compareTo(n.key);
+        if (c == 0)
+            return new Node<>(key, value, n.left, n.right);
+        if (c < 0)
+            return balance(n.key, n.value, put(n.left, key, value), n.right);
+        return balance(n.key, n.value, n.left, put(n.right, key, value));
+    }
+
+    // Returns n itself when the key is absent, so callers can tell nothing changed
+    private static <K extends Comparable<? super K>, V> Node<K, V> remove(Node<K, V> n, K key) {
+        if (n == null)
+            return null;
+        int c = key.compareTo(n.key);
+        if (c < 0) {
+            Node<K, V> left = remove(n.left, key);
+            return left == n.left ? n : balance(n.key, n.value, left, n.right);
+        }
+        if (c > 0) {
+            Node<K, V> right = remove(n.right, key);
+            return right == n.right ? n : balance(n.key, n.value, n.left, right);
+        }
+        if (n.left == null)
+            return n.right;
+        if (n.right == null)
+            return n.left;
+        Node<K, V> successor = n.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.key, successor.value, n.left, removeMin(n.right));
+    }
+
+    private static <K extends Comparable<? super K>, V> Node<K, V> removeMin(Node<K, V> n) {
+        if (n.left == null)
+            return n.right;
+        return balance(n.key, n.value, removeMin(n.left), n.right);
+    }
+
+    private static <K extends Comparable<? super K>, V> Node<K, V> balance(K key, V value, Node<K, V> left,
+            Node<K, V> right) {
+        int diff = height(left) - height(right);
+        if (diff > 1) {
+            if (height(left.left) < height(left.right))
+                left = rotateLeft(left.key, left.value, left.left, left.right);
+            return rotateRight(key, value, left, right);
+        }
+        if (diff < -1) {
+            if (height(right.right) < height(right.left))
+                right = rotateRight(right.key, right.value, right.left, right.right);
+            return rotateLeft(key, value, left, right);
+        }
+        return new Node<>(key, value, left, right);
+    }
+
+    private static <K extends Comparable<? super K>, V> Node<K, V> rotateRight(K key, V value, Node<K, V> left,
+            Node<K, V> right) {
+        return new Node<>(left.key, left.value, left.left, new Node<>(key, value, left.right, right));
+    }
+
+    private static <K extends Comparable<? super K>, V> Node<K, V> rotateLeft(K key, V value, Node<K, V> left,
+            Node<K, V> right) {
+        return new Node<>(right.key, right.value, new Node<>(key, value, left, right.left), right.right);
+    }
+
+    private static <K, V> void forEach(Node<K, V> n, BiConsumer<? super K, ? super V> action) {
+        while (n != null) {
+            forEach(n.left, action);
+            action.accept(n.key, n.value);
+            n = n.right;
+        }
+    }
+
+    private static <K extends Comparable<? super K>, V> void forEachInRange(Node<K, V> n, K from, K to,
+            BiConsumer<? super K, ? super V> action) {
+        while (n != null) {
+            if (n.key.compareTo(from) < 0) {
+                n = n.right;
+            } else if (n.key.compareTo(to) > 0) {
+                n = n.left;
+            } else {
+                forEachInRange(n.left, from, to, action);
+                action.accept(n.key, n.value);
+                n = n.right;
+            }
+        }
+    }
+
+    private static int height(Node<?, ?> n) {
+        return n == null ? 0 : n.height;
+    }
+
+    private static int size(Node<?, ?> n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final Node<K, V> left;
+        final Node<K, V> right;
+        final int height;
+        final int size;
+
+        Node(K key, V value, Node<K, V> left, Node<K, V> right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.calendar.model;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * How often a series repeats: every {@code interval} days, weeks, months or
+ * years, optionally stopping after {@code count} occurrences or on
+ * {@code until} (inclusive). A count of 0 and a null until mean forever.
+ */
+public record RecurrenceRule(Frequency frequency, int interval, int count, LocalDate until) {
+
+    public enum Frequency {
+        DAILY(ChronoUnit.DAYS),
+        WEEKLY(ChronoUnit.WEEKS),
+        MONTHLY(ChronoUnit.MONTHS),
+        YEARLY(ChronoUnit.YEARS);
+
+        final ChronoUnit unit;
+
+        Frequency(ChronoUnit unit) {
+            this.unit = unit;
+        }
+    }
+
+    public RecurrenceRule {
+        if (frequency == null)
+            throw new IllegalArgumentException("Frequency is required");
+        if (interval < 1)
+            throw new IllegalArgumentException("Interval must be at least 1");
+        if (count < 0)
+            throw new IllegalArgumentException("Count must not be negative");
+    }
+
+    public static RecurrenceRule every(Frequency frequency) {
+        return new RecurrenceRule(frequency, 1, 0, null);
+    }
+
+    /** The rule in RFC 5545 RRULE form, e.g. {@code FREQ=WEEKLY;INTERVAL=2;COUNT=10}. */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("FREQ=").append(frequency);
+        if (interval != 1)
+            sb.append(";INTERVAL=").append(interval);
+        if (count > 0)
+            sb.append(";COUNT=").append(count);
+        if (until != null)
+            sb.append(";UNTIL=").append(until.toString().replace("-", ""));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,101 @@
+package com.calendar.model;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * A recurring event, stored once. {@code event} is the shared view every
+ * occurrence is shown as; its id is the series id. {@code exceptions} are
+ * dates the rule would produce but that were deleted.
+ * <p>
+ * Occurrence i falls on {@code start + i * interval} units. For monthly and
+ * yearly rules, candidates that do not exist (the 31st of a 30-day month,
+ * 29 February in other years) are skipped rather than moved, as in RFC 5545;
+ * they still count towards {@code count}.
+ */
+public record Series(Event event, LocalDate start, RecurrenceRule rule, Set<LocalDate> exceptions) {
+
+    public Series {
+        exceptions = Set.copyOf(exceptions);
+    }
+
+    public long id() {
+        return event.getId();
+    }
+
+    /** A copy with {@code date} removed from the series. */
+    public Series withException(LocalDate date) {
+        Set<LocalDate> more = new HashSet<>(exceptions);
+        more.add(date);
+        return new Series(event, start, rule, more);
+    }
+
+    /** The last date the rule could produce, or null if it never ends. */
+    public LocalDate lastDate() {
+        LocalDate last = rule.until();
+        if (rule.count() > 0) {
+            LocalDate byCount = start.plus((long) (rule.count() - 1) * rule.interval(), rule.frequency().unit);
+            last = last == null || byCount.isBefore(last) ? byCount : last;
+        }
+        return last;
+    }
+
+    public boolean occursOn(LocalDate date) {
+        boolean[] found = new boolean[1];
+        forEachOccurrence(date, date, d -> found[0] = true);
+        return found[0];
+    }
+
+    /** The first occurrence on or after {@code from}, or null if the series is over by then. */
+    public LocalDate firstOnOrAfter(LocalDate from) {
+        ChronoUnit unit = rule.frequency().unit;
+        int interval = rule.interval();
+        boolean checkDay = unit == ChronoUnit.MONTHS || unit == ChronoUnit.YEARS;
+        long index = from.isAfter(start) ? unit.between(start, from) / interval : 0;
+        // Exceptions are finite, so an endless series always has a next occurrence
+        for (; rule.count() == 0 || index < rule.count(); index++) {
+            LocalDate date = start.plus(index * interval, unit);
+            if (rule.until() != null && date.isAfter(rule.until()))
+                return null;
+            if (date.isBefore(from))
+                continue;
+            if (checkDay && date.getDayOfMonth() != start.getDayOfMonth())
+                continue;
+            if (!exceptions.contains(date))
+                return date;
+        }
+        return null;
+    }
+
+    /**
+     * Calls {@code action} with every occurrence in {@code [from, to]}, in
+     * order. Jumps straight to the first candidate in range instead of walking
+     * from the start.
+     */
+    public void forEachOccurrence(LocalDate from, LocalDate to, Consumer<LocalDate> action) {
+        if (rule.until() != null && rule.until().isBefore(to))
+            to = rule.until();
+        if (to.isBefore(start) || to.isBefore(from))
+            return;
+
+        ChronoUnit unit = rule.frequency().unit;
+        int interval = rule.interval();
+        boolean checkDay = unit == ChronoUnit.MONTHS || unit == ChronoUnit.YEARS;
+        long index = from.isAfter(start) ? unit.between(start, from) / interval : 0;
+        for (; rule.count() == 0 || index < rule.count(); index++) {
+            LocalDate date = start.plus(index * interval, unit);
+            if (date.isAfter(to))
+                break;
+            if (date.isBefore(from))
+                continue;
+            if (checkDay && date.getDayOfMonth() != start.getDayOfMonth())
+                continue; // Clamped by plusMonths: that day does not exist this period
+            if (exceptions.contains(date))
+                continue;
+            action.accept(date);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.calendar.model;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * One immutable version of an {@link EventStore}.
+ * <p>
+ * Safe to read from any thread without locking, and never changes: a render
+ * that reads several things from one snapshot sees them consistently even
+ * while writers move the store on. A new version shares everything but the
+ * changed day's list and its path through the tree with the one before, so
+ * publishing one is cheap.
+ * <p>
+ * Occurrences of recurring events are expanded per month on demand and cached
+ * (LRU-bounded); versions with the same series share that cache.
+ */
+public final class StoreSnapshot {
+
+    static final StoreSnapshot EMPTY = new StoreSnapshot(0, ListDayTable.EMPTY, 0, Recurrences.NONE);
+
+    private static final int CACHED_MONTHS = 36;
+
+    /**
+     * An empty version whose events are kept packed rather than as objects;
+     * see {@link EventStore#compact()}.
+     */
+    static StoreSnapshot emptyCompact() {
+        return new StoreSnapshot(0, CompactDayTable.empty(), 0, Recurrences.NONE);
+    }
+
+    private final long version;
+    private final DayTable days;
+    private final int size;
+    private final Recurrences recurrences;
+
+    private StoreSnapshot(long version, DayTable days, int size, Recurrences recurrences) {
+        this.version = version;
+        this.days = days;
+        this.size = size;
+        this.recurrences = recurrences;
+    }
+
+    /** Increases by one with every change to the store. */
+    public long version() {
+        return version;
+    }
+
+    /** Events on the given day, including series occurrences, sorted by start time. */
+    public List<Event> eventsOn(LocalDate date) {
+        List<Event> singles = days.get(date);
+        if (singles == null)
+            singles = Collections.emptyList();
+        if (recurrences.isEmpty())
+            return singles;
+
+        List<Event> occurrences = recurrences.expansion(YearMonth.from(date)).on(date.getDayOfMonth());
+        if (occurrences.isEmpty())
+            return singles;
+        if (singles.isEmpty())
+            return occurrences;
+        List<Event> merged = new ArrayList<>(singles.size() + occurrences.size());
+        merged.addAll(singles);
+        merged.addAll(occurrences);
+        merged.sort(Event.BY_START_TIME); // Stable: one-offs stay ahead of occurrences at the same time
+        return Collections.unmodifiableList(merged);
+    }
+
+    public int countOn(LocalDate date) {
+        int count = days.countOn(date);
+        if (!recurrences.isEmpty())
+            count += recurrences.expansion(YearMonth.from(date)).counts[date.getDayOfMonth() - 1];
+        return count;
+    }
+
+    /**
+     * All non-empty days in {@code [from, to]}, inclusive on both ends, in date
+     * order, including series occurrences.
+     */
+    public NavigableMap<LocalDate, List<Event>> eventsBetween(LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, List<Event>> singles = storedEventsBetween(from, to);
+        if (recurrences.isEmpty())
+            return singles;
+
+        // Expand directly rather than through the month cache, which long ranges would just churn
+        TreeMap<LocalDate, List<Event>> merged = new TreeMap<>(singles);
+        Map<LocalDate, List<Event>> touched = new HashMap<>();
+        recurrences.byId.forEach((id, s) -> s.forEachOccurrence(from, to,
+                date -> touched.computeIfAbsent(date, d -> {
+                    List<Event> copy = new ArrayList<>(merged.getOrDefault(d, Collections.emptyList()));
+                    merged.put(d, copy);
+                    return copy;
+                }).add(s.event())));
+        for (List<Event> dayEvents : touched.values()) {
+            dayEvents.sort(Event.BY_START_TIME);
+        }
+        return Collections.unmodifiableNavigableMap(merged);
+    }
+
+    /** One-off events only, as stored, without expanding any series. Used for persistence. */
+    public NavigableMap<LocalDate, List<Event>> storedEventsBetween(LocalDate from, LocalDate to) {
+        // Only the day entries are copied; the lists themselves are shared
+        TreeMap<LocalDate, List<Event>> range = new TreeMap<>();
+        days.forEachInRange(from, to, range::put);
+        return Collections.unmodifiableNavigableMap(range);
+    }
+
+    /** Per-day event counts for a month, including occurrences; index 0 is the 1st. */
+    public int[] countsFor(YearMonth month) {
+        int[] counts = new int[month.lengthOfMonth()];
+        days.countsInto(month, counts);
+        if (!recurrences.isEmpty()) {
+            int[] occurrences = recurrences.expansion(month).counts;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += occurrences[i];
+            }
+        }
+        return counts;
+    }
+
+    /** The series {@code event} is an occurrence of, or null for a one-off event. */
+    public Series seriesOf(Event event) {
+        Series s = recurrences.byId.get(event.getId());
+        return s != null && s.event().equals(event) ? s : null;
+    }
+
+    /** The one-off event with {@code id} on {@code date}, or null; cheaper than searching {@link #eventsOn}. */
+    public Event eventOn(LocalDate date, long id) {
+        return days.find(date, id);
+    }
+
+    Series series(long id) {
+        return recurrences.byId.get(id);
+    }
+
+    /** Every series, in id order. */
+    public Collection<Series> allSeries() {
+        List<Series> all = new ArrayList<>(recurrences.byId.size());
+        recurrences.byId.forEach((id, s) -> all.add(s));
+        return Collections.unmodifiableList(all);
+    }
+
+    /** Number of one-off events; a series counts once in {@link #seriesCount()}. */
+    public int size() {
+        return size;
+    }
+
+    public int seriesCount() {
+        return recurrences.byId.size();
+    }
+
+    public boolean isEmpty() {
+        return size == 0 && recurrences.isEmpty();
+    }
+
+    // Producing the next version; only EventStore does this, under its write lock
+
+    List<Event> storedOn(LocalDate date) {
+        return days.get(date);
+    }
+
+    /** {@code dayEvents} replaces the day (null or empty removes it) and must not be changed afterwards. */
+    StoreSnapshot withDay(LocalDate date, List<Event> dayEvents) {
+        return withDays(Collections.singletonMap(date, dayEvents));
+    }
+
+    /** {@link #withDay} for several days at once, as one version. */
+    StoreSnapshot withDays(Map<LocalDate, List<Event>> changed) {
+        int newSize = size;
+        for (Map.Entry<LocalDate, List<Event>> day : changed.entrySet()) {
+            newSize -= days.countOn(day.getKey());
+            if (day.getValue() != null)
+                newSize += day.getValue().size();
+        }
+        return new StoreSnapshot(version + 1, days.with(changed), newSize, recurrences);
+    }
+
+    StoreSnapshot withSeries(Series previous, Series current) {
+        return new StoreSnapshot(version + 1, days, size, recurrences.with(previous, current));
+    }
+
+    /** As {@link #withSeries(Series, Series)} for each pair, as one version; {@code current} are all non-null. */
+    StoreSnapshot withAllSeries(List<Series> previous, List<Series> current) {
+        return new StoreSnapshot(version + 1, days, size, recurrences.withAll(previous, current));
+    }
+
+    /** The series of a snapshot, with the month expansions cached for them. */
+    private static final class Recurrences {
+
+        static final Recurrences NONE = new Recurrences(PersistentTreeMap.empty());
+
+        final PersistentTreeMap<Long, Series> byId;
+        // Guarded by itself; expansions are deterministic, so racing readers at worst compute one twice
+        private final Map<YearMonth, MonthExpansion> expansions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<YearMonth, MonthExpansion> eldest) {
+                return size() > CACHED_MONTHS;
+            }
+        };
+
+        Recurrences(PersistentTreeMap<Long, Series> byId) {
+            this.byId = byId;
+        }
+
+        boolean isEmpty() {
+            return byId.isEmpty();
+        }
+
+        // Carries over the cached months neither version of the series could produce occurrences in
+        Recurrences with(Series previous, Series current) {
+            PersistentTreeMap<Long, Series> newById = current != null ? byId.put(current.id(), current)
+                    : byId.remove(previous.id());
+            Recurrences next = new Recurrences(newById);
+            synchronized (expansions) {
+                expansions.forEach((month, expansion) -> {
+                    if (!covers(previous, month) && !covers(current, month))
+                        next.expansions.put(month, expansion);
+                });
+            }
+            return next;
+        }
+
+        Recurrences withAll(List<Series> previous, List<Series> current) {
+            PersistentTreeMap<Long, Series> newById = byId;
+            for (Series s : current) {
+                newById = newById.put(s.id(), s);
+            }
+            Recurrences next = new Recurrences(newById);
+            synchronized (expansions) {
+                expansions.forEach((month, expansion) -> {
+                    for (int i = 0; i < current.size(); i++) {
+                        if (covers(previous.get(i), month) || covers(current.get(i), month))
+                            return;
+                    }
+                    next.expansions.put(month, expansion);
+                });
+            }
+            return next;
+        }
+
+        MonthExpansion expansion(YearMonth month) {
+            synchronized (expansions) {
+                MonthExpansion cached = expansions.get(month);
+                if (cached != null)
+                    return cached;
+            }
+            MonthExpansion computed = new MonthExpansion(month, byId);
+            synchronized (expansions) {
+                expansions.put(month, computed);
+            }
+            return computed;
+        }
+
+        private static boolean covers(Series s, YearMonth month) {
+            if (s == null || month.isBefore(YearMonth.from(s.start())))
+                return false;
+            LocalDate last = s.lastDate();
+            return last == null || !month.isAfter(YearMonth.from(last));
+        }
+    }
+
+    /** Occurrences of every series within one month, per day. */
+    private static final class MonthExpansion {
+
+        final int[] counts;
+        private final List<Event>[] byDay;
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        MonthExpansion(YearMonth month, PersistentTreeMap<Long, Series> all) {
+            int length = month.lengthOfMonth();
+            counts = new int[length];
+            byDay = new List[length];
+            LocalDate from = month.atDay(1);
+            LocalDate to = month.atEndOfMonth();
+            all.forEach((id, s) -> s.forEachOccurrence(from, to, date -> {
+                int i = date.getDayOfMonth() - 1;
+                if (byDay[i] == null)
+                    byDay[i] = new ArrayList<>(2);
+                byDay[i].add(s.event());
+                counts[i]++;
+            }));
+            for (int i = 0; i < length; i++) {
+                if (byDay[i] != null) {
+                    byDay[i].sort(Event.BY_START_TIME);
+                    byDay[i] = Collections.unmodifiableList(byDay[i]);
+                }
+            }
+        }
+
+        List<Event> on(int dayOfMonth) {
+            List<Event> events = byDay[dayOfMonth - 1];
+            return events == null ? Collections.emptyList() : events;
+        }
+    }
+}
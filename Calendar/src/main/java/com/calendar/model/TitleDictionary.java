@@ -0,0 +1,37 @@
+package com.calendar.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The distinct titles of a compact store, each stored once and referred to by
+ * a small int. Append-only, so every snapshot of the store can share it:
+ * an id a snapshot refers to was assigned before that snapshot was published.
+ */
+final class TitleDictionary {
+
+    // Only touched by the store's writer, under its write lock
+    private final Map<String, Integer> ids = new HashMap<>();
+    private int size;
+    // Replaced, never shrunk; volatile so readers that see a grown array see its contents
+    private volatile String[] titles = new String[64];
+
+    /** The id of {@code title}, adding it if it is new. Writer only. */
+    int idOf(String title) {
+        Integer id = ids.get(title);
+        if (id != null)
+            return id;
+        String[] current = titles;
+        if (size == current.length)
+            current = Arrays.copyOf(current, size * 2);
+        current[size] = title;
+        titles = current;
+        ids.put(title, size);
+        return size++;
+    }
+
+    String title(int id) {
+        return titles[id];
+    }
+}
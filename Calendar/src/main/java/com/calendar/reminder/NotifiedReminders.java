@@ -0,0 +1,124 @@
+package com.calendar.reminder;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Which reminders have already gone off, so none fires twice.
+ * <p>
+ * Keyed by occurrence, i.e. event id, day and lead time, rather than by event
+ * object, so an edited or re-created event (undo, sync, a changed series)
+ * is still recognised. The due time is kept too: moving an event to a
+ * different time of day makes its reminder due again.
+ * <p>
+ * An entry is only needed until its reminder could no longer fire anyway,
+ * i.e. until it is older than the catch-up window, and is dropped after that,
+ * so the state stays as small as the last hour or so of reminders. It is
+ * saved to a small text file ({@code id date leadMinutes dueEpochSecond} per
+ * line) so a restart does not replay what was already shown.
+ */
+public final class NotifiedReminders {
+
+    private static final System.Logger LOG = System.getLogger(NotifiedReminders.class.getName());
+
+    private record Key(long id, LocalDate date, long leadMinutes) {
+    }
+
+    private final Path file; // Null to keep the state in memory only
+    // Guarded by this
+    private final Map<Key, Instant> notified = new HashMap<>();
+    private boolean dirty;
+
+    private NotifiedReminders(Path file) {
+        this.file = file;
+    }
+
+    /** State that is not saved, e.g. when the data directory is unusable. */
+    public static NotifiedReminders inMemory() {
+        return new NotifiedReminders(null);
+    }
+
+    /** Loads the state saved in {@code file}, if any. An unreadable file just means starting empty. */
+    public static NotifiedReminders open(Path file) {
+        NotifiedReminders state = new NotifiedReminders(file);
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] parts = line.trim().split(" ");
+                if (parts.length != 4)
+                    continue;
+                try {
+                    state.notified.put(new Key(Long.parseLong(parts[0]), LocalDate.parse(parts[1]),
+                            Long.parseLong(parts[2])), Instant.ofEpochSecond(Long.parseLong(parts[3])));
+                } catch (RuntimeException e) {
+                    // Skip the odd bad line
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // First run
+        } catch (IOException e) {
+            LOG.log(System.Logger.Level.WARNING, "Could not read " + file + ", starting without it", e);
+        }
+        return state;
+    }
+
+    /** Whether {@code reminder} has gone off already, at the same due time. */
+    synchronized boolean contains(ReminderScheduler.Reminder reminder) {
+        return reminder.due().equals(notified.get(key(reminder)));
+    }
+
+    /** Marks {@code reminder} as gone off; {@link #save()} persists it. */
+    synchronized void add(ReminderScheduler.Reminder reminder) {
+        notified.put(key(reminder), reminder.due());
+        dirty = true;
+    }
+
+    /** Forgets reminders due before {@code cutoff}. */
+    synchronized void expire(Instant cutoff) {
+        if (notified.values().removeIf(due -> due.isBefore(cutoff)))
+            dirty = true;
+    }
+
+    /** Writes the state out if it changed, replacing the file atomically. Call from one thread only. */
+    void save() {
+        if (file == null)
+            return;
+        Map<Key, Instant> copy;
+        synchronized (this) {
+            if (!dirty)
+                return;
+            copy = new HashMap<>(notified);
+            dirty = false;
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<Key, Instant> e : copy.entrySet()) {
+                    Key k = e.getKey();
+                    out.write(k.id() + " " + k.date() + " " + k.leadMinutes() + " " + e.getValue().getEpochSecond());
+                    out.newLine();
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.log(System.Logger.Level.WARNING, "Could not save " + file, e);
+            synchronized (this) {
+                dirty = true; // Try again next time
+            }
+        }
+    }
+
+    private static Key key(ReminderScheduler.Reminder reminder) {
+        return new Key(reminder.event().getId(), reminder.date(), reminder.leadTime().toMinutes());
+    }
+}
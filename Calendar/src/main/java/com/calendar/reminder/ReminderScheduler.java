@@ -0,0 +1,263 @@
+package com.calendar.reminder;
+
+import com.calendar.model.Event;
+import com.calendar.model.EventStore;
+import com.calendar.model.EventTime;
+import com.calendar.model.Series;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Fires event reminders at their exact instant instead of polling.
+ * <p>
+ * Upcoming reminders for today and tomorrow sit in a priority queue ordered by
+ * due time, and a single thread sleeps until the head is due. Adding or
+ * deleting an event updates the queue and wakes the thread, so it always
+ * sleeps towards the right deadline. With an empty queue it just waits for the
+ * next midnight, when the window moves on by a day.
+ * <p>
+ * Sleeps are capped at a minute while reminders are pending, so a suspend or
+ * a wall-clock jump is noticed quickly. Reminders that became overdue that way
+ * still fire if they are within the catch-up window; older ones are dropped.
+ * The same goes for reminders that came due while the app was closed: at
+ * launch, those within the window fire straight away, unless
+ * {@link NotifiedReminders} says they were shown before the restart.
+ * <p>
+ * The store is only ever read on {@code storeThread}; the sink is called on
+ * the scheduler's own thread.
+ */
+public final class ReminderScheduler implements EventStore.Listener, AutoCloseable {
+
+    private static final System.Logger LOG = System.getLogger(ReminderScheduler.class.getName());
+    private static final long MAX_SLEEP_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    /** One reminder for one event, {@code leadTime} ahead of its start. */
+    public record Reminder(LocalDate date, Event event, Duration leadTime, Instant due) {
+    }
+
+    private final EventStore store;
+    private final List<Duration> leadTimes;
+    private final Duration catchUpWindow;
+    private final NotifiedReminders notified;
+    private final Executor storeThread;
+    private final Consumer<Reminder> sink;
+    private final Clock clock;
+    private final ZoneId zone;
+    private final Thread thread;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final PriorityQueue<Reminder> queue = new PriorityQueue<>(Comparator.comparing(Reminder::due));
+    // Guarded by lock
+    private LocalDate horizonStart;
+    private Instant nextRefill;
+    private boolean refillPending;
+    private boolean running = true;
+
+    public ReminderScheduler(EventStore store, List<Duration> leadTimes, Duration catchUpWindow,
+            NotifiedReminders notified, Executor storeThread, Consumer<Reminder> sink, Clock clock) {
+        this.store = store;
+        this.leadTimes = List.copyOf(leadTimes);
+        this.catchUpWindow = catchUpWindow;
+        this.notified = notified;
+        this.storeThread = storeThread;
+        this.sink = sink;
+        this.clock = clock;
+        this.zone = clock.getZone();
+        this.thread = new Thread(this::run, "calendar-reminders");
+        thread.setDaemon(true);
+    }
+
+    /** Loads today's and tomorrow's reminders and starts the thread. Call on the store thread. */
+    public void start() {
+        refill();
+        store.addListener(this);
+        thread.start();
+    }
+
+    @Override
+    public void close() {
+        store.removeListener(this);
+        lock.lock();
+        try {
+            running = false;
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Number of reminders waiting to fire. */
+    public int pendingCount() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void eventAdded(LocalDate date, Event event) {
+        List<Reminder> fresh = new ArrayList<>();
+        lock.lock();
+        try {
+            if (horizonStart == null || date.isBefore(horizonStart) || date.isAfter(horizonStart.plusDays(1)))
+                return;
+            collect(date, event, clock.instant(), false, fresh);
+            if (!fresh.isEmpty()) {
+                queue.addAll(fresh);
+                changed.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void eventRemoved(LocalDate date, Event event) {
+        lock.lock();
+        try {
+            // No need to wake the thread: at worst it wakes up early and goes back to sleep
+            queue.removeIf(r -> r.event().equals(event));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void seriesChanged(Series previous, Series current) {
+        List<Reminder> fresh = new ArrayList<>();
+        lock.lock();
+        try {
+            if (previous != null)
+                queue.removeIf(r -> r.event().equals(previous.event()));
+            if (current != null && horizonStart != null) {
+                Instant now = clock.instant();
+                current.forEachOccurrence(horizonStart, horizonStart.plusDays(1),
+                        date -> collect(date, current.event(), now, false, fresh));
+                queue.addAll(fresh);
+            }
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Rebuilds the queue for the new today/tomorrow window; runs on the store thread
+    private void refill() {
+        LocalDate today = LocalDate.now(clock);
+        Instant now = clock.instant();
+        List<Reminder> fresh = new ArrayList<>();
+        for (LocalDate date = today; !date.isAfter(today.plusDays(1)); date = date.plusDays(1)) {
+            for (Event event : store.eventsOn(date)) {
+                collect(date, event, now, true, fresh);
+            }
+        }
+
+        lock.lock();
+        try {
+            // Marked under this lock when they fire, so one going off right now is not queued again
+            fresh.removeIf(notified::contains);
+            notified.expire(now.minus(catchUpWindow));
+            // Keep stragglers from before the window, e.g. overdue after a suspend across midnight
+            queue.removeIf(r -> !r.date().isBefore(today));
+            queue.addAll(fresh);
+            horizonStart = today;
+            nextRefill = today.plusDays(1).atStartOfDay(zone).toInstant();
+            refillPending = false;
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void collect(LocalDate date, Event event, Instant now, boolean catchUp, List<Reminder> out) {
+        EventTime time = event.getTime();
+        if (time.isAllDay())
+            return; // Nothing to remind about
+
+        int start = time.getStartMinute();
+        Instant startsAt = date.atTime(start / 60, start % 60).atZone(zone).toInstant();
+        for (Duration lead : leadTimes) {
+            Instant due = startsAt.minus(lead);
+            // Already past when an event is added: not a missed reminder, just skip it. On a refill it
+            // may have been missed while the app was closed, and catches up like one missed in a suspend.
+            if (due.isBefore(now) && (!catchUp || due.isBefore(now.minus(catchUpWindow))))
+                continue;
+            Reminder reminder = new Reminder(date, event, lead, due);
+            if (!notified.contains(reminder))
+                out.add(reminder);
+        }
+    }
+
+    private void run() {
+        List<Reminder> due = new ArrayList<>();
+        while (true) {
+            boolean needRefill = false;
+            Instant now;
+            lock.lock();
+            try {
+                while (true) {
+                    if (!running)
+                        return;
+                    now = clock.instant();
+                    if (!refillPending && !now.isBefore(nextRefill)) {
+                        refillPending = true;
+                        needRefill = true;
+                    }
+                    while (!queue.isEmpty() && !queue.peek().due().isAfter(now)) {
+                        Reminder r = queue.poll();
+                        notified.add(r);
+                        due.add(r);
+                    }
+                    if (needRefill || !due.isEmpty())
+                        break;
+
+                    Reminder head = queue.peek();
+                    if (head == null && refillPending) {
+                        changed.await();
+                    } else if (head == null) {
+                        changed.awaitNanos(Duration.between(now, nextRefill).toNanos());
+                    } else {
+                        Instant deadline = refillPending || head.due().isBefore(nextRefill) ? head.due() : nextRefill;
+                        changed.awaitNanos(Math.min(Duration.between(now, deadline).toNanos(), MAX_SLEEP_NANOS));
+                    }
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            if (needRefill)
+                storeThread.execute(this::refill);
+            for (Reminder r : due) {
+                if (Duration.between(r.due(), now).compareTo(catchUpWindow) <= 0) {
+                    sink.accept(r);
+                } else {
+                    LOG.log(System.Logger.Level.INFO, "Dropping reminder for \"{0}\", overdue since {1}",
+                            r.event().getTitle(), r.due());
+                }
+            }
+            if (!due.isEmpty()) {
+                notified.expire(now.minus(catchUpWindow));
+                notified.save();
+            }
+            due.clear();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.calendar.schedule;
+
+import com.calendar.model.Event;
+import com.calendar.model.EventTime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Where a day's timed events go when drawn side by side on a timeline.
+ * <p>
+ * Events that overlap, directly or through others, form a cluster and split
+ * its width into columns; each event takes the leftmost column that is free
+ * at its start. One pass over the day in start order, as the store keeps it.
+ * Every event is laid out at least {@code minMinutes} long, so short ones
+ * and ones without an end stay big enough to see and click, and do not get
+ * drawn over. All-day events are kept apart for a separate strip.
+ * <p>
+ * Immutable, and safe to share between threads.
+ */
+public final class DayLayout {
+
+    private final Event[] events;
+    private final int[] starts;
+    private final int[] ends; // Exclusive, after applying the minimum length
+    private final int[] columns;
+    private final int[] columnCounts; // Of the event's cluster
+    private final List<Event> allDay;
+
+    private DayLayout(Event[] events, int[] starts, int[] ends, int[] columns, int[] columnCounts,
+            List<Event> allDay) {
+        this.events = events;
+        this.starts = starts;
+        this.ends = ends;
+        this.columns = columns;
+        this.columnCounts = columnCounts;
+        this.allDay = allDay;
+    }
+
+    /** Lays out a day's events, sorted by start time as {@code EventStore} returns them. */
+    public static DayLayout of(List<Event> sortedDay, int minMinutes) {
+        List<Event> allDay = new ArrayList<>();
+        Event[] events = new Event[sortedDay.size()];
+        int[] starts = new int[events.length];
+        int[] ends = new int[events.length];
+        int n = 0;
+        for (Event e : sortedDay) {
+            EventTime time = e.getTime();
+            if (time.isAllDay()) {
+                allDay.add(e);
+                continue;
+            }
+            events[n] = e;
+            starts[n] = time.getStartMinute();
+            ends[n] = Math.min(DaySchedule.DAY_MINUTES,
+                    Math.max(DaySchedule.end(time), time.getStartMinute() + minMinutes));
+            n++;
+        }
+
+        int[] columns = new int[n];
+        int[] columnCounts = new int[n];
+        int[] columnEnds = new int[8];
+        int used = 0; // Columns of the current cluster
+        int clusterStart = 0;
+        int clusterEnd = 0;
+        for (int i = 0; i < n; i++) {
+            if (starts[i] >= clusterEnd) {
+                // Nothing so far reaches this event, so the cluster before it is complete
+                Arrays.fill(columnCounts, clusterStart, i, used);
+                clusterStart = i;
+                used = 0;
+            }
+            int c = 0;
+            while (c < used && columnEnds[c] > starts[i]) {
+                c++;
+            }
+            if (c == used) {
+                if (used == columnEnds.length)
+                    columnEnds = Arrays.copyOf(columnEnds, used * 2);
+                used++;
+            }
+            columnEnds[c] = ends[i];
+            columns[i] = c;
+            clusterEnd = Math.max(clusterEnd, ends[i]);
+        }
+        Arrays.fill(columnCounts, clusterStart, n, used);
+        return new DayLayout(Arrays.copyOf(events, n), Arrays.copyOf(starts, n), Arrays.copyOf(ends, n), columns,
+                columnCounts, Collections.unmodifiableList(allDay));
+    }
+
+    /** Timed events laid out. */
+    public int size() {
+        return events.length;
+    }
+
+    public Event event(int i) {
+        return events[i];
+    }
+
+    public int start(int i) {
+        return starts[i];
+    }
+
+    /** Exclusive end minute as laid out, i.e. at least the minimum length after the start. */
+    public int end(int i) {
+        return ends[i];
+    }
+
+    /** The event's column within its cluster, 0 being leftmost. */
+    public int column(int i) {
+        return columns[i];
+    }
+
+    /** How many columns the event's cluster is split into. */
+    public int columnCount(int i) {
+        return columnCounts[i];
+    }
+
+    public List<Event> allDay() {
+        return allDay;
+    }
+}
@@ -0,0 +1,159 @@
+package com.calendar.schedule;
+
+import com.calendar.model.Event;
+import com.calendar.model.EventTime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Interval index over one day's timed events.
+ * <p>
+ * The store keeps a day sorted by start, so the index is just parallel arrays
+ * of start and end minutes plus a running maximum of the ends. An overlap
+ * query binary-searches past the events that start too late and walks back
+ * only while the running maximum says something earlier could still reach
+ * in, so it costs O(log n) plus roughly the events it reports.
+ * <p>
+ * Ends are exclusive, so back-to-back events do not overlap. An event without
+ * an end only takes up its start minute; all-day events take up no time.
+ * Immutable, and safe to share between threads.
+ */
+public final class DaySchedule {
+
+    /** Minutes in a day, the exclusive end of the last possible slot. */
+    public static final int DAY_MINUTES = 24 * 60;
+
+    private final Event[] events;
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] maxEnds; // maxEnds[i] = max(ends[0..i])
+    private volatile Set<Event> conflicts; // Found on first use; the same set whoever gets there first
+
+    private DaySchedule(Event[] events, int[] starts, int[] ends, int[] maxEnds) {
+        this.events = events;
+        this.starts = starts;
+        this.ends = ends;
+        this.maxEnds = maxEnds;
+    }
+
+    /** Indexes a day's events, sorted by start time as {@code EventStore} returns them. */
+    public static DaySchedule of(List<Event> sortedDay) {
+        int n = 0;
+        for (Event e : sortedDay) {
+            if (!e.getTime().isAllDay())
+                n++;
+        }
+        Event[] events = new Event[n];
+        int[] starts = new int[n];
+        int[] ends = new int[n];
+        int[] maxEnds = new int[n];
+        int i = 0;
+        int maxEnd = 0;
+        for (Event e : sortedDay) {
+            EventTime time = e.getTime();
+            if (time.isAllDay())
+                continue; // Sorted last anyway
+            events[i] = e;
+            starts[i] = time.getStartMinute();
+            ends[i] = end(time);
+            maxEnd = Math.max(maxEnd, ends[i]);
+            maxEnds[i] = maxEnd;
+            i++;
+        }
+        return new DaySchedule(events, starts, ends, maxEnds);
+    }
+
+    /** Exclusive end minute of a timed {@code time}. */
+    static int end(EventTime time) {
+        return time.hasEnd() ? time.getEndMinute() : time.getStartMinute() + 1;
+    }
+
+    /** Timed events in the index. */
+    public int size() {
+        return events.length;
+    }
+
+    /** Events overlapping {@code [start, end)} minutes, in start order. */
+    public List<Event> overlapping(int start, int end) {
+        List<Event> found = new ArrayList<>();
+        for (int i = lowerBound(end) - 1; i >= 0 && maxEnds[i] > start; i--) {
+            if (ends[i] > start)
+                found.add(events[i]);
+        }
+        Collections.reverse(found);
+        return found;
+    }
+
+    public boolean isFree(int start, int end) {
+        for (int i = lowerBound(end) - 1; i >= 0 && maxEnds[i] > start; i--) {
+            if (ends[i] > start)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * The earliest start at or after {@code from} of a free stretch of
+     * {@code length} minutes ending by {@code to}, or -1 if there is none.
+     */
+    public int firstFree(int from, int to, int length) {
+        // Events whose running maximum end is still <= from are all over by then
+        int lo = 0;
+        int hi = maxEnds.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (maxEnds[mid] <= from)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        int t = from;
+        for (int i = lo; i < starts.length && t + length <= to; i++) {
+            if (starts[i] >= t + length)
+                return t;
+            t = Math.max(t, ends[i]);
+        }
+        return t + length <= to ? t : -1;
+    }
+
+    /** Events that overlap at least one other event of the day. */
+    public Set<Event> conflicts() {
+        Set<Event> found = conflicts;
+        if (found == null) {
+            found = findConflicts();
+            conflicts = found;
+        }
+        return found;
+    }
+
+    private Set<Event> findConflicts() {
+        if (events.length < 2)
+            return Collections.emptySet();
+        Set<Event> found = new HashSet<>();
+        for (int i = 0; i < events.length; i++) {
+            // Sorted by start: i overlaps something earlier if it starts before the earlier ends run out,
+            // and something later exactly if the very next one starts before i ends
+            if ((i > 0 && starts[i] < maxEnds[i - 1]) || (i + 1 < events.length && starts[i + 1] < ends[i]))
+                found.add(events[i]);
+        }
+        return Collections.unmodifiableSet(found);
+    }
+
+    // First index whose start is >= minute
+    private int lowerBound(int minute) {
+        int lo = 0;
+        int hi = starts.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] < minute)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,83 @@
+package com.calendar.schedule;
+
+import com.calendar.model.Event;
+import com.calendar.model.EventTime;
+import com.calendar.model.StoreSnapshot;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conflict and free-time questions over one version of the store.
+ * <p>
+ * Each day is indexed as a {@link DaySchedule} the first time it is asked
+ * about, occurrences of repeating events included, and kept for the life of
+ * this object; the snapshot never changes, so neither do they. A week is just
+ * its seven days. Meant for one thread, e.g. a dialog asking on every
+ * keystroke.
+ */
+public final class Schedule {
+
+    /** A free stretch of time on one day. */
+    public record Slot(LocalDate date, int startMinute, int endMinute) {
+        /** As an event time; a slot running to midnight ends at 23:59. */
+        public EventTime time() {
+            return EventTime.of(startMinute, Math.min(endMinute, DaySchedule.DAY_MINUTES - 1));
+        }
+    }
+
+    private final StoreSnapshot snapshot;
+    private final Map<LocalDate, DaySchedule> days = new HashMap<>();
+
+    public Schedule(StoreSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public DaySchedule day(LocalDate date) {
+        return days.computeIfAbsent(date, d -> DaySchedule.of(snapshot.eventsOn(d)));
+    }
+
+    /** Events on {@code date} that {@code time} would overlap; none for an all-day time. */
+    public List<Event> conflictsWith(LocalDate date, EventTime time) {
+        if (time.isAllDay())
+            return Collections.emptyList();
+        return day(date).overlapping(time.getStartMinute(), DaySchedule.end(time));
+    }
+
+    /**
+     * Up to {@code limit} free slots of {@code length} minutes between
+     * {@code from} and {@code to} (inclusive), earliest first, each within the
+     * daily window {@code [windowStart, windowEnd)} minutes and none starting
+     * before {@code notBefore}. Slots on the same day follow each other back
+     * to back.
+     */
+    public List<Slot> freeSlots(LocalDate from, LocalDate to, int length, int windowStart, int windowEnd,
+            LocalDateTime notBefore, int limit) {
+        if (length <= 0 || limit <= 0)
+            throw new IllegalArgumentException("length and limit must be positive");
+        List<Slot> slots = new ArrayList<>(limit);
+        LocalDate first = from.isBefore(notBefore.toLocalDate()) ? notBefore.toLocalDate() : from;
+        for (LocalDate date = first; !date.isAfter(to) && slots.size() < limit; date = date.plusDays(1)) {
+            int start = windowStart;
+            if (date.equals(notBefore.toLocalDate())) {
+                // Round up to the next quarter hour so suggestions look like times people pick
+                int now = notBefore.getHour() * 60 + notBefore.getMinute();
+                start = Math.max(start, (now + 14) / 15 * 15);
+            }
+            DaySchedule day = day(date);
+            while (slots.size() < limit) {
+                int t = day.firstFree(start, windowEnd, length);
+                if (t < 0)
+                    break;
+                slots.add(new Slot(date, t, t + length));
+                start = t + length;
+            }
+        }
+        return slots;
+    }
+}
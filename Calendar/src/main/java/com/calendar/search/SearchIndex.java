@@ -0,0 +1,588 @@
+package com.calendar.search;
+
+import com.calendar.model.DatedEvent;
+import com.calendar.model.Event;
+import com.calendar.model.EventStore;
+import com.calendar.model.Series;
+import com.calendar.model.StoreSnapshot;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over event titles for the search box.
+ * <p>
+ * Titles are normalized (lower case, punctuation folded to spaces) and
+ * deduplicated, so a title shared by thousands of events is indexed once.
+ * Every word of a title contributes its character trigrams plus a start-of-word
+ * marker gram, and each gram maps to a sorted posting list of title ids.
+ * A query is split into the same grams and titles are scored by how many they
+ * share: short queries must match all of them, which gives prefix matching,
+ * longer ones only about half, which tolerates a typo or two.
+ * <p>
+ * The index follows the store as a listener, so adds and deletes update it
+ * incrementally. It keeps event ids and days rather than the events
+ * themselves, and looks hits up in the store, so it holds on to no events a
+ * compact store would otherwise not keep as objects. Listener calls come from whichever thread writes to the store
+ * and take a write lock; {@link #search} may run on any thread.
+ */
+public final class SearchIndex implements EventStore.Listener {
+
+    /** One matching occurrence. */
+    public record Hit(LocalDate date, Event event) {
+    }
+
+    private static final char WORD_START = '\u0002';
+    private static final char WORD_END = '\u0003';
+    private static final int MAX_LENGTH = (1 << 21) - 1;
+
+    private final EventStore store;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private final Map<String, Title> byText = new HashMap<>();
+    private final List<Title> titles = new ArrayList<>();
+    // Per title id, so ranking never has to leave primitive arrays
+    private int[] titleLengths = new int[1024];
+    private int[] liveCounts = new int[1024];
+    private final GramTable postings = new GramTable();
+    private int eventCount;
+    // Shared gram counts per title id for the next query, all zero; a query running alongside makes its own
+    private final AtomicReference<int[]> scratch = new AtomicReference<>(new int[0]);
+
+    private SearchIndex(EventStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Indexes everything already in {@code store} and starts following it.
+     * Writes made meanwhile wait for the index, so none are missed; best done
+     * before the store gets busy, e.g. while loading.
+     */
+    public static SearchIndex attach(EventStore store) {
+        SearchIndex index = new SearchIndex(store);
+        index.lock.writeLock().lock();
+        try {
+            StoreSnapshot snapshot = store.addListener(index);
+            snapshot.storedEventsBetween(LocalDate.MIN, LocalDate.MAX).forEach((date, dayEvents) -> {
+                for (Event e : dayEvents) {
+                    index.add(date, e);
+                }
+            });
+            index.eventCount = snapshot.size();
+            for (Series s : snapshot.allSeries()) {
+                index.addSeries(s);
+            }
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+        return index;
+    }
+
+    @Override
+    public void eventAdded(LocalDate date, Event event) {
+        lock.writeLock().lock();
+        try {
+            add(date, event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void eventsAdded(List<DatedEvent> added) {
+        lock.writeLock().lock();
+        try {
+            for (DatedEvent e : added) {
+                add(e.date(), e.event());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void eventRemoved(LocalDate date, Event event) {
+        lock.writeLock().lock();
+        try {
+            Title title = find(event.getTitle());
+            if (title != null && title.remove(event.getId(), (int) date.toEpochDay())) {
+                liveCounts[title.id]--;
+                eventCount--;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void eventsRemoved(List<DatedEvent> removed) {
+        // Grouped by title so each title's list is filtered once, not searched once per event
+        Map<String, Map<Long, Integer>> byTitle = new HashMap<>();
+        for (DatedEvent e : removed) {
+            byTitle.computeIfAbsent(e.event().getTitle(), t -> new HashMap<>())
+                    .put(e.event().getId(), (int) e.date().toEpochDay());
+        }
+        lock.writeLock().lock();
+        try {
+            byTitle.forEach((text, gone) -> {
+                Title title = find(text);
+                if (title != null) {
+                    int count = title.removeAll(gone);
+                    liveCounts[title.id] -= count;
+                    eventCount -= count;
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void seriesChanged(Series previous, Series current) {
+        lock.writeLock().lock();
+        try {
+            replaceSeries(previous, current);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void seriesPut(List<Series> previous, List<Series> current) {
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < current.size(); i++) {
+                replaceSeries(previous.get(i), current.get(i));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void replaceSeries(Series previous, Series current) {
+        if (previous != null) {
+            Title title = find(previous.event().getTitle());
+            if (title != null && title.removeSeries(previous.id()))
+                liveCounts[title.id]--;
+        }
+        if (current != null)
+            addSeries(current);
+    }
+
+    /** Number of single events indexed; series are not counted. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return eventCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best matches for {@code query}, at most {@code limit} occurrences. Titles
+     * are ranked by how well they match; within a title the occurrences closest
+     * to {@code today} come first.
+     */
+    public List<Hit> search(String query, int limit, LocalDate today) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0)
+            return List.of();
+        // The last word may still be half typed, so it is matched as a prefix
+        long[] grams = grams(normalized, false);
+        int required = grams.length <= 3 ? grams.length : (grams.length + 1) / 2;
+        // Indexed events missing from it were removed meanwhile and are skipped
+        StoreSnapshot snapshot = store.snapshot();
+
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[grams.length];
+            int found = 0;
+            for (long gram : grams) {
+                Postings p = postings.get(gram);
+                if (p != null)
+                    lists[found++] = p;
+            }
+            if (found < required)
+                return List.of();
+            lists = Arrays.copyOf(lists, found);
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+            int[] matched = scratch.getAndSet(null);
+            if (matched == null || matched.length < titles.size())
+                matched = new int[titleLengths.length];
+            for (Postings p : lists) {
+                for (int i = 0; i < p.size; i++) {
+                    matched[p.ids[i]]++;
+                }
+            }
+
+            // A title sharing `required` grams must be in one of the shortest
+            // found - required + 1 lists, so only those are walked for candidates.
+            // Rank by shared grams, then shorter titles, then older ones. Every
+            // live title yields at least one hit, so only the best `limit` are kept.
+            long[] best = new long[Math.min(limit, titles.size())];
+            int size = 0;
+            for (int l = 0; l <= found - required; l++) {
+                Postings p = lists[l];
+                for (int i = 0; i < p.size; i++) {
+                    int id = p.ids[i];
+                    int count = matched[id];
+                    if (count < required || liveCounts[id] == 0)
+                        continue;
+                    matched[id] = 0; // Seen
+                    long shortness = MAX_LENGTH - Math.min(titleLengths[id], MAX_LENGTH);
+                    // Inverted so the heap, which keeps the smallest keys, keeps the best titles
+                    size = offer(best, size, ~(((long) count << 52) | (shortness << 31) | (Integer.MAX_VALUE - id)));
+                }
+            }
+            for (Postings p : lists) {
+                for (int i = 0; i < p.size; i++) {
+                    matched[p.ids[i]] = 0;
+                }
+            }
+            scratch.set(matched);
+            // Among the survivors, a literal match of the whole query ranks first
+            for (int i = 0; i < size; i++) {
+                int id = Integer.MAX_VALUE - (int) (~best[i] & Integer.MAX_VALUE);
+                if (titles.get(id).normalized.contains(normalized))
+                    best[i] -= 1L << 62;
+            }
+            Arrays.sort(best, 0, size);
+
+            List<Hit> hits = new ArrayList<>(Math.min(limit, 64));
+            for (int i = 0; i < size && hits.size() < limit; i++) {
+                int id = Integer.MAX_VALUE - (int) (~best[i] & Integer.MAX_VALUE);
+                titles.get(id).closest(snapshot, today, limit - hits.size(), hits);
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void add(LocalDate date, Event event) {
+        Title title = title(event.getTitle());
+        title.add(date, event);
+        liveCounts[title.id]++;
+        eventCount++;
+    }
+
+    // Caller holds the write lock
+    private void addSeries(Series s) {
+        Title title = title(s.event().getTitle());
+        title.addSeries(s);
+        liveCounts[title.id]++;
+    }
+
+    private Title find(String raw) {
+        return byText.get(normalize(raw));
+    }
+
+    // Caller holds the write lock
+    private Title title(String raw) {
+        String normalized = normalize(raw);
+        Title title = byText.get(normalized);
+        if (title != null)
+            return title;
+
+        int newId = titles.size();
+        title = new Title(newId, normalized);
+        titles.add(title);
+        byText.put(normalized, title);
+        if (newId == titleLengths.length) {
+            titleLengths = Arrays.copyOf(titleLengths, newId * 2);
+            liveCounts = Arrays.copyOf(liveCounts, newId * 2);
+        }
+        titleLengths[newId] = normalized.length();
+        // Ids only grow, so posting lists stay sorted and duplicate-free by appending
+        for (long gram : grams(normalized, true)) {
+            postings.getOrCreate(gram).add(newId);
+        }
+        return title;
+    }
+
+    static String normalize(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+                space = false;
+            } else if (!space) {
+                sb.append(' ');
+                space = true;
+            }
+        }
+        int end = sb.length();
+        if (end > 0 && sb.charAt(end - 1) == ' ')
+            sb.setLength(end - 1);
+        return sb.toString();
+    }
+
+    /**
+     * Distinct grams of every word: the start marker plus the first letter, then
+     * each trigram of the marked word. With {@code closeWords} short words are
+     * padded with an end marker so they still produce a trigram; queries leave
+     * their last word open so it matches as a prefix.
+     */
+    static long[] grams(String normalized, boolean closeWords) {
+        long[] out = new long[8];
+        int n = 0;
+        String[] words = normalized.split(" ");
+        for (int w = 0; w < words.length; w++) {
+            String word = WORD_START + words[w];
+            boolean open = !closeWords && w == words.length - 1;
+            if (!open && word.length() < 3)
+                word += WORD_END;
+            out = grow(out, n + word.length());
+            n = put(out, n, gram(word.charAt(0), word.charAt(1), '\0'));
+            for (int i = 0; i + 3 <= word.length(); i++) {
+                n = put(out, n, gram(word.charAt(i), word.charAt(i + 1), word.charAt(i + 2)));
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static long gram(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    private static long[] grow(long[] a, int needed) {
+        return needed <= a.length ? a : Arrays.copyOf(a, Math.max(needed, a.length * 2));
+    }
+
+    // Appends unless already present; queries and titles have few grams
+    private static int put(long[] out, int n, long gram) {
+        for (int i = 0; i < n; i++) {
+            if (out[i] == gram)
+                return n;
+        }
+        out[n] = gram;
+        return n + 1;
+    }
+
+    /**
+     * Adds {@code key} to a bounded max-heap that keeps the smallest keys seen,
+     * i.e. the root is the first to be evicted. Returns the new size.
+     */
+    private static int offer(long[] heap, int size, long key) {
+        if (size < heap.length) {
+            heap[size] = key;
+            int i = size;
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (heap[parent] >= heap[i])
+                    break;
+                swap(heap, parent, i);
+                i = parent;
+            }
+            return size + 1;
+        }
+        if (size == 0 || key >= heap[0])
+            return size;
+        heap[0] = key;
+        int i = 0;
+        while (true) {
+            int largest = i;
+            int l = 2 * i + 1;
+            int r = l + 1;
+            if (l < size && heap[l] > heap[largest])
+                largest = l;
+            if (r < size && heap[r] > heap[largest])
+                largest = r;
+            if (largest == i)
+                return size;
+            swap(heap, largest, i);
+            i = largest;
+        }
+    }
+
+    private static void swap(long[] a, int i, int j) {
+        long t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    /**
+     * Open-addressing map from gram to posting list. Packed grams differ mostly
+     * in their high bits, which {@code Long.hashCode} folds into collisions.
+     */
+    private static final class GramTable {
+        long[] keys = new long[1024];
+        Postings[] values = new Postings[1024];
+        int size;
+
+        Postings get(long gram) {
+            int mask = keys.length - 1;
+            for (int i = slot(gram, mask); values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == gram)
+                    return values[i];
+            }
+            return null;
+        }
+
+        Postings getOrCreate(long gram) {
+            int mask = keys.length - 1;
+            int i = slot(gram, mask);
+            for (; values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == gram)
+                    return values[i];
+            }
+            Postings p = new Postings();
+            keys[i] = gram;
+            values[i] = p;
+            if (++size * 2 > keys.length)
+                rehash();
+            return p;
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            Postings[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new Postings[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldValues[j] == null)
+                    continue;
+                int i = slot(oldKeys[j], mask);
+                while (values[i] != null)
+                    i = (i + 1) & mask;
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+
+        private static int slot(long gram, int mask) {
+            return (int) ((gram * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+        }
+    }
+
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size == ids.length)
+                ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+    }
+
+    /** All events sharing one normalized title, as parallel arrays of id and epoch day. */
+    private static final class Title {
+        // Most titles belong to a single event, so everything starts as small as possible
+        private static final long[] NO_IDS = new long[0];
+        private static final int[] NO_DAYS = new int[0];
+
+        final int id;
+        final String normalized;
+        List<Series> series = List.of();
+        long[] ids = NO_IDS;
+        int[] days = NO_DAYS;
+        int count;
+
+        Title(int id, String normalized) {
+            this.id = id;
+            this.normalized = normalized;
+        }
+
+        void add(LocalDate date, Event event) {
+            if (count == ids.length) {
+                int capacity = Math.max(1, count * 2);
+                ids = Arrays.copyOf(ids, capacity);
+                days = Arrays.copyOf(days, capacity);
+            }
+            ids[count] = event.getId();
+            days[count] = (int) date.toEpochDay();
+            count++;
+        }
+
+        void addSeries(Series s) {
+            if (series.isEmpty())
+                series = new ArrayList<>(1);
+            series.add(s);
+        }
+
+        boolean removeSeries(long seriesId) {
+            return series.removeIf(s -> s.id() == seriesId);
+        }
+
+        /** Removes every event in {@code gone} (id to epoch day) in one pass; returns how many there were. */
+        int removeAll(Map<Long, Integer> gone) {
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                Integer day = gone.get(ids[i]);
+                if (day == null || day != days[i]) {
+                    ids[kept] = ids[i];
+                    days[kept] = days[i];
+                    kept++;
+                }
+            }
+            int removed = count - kept;
+            count = kept;
+            return removed;
+        }
+
+        boolean remove(long eventId, int day) {
+            for (int i = 0; i < count; i++) {
+                if (ids[i] == eventId && days[i] == day) {
+                    count--;
+                    ids[i] = ids[count];
+                    days[i] = days[count];
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** Adds up to {@code max} hits, nearest to {@code today} first. */
+        void closest(StoreSnapshot snapshot, LocalDate today, int max, List<Hit> hits) {
+            long todayDay = today.toEpochDay();
+            int candidates = count + series.size();
+            // Keys are (distance << 32 | index); this title may have many occurrences
+            long[] heap = new long[Math.min(max, candidates)];
+            int size = 0;
+            LocalDate[] seriesDates = new LocalDate[series.size()];
+            for (int i = 0; i < candidates; i++) {
+                long day;
+                if (i < count) {
+                    day = days[i];
+                } else {
+                    LocalDate next = nextOccurrence(series.get(i - count), today);
+                    seriesDates[i - count] = next;
+                    day = next.toEpochDay();
+                }
+                size = offer(heap, size, (Math.abs(day - todayDay) << 32) | i);
+            }
+            Arrays.sort(heap, 0, size);
+            for (int k = 0; k < size; k++) {
+                int i = (int) heap[k];
+                if (i < count) {
+                    LocalDate date = LocalDate.ofEpochDay(days[i]);
+                    Event event = snapshot.eventOn(date, ids[i]);
+                    if (event != null)
+                        hits.add(new Hit(date, event));
+                } else {
+                    hits.add(new Hit(seriesDates[i - count], series.get(i - count).event()));
+                }
+            }
+        }
+
+        // The next occurrence from today, or the series' start if it is over
+        private static LocalDate nextOccurrence(Series s, LocalDate today) {
+            LocalDate next = s.firstOnOrAfter(today);
+            return next != null ? next : s.start();
+        }
+    }
+}
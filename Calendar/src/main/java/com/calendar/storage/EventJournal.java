@@ -0,0 +1,383 @@
+package com.calendar.storage;
+
+import com.calendar.model.DatedEvent;
+import com.calendar.model.Event;
+import com.calendar.model.EventTime;
+import com.calendar.model.Series;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of add/delete operations.
+ * <p>
+ * Each record is {@code int payloadLength, int crc32(payload), payload} where
+ * the payload carries a sequence number, the operation, the day and the event,
+ * or for series operations the whole series.
+ * A record that is cut short or fails its checksum marks the end of the log;
+ * anything after it is a torn write from a crash and is truncated on open.
+ * <p>
+ * Appends are encoded on the caller's thread and handed to a single writer
+ * thread, which drains everything queued, writes it in one go and syncs once.
+ * A burst of edits therefore costs one fsync rather than one per edit.
+ */
+final class EventJournal implements Closeable {
+
+    static final int MAGIC = 0x43414C4A; // "CALJ"
+    static final int VERSION = 2;
+    static final byte ADD = 1;
+    static final byte DELETE = 2;
+    static final byte PUT_SERIES = 3;
+    static final byte DELETE_SERIES = 4;
+
+    private static final int HEADER_BYTES = 8;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final System.Logger LOG = System.getLogger(EventJournal.class.getName());
+
+    /**
+     * A decoded journal record. {@code title} and {@code time} are only set for
+     * adds, {@code series} only for series puts; series deletes carry just the id.
+     */
+    record Entry(long seq, byte op, LocalDate date, long id, String title, EventTime time, Series series) {
+    }
+
+    // Queue items other than encoded records
+    private record Compaction(Path snapshot, long lastSeq, long maxId, List<Map.Entry<LocalDate, List<Event>>> days,
+            List<Series> series) {
+    }
+
+    private record Barrier(CountDownLatch done) {
+    }
+
+    // One or more encoded records, written with a single buffer
+    private record Records(ByteBuffer buffer, int count) {
+    }
+
+    private static final Object STOP = new Object();
+
+    private final FileChannel channel;
+    private final AtomicLong seq;
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile int recordCount;
+
+    private EventJournal(FileChannel channel, long lastSeq, int recordCount) {
+        this.channel = channel;
+        this.seq = new AtomicLong(lastSeq);
+        this.recordCount = recordCount;
+        this.writer = new Thread(this::writeLoop, "calendar-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Opens (or creates) the journal and replays every record newer than
+     * {@code afterSeq} into {@code replay}.
+     */
+    static EventJournal open(Path path, long afterSeq, Consumer<Entry> replay) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                // New (or never fully written) journal
+                resetToHeader(channel);
+                return new EventJournal(channel, afterSeq, 0);
+            }
+
+            // The tail is bounded by the compaction threshold, so a plain read is enough here.
+            // Mapping it would also stop us truncating the file on some platforms.
+            ByteBuffer buf = ByteBuffer.allocate(Math.toIntExact(size));
+            while (buf.hasRemaining() && channel.read(buf, buf.position()) >= 0) {
+                // keep reading
+            }
+            buf.flip();
+            if (buf.getInt() != MAGIC)
+                throw new IOException("Not a journal file: " + path);
+            int version = buf.getInt();
+            if (version != VERSION)
+                throw new IOException("Unsupported journal version " + version + ": " + path);
+
+            long lastSeq = afterSeq;
+            int records = 0;
+            int pos = HEADER_BYTES;
+            CRC32 crc = new CRC32();
+            while (pos + RECORD_HEADER_BYTES <= size) {
+                int len = buf.getInt(pos);
+                int expected = buf.getInt(pos + 4);
+                if (len <= 0 || pos + RECORD_HEADER_BYTES + len > size)
+                    break;
+                ByteBuffer payload = buf.slice(pos + RECORD_HEADER_BYTES, len);
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != expected)
+                    break;
+
+                Entry entry = decode(payload);
+                if (entry.seq() > afterSeq) {
+                    replay.accept(entry);
+                    lastSeq = Math.max(lastSeq, entry.seq());
+                }
+                records++;
+                pos += RECORD_HEADER_BYTES + len;
+            }
+
+            if (pos < size) {
+                LOG.log(System.Logger.Level.WARNING, "Dropping {0} bytes of torn journal tail in {1}", size - pos,
+                        path);
+                channel.truncate(pos);
+                channel.force(true);
+            }
+            channel.position(pos);
+            return new EventJournal(channel, lastSeq, records);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Queues an add; returns without waiting for the disk. */
+    void appendAdd(LocalDate date, Event event) {
+        ByteBuffer record = encode(seq.incrementAndGet(), ADD, date, event.getId(), event.getTitle(), event.getTime());
+        queue.add(new Records(record, 1));
+    }
+
+    /** Queues a batch of adds as one buffer; returns without waiting for the disk. */
+    void appendAdds(List<DatedEvent> batch) {
+        List<ByteBuffer> records = new ArrayList<>(batch.size());
+        int bytes = 0;
+        for (DatedEvent e : batch) {
+            Event event = e.event();
+            ByteBuffer record = encode(seq.incrementAndGet(), ADD, e.date(), event.getId(), event.getTitle(),
+                    event.getTime());
+            records.add(record);
+            bytes += record.remaining();
+        }
+        ByteBuffer joined = ByteBuffer.allocate(bytes);
+        for (ByteBuffer record : records) {
+            joined.put(record);
+        }
+        queue.add(new Records(joined.flip(), batch.size()));
+    }
+
+    /** Queues a delete; returns without waiting for the disk. */
+    void appendDelete(LocalDate date, Event event) {
+        queue.add(new Records(encode(seq.incrementAndGet(), DELETE, date, event.getId(), null, null), 1));
+    }
+
+    /** Queues a batch of deletes as one buffer. */
+    void appendDeletes(List<DatedEvent> batch) {
+        List<ByteBuffer> records = new ArrayList<>(batch.size());
+        int bytes = 0;
+        for (DatedEvent e : batch) {
+            ByteBuffer record = encode(seq.incrementAndGet(), DELETE, e.date(), e.event().getId(), null, null);
+            records.add(record);
+            bytes += record.remaining();
+        }
+        ByteBuffer joined = ByteBuffer.allocate(bytes);
+        for (ByteBuffer record : records) {
+            joined.put(record);
+        }
+        queue.add(new Records(joined.flip(), batch.size()));
+    }
+
+    /** Queues adding or replacing a series. */
+    void appendPutSeries(Series series) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(seq.incrementAndGet());
+            out.writeByte(PUT_SERIES);
+            out.writeInt((int) series.start().toEpochDay());
+            out.writeLong(series.id());
+            byte[] title = series.event().getTitle().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(title.length);
+            out.write(title);
+            SeriesCodec.writeBody(out, series);
+            queue.add(new Records(frame(bytes.toByteArray()), 1));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // In-memory stream; cannot happen
+        }
+    }
+
+    /** Queues removing a whole series. */
+    void appendDeleteSeries(Series series) {
+        queue.add(new Records(encode(seq.incrementAndGet(), DELETE_SERIES, series.start(), series.id(), null, null), 1));
+    }
+
+    /**
+     * Queues a snapshot of {@code days} and {@code series}, which must reflect
+     * every operation appended so far. Once the snapshot is durable the
+     * journal is emptied.
+     */
+    void compact(Path snapshot, long maxId, List<Map.Entry<LocalDate, List<Event>>> days, List<Series> series) {
+        queue.add(new Compaction(snapshot, seq.get(), maxId, days, series));
+    }
+
+    /** Records written to the journal file since it was last emptied. */
+    int recordCount() {
+        return recordCount;
+    }
+
+    /** Blocks until everything appended so far has been synced to disk. */
+    void flush() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        queue.add(new Barrier(done));
+        done.await();
+    }
+
+    @Override
+    public void close() throws IOException {
+        queue.add(STOP);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    private void writeLoop() {
+        List<Object> batch = new ArrayList<>();
+        List<Records> pending = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            // Group commit: everything that queued up while we were syncing goes out together
+            queue.drainTo(batch);
+
+            boolean stop = false;
+            for (Object item : batch) {
+                try {
+                    if (item instanceof Records records) {
+                        pending.add(records);
+                    } else if (item instanceof Compaction c) {
+                        sync(pending);
+                        SnapshotFile.write(c.snapshot(), c.lastSeq(), c.maxId(), c.days(), c.series());
+                        // Records up to c.lastSeq are now in the snapshot; anything newer is still queued
+                        resetToHeader(channel);
+                        recordCount = 0;
+                    } else if (item instanceof Barrier b) {
+                        sync(pending);
+                        b.done().countDown();
+                    } else if (item == STOP) {
+                        stop = true;
+                    }
+                } catch (IOException e) {
+                    LOG.log(System.Logger.Level.ERROR, "Journal write failed", e);
+                    pending.clear();
+                    if (item instanceof Barrier b)
+                        b.done().countDown();
+                }
+            }
+            try {
+                sync(pending);
+            } catch (IOException e) {
+                LOG.log(System.Logger.Level.ERROR, "Journal write failed", e);
+                pending.clear();
+            }
+            batch.clear();
+            if (stop)
+                return;
+        }
+    }
+
+    private void sync(List<Records> pending) throws IOException {
+        if (pending.isEmpty())
+            return;
+        ByteBuffer[] buffers = new ByteBuffer[pending.size()];
+        long remaining = 0;
+        int count = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = pending.get(i).buffer();
+            remaining += buffers[i].remaining();
+            count += pending.get(i).count();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+        channel.force(false);
+        recordCount += count;
+        pending.clear();
+    }
+
+    private static void resetToHeader(FileChannel channel) throws IOException {
+        channel.truncate(0);
+        channel.write(ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).flip(), 0);
+        channel.force(true);
+        channel.position(HEADER_BYTES);
+    }
+
+    private static ByteBuffer encode(long seq, byte op, LocalDate date, long id, String title, EventTime time) {
+        byte[] titleBytes = title == null ? null : title.getBytes(StandardCharsets.UTF_8);
+        int len = 8 + 1 + 4 + 8;
+        if (op == ADD)
+            len += 4 + titleBytes.length + 2 + 2;
+
+        ByteBuffer buf = ByteBuffer.allocate(RECORD_HEADER_BYTES + len);
+        buf.putInt(len).putInt(0);
+        buf.putLong(seq).put(op).putInt((int) date.toEpochDay()).putLong(id);
+        if (op == ADD) {
+            buf.putInt(titleBytes.length).put(titleBytes);
+            buf.putShort((short) time.getStartMinute()).putShort((short) time.getEndMinute());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), RECORD_HEADER_BYTES, len);
+        buf.putInt(4, (int) crc.getValue());
+        return buf.flip();
+    }
+
+    // Wraps an already encoded payload in the length/checksum header
+    private static ByteBuffer frame(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer buf = ByteBuffer.allocate(RECORD_HEADER_BYTES + payload.length);
+        buf.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+        return buf.flip();
+    }
+
+    private static Entry decode(ByteBuffer payload) {
+        long seq = payload.getLong();
+        byte op = payload.get();
+        LocalDate date = LocalDate.ofEpochDay(payload.getInt());
+        long id = payload.getLong();
+        if (op == PUT_SERIES)
+            return new Entry(seq, op, date, id, null, null, SeriesCodec.readBody(payload, id, readString(payload)));
+        if (op != ADD)
+            return new Entry(seq, op, date, id, null, null, null);
+        return new Entry(seq, op, date, id, readString(payload), readTime(payload), null);
+    }
+
+    private static EventTime readTime(ByteBuffer payload) {
+        short start = payload.getShort();
+        short end = payload.getShort();
+        return start < 0 ? EventTime.ALL_DAY : EventTime.of(start, end);
+    }
+
+    private static String readString(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.getInt()];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
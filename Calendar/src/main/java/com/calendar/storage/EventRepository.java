@@ -0,0 +1,182 @@
+package com.calendar.storage;
+
+import com.calendar.model.DatedEvent;
+import com.calendar.model.Event;
+import com.calendar.model.EventStore;
+import com.calendar.model.Series;
+import com.calendar.model.StoreSnapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps an {@link EventStore} on disk.
+ * <p>
+ * On open the latest snapshot is loaded and only the journal records written
+ * after it are replayed. From then on every add and delete on the store is
+ * appended to the journal, and once enough records pile up the store is
+ * written out as a fresh snapshot and the journal starts over.
+ */
+public final class EventRepository implements EventStore.Listener, Closeable {
+
+    private static final System.Logger LOG = System.getLogger(EventRepository.class.getName());
+    private static final String SNAPSHOT_FILE = "events.snapshot";
+    private static final String JOURNAL_FILE = "events.journal";
+
+    private final EventStore store;
+    private final Path snapshotPath;
+    private final EventJournal journal;
+    private final int compactionThreshold;
+    private final boolean fresh;
+    private int writesSinceCompaction; // Only touched under the store's write lock
+
+    private EventRepository(EventStore store, Path snapshotPath, EventJournal journal, int compactionThreshold,
+            boolean fresh) {
+        this.store = store;
+        this.snapshotPath = snapshotPath;
+        this.journal = journal;
+        this.compactionThreshold = compactionThreshold;
+        this.fresh = fresh;
+        this.writesSinceCompaction = journal.recordCount();
+    }
+
+    /**
+     * Loads {@code dir} into {@code store} (which should be empty) and starts
+     * journaling its changes.
+     */
+    public static EventRepository open(Path dir, EventStore store, int compactionThreshold) throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(dir);
+        Path snapshotPath = dir.resolve(SNAPSHOT_FILE);
+        Path journalPath = dir.resolve(JOURNAL_FILE);
+        boolean fresh = !Files.exists(snapshotPath) && !Files.exists(journalPath);
+
+        long snapshotSeq = 0;
+        int snapshotEvents = 0;
+        if (Files.exists(snapshotPath)) {
+            try {
+                SnapshotFile.Header header = SnapshotFile.read(snapshotPath, store);
+                snapshotSeq = header.lastSeq();
+                snapshotEvents = header.eventCount();
+            } catch (IOException e) {
+                // Keep the bad file around for inspection and fall back to whatever the journal has
+                Path aside = snapshotPath.resolveSibling(SNAPSHOT_FILE + ".corrupt");
+                LOG.log(System.Logger.Level.ERROR, "Unreadable snapshot, moved to " + aside, e);
+                Files.move(snapshotPath, aside, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        int[] replayed = new int[1];
+        EventJournal journal = EventJournal.open(journalPath, snapshotSeq, entry -> {
+            switch (entry.op()) {
+                case EventJournal.ADD -> store.add(entry.date(), new Event(entry.id(), entry.title(), entry.time()));
+                case EventJournal.DELETE -> store.removeById(entry.date(), entry.id());
+                case EventJournal.PUT_SERIES -> store.putSeries(entry.series());
+                case EventJournal.DELETE_SERIES -> store.removeSeries(entry.id());
+                default -> LOG.log(System.Logger.Level.WARNING, "Skipping unknown journal op {0}", entry.op());
+            }
+            replayed[0]++;
+        });
+
+        LOG.log(System.Logger.Level.INFO, "Loaded {0} events ({1} from snapshot, {2} journal records) in {3} ms",
+                store.size(), snapshotEvents, replayed[0], (System.nanoTime() - start) / 1_000_000);
+
+        EventRepository repository = new EventRepository(store, snapshotPath, journal, compactionThreshold, fresh);
+        store.addListener(repository);
+        return repository;
+    }
+
+    /**
+     * Whether {@code dir} had neither a snapshot nor a journal when opened,
+     * i.e. this is the first run. A store that is empty because everything
+     * was deleted is not fresh.
+     */
+    public boolean isFresh() {
+        return fresh;
+    }
+
+    @Override
+    public void eventAdded(LocalDate date, Event event) {
+        journal.appendAdd(date, event);
+        afterWrite(1);
+    }
+
+    @Override
+    public void eventsAdded(List<DatedEvent> added) {
+        journal.appendAdds(added);
+        afterWrite(added.size());
+    }
+
+    @Override
+    public void eventRemoved(LocalDate date, Event event) {
+        journal.appendDelete(date, event);
+        afterWrite(1);
+    }
+
+    @Override
+    public void eventsRemoved(List<DatedEvent> removed) {
+        journal.appendDeletes(removed);
+        afterWrite(removed.size());
+    }
+
+    @Override
+    public void seriesChanged(Series previous, Series current) {
+        if (current != null) {
+            journal.appendPutSeries(current);
+        } else {
+            journal.appendDeleteSeries(previous);
+        }
+        afterWrite(1);
+    }
+
+    @Override
+    public void seriesPut(List<Series> previous, List<Series> current) {
+        for (Series s : current) {
+            journal.appendPutSeries(s);
+        }
+        afterWrite(current.size());
+    }
+
+    /** Blocks until every change so far is on disk. */
+    public void flush() throws InterruptedException {
+        journal.flush();
+    }
+
+    /**
+     * Folds the journal into a new snapshot, in the background. Runs from the
+     * store's listener calls, when no other write can slip in between the
+     * journal and the version written.
+     */
+    public void compact() {
+        // Store versions never change, so the writer can have this one as it is
+        StoreSnapshot snapshot = store.snapshot();
+        List<Map.Entry<LocalDate, List<Event>>> days = new ArrayList<>(
+                snapshot.storedEventsBetween(LocalDate.MIN, LocalDate.MAX).entrySet());
+        journal.compact(snapshotPath, store.lastId(), days, List.copyOf(snapshot.allSeries()));
+        writesSinceCompaction = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Under the store's write lock, so no write lands between the last journal record and the snapshot
+        store.batch(() -> {
+            store.removeListener(this);
+            if (writesSinceCompaction > 0)
+                compact();
+        });
+        journal.close();
+    }
+
+    private void afterWrite(int records) {
+        writesSinceCompaction += records;
+        if (writesSinceCompaction >= compactionThreshold)
+            compact();
+    }
+}
@@ -0,0 +1,66 @@
+package com.calendar.storage;
+
+import com.calendar.model.Event;
+import com.calendar.model.EventTime;
+import com.calendar.model.RecurrenceRule;
+import com.calendar.model.Series;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Binary form of a series apart from its id and title, which the journal and
+ * the snapshot each store their own way:
+ *
+ * <pre>
+ * short startMinute, short endMinute, int startEpochDay,
+ * byte frequency, int interval, int count, int untilEpochDay (MIN_VALUE if none),
+ * int exceptionCount, { int epochDay }*
+ * </pre>
+ */
+final class SeriesCodec {
+
+    private static final int NO_UNTIL = Integer.MIN_VALUE;
+
+    private SeriesCodec() {
+    }
+
+    static void writeBody(DataOutput out, Series s) throws IOException {
+        EventTime time = s.event().getTime();
+        RecurrenceRule rule = s.rule();
+        out.writeShort(time.getStartMinute());
+        out.writeShort(time.getEndMinute());
+        out.writeInt((int) s.start().toEpochDay());
+        out.writeByte(rule.frequency().ordinal());
+        out.writeInt(rule.interval());
+        out.writeInt(rule.count());
+        out.writeInt(rule.until() == null ? NO_UNTIL : (int) rule.until().toEpochDay());
+        out.writeInt(s.exceptions().size());
+        for (LocalDate date : s.exceptions()) {
+            out.writeInt((int) date.toEpochDay());
+        }
+    }
+
+    static Series readBody(ByteBuffer buf, long id, String title) {
+        short start = buf.getShort();
+        short end = buf.getShort();
+        EventTime time = start < 0 ? EventTime.ALL_DAY : EventTime.of(start, end);
+        LocalDate startDate = LocalDate.ofEpochDay(buf.getInt());
+        RecurrenceRule.Frequency frequency = RecurrenceRule.Frequency.values()[buf.get()];
+        int interval = buf.getInt();
+        int count = buf.getInt();
+        int until = buf.getInt();
+        int exceptionCount = buf.getInt();
+        Set<LocalDate> exceptions = new HashSet<>(exceptionCount * 2);
+        for (int i = 0; i < exceptionCount; i++) {
+            exceptions.add(LocalDate.ofEpochDay(buf.getInt()));
+        }
+        RecurrenceRule rule = new RecurrenceRule(frequency, interval, count,
+                until == NO_UNTIL ? null : LocalDate.ofEpochDay(until));
+        return new Series(new Event(id, title, time), startDate, rule, exceptions);
+    }
+}
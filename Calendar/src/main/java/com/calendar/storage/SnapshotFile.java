@@ -0,0 +1,202 @@
+package com.calendar.storage;
+
+import com.calendar.model.Event;
+import com.calendar.model.EventStore;
+import com.calendar.model.EventTime;
+import com.calendar.model.Series;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Full copy of the event store at a given journal sequence number.
+ * <p>
+ * Layout (big-endian):
+ *
+ * <pre>
+ * int magic, int version, long lastSeq, long maxId
+ * int stringCount, { int byteLength, utf8 bytes }*
+ * int dayCount, { int epochDay, int eventCount, { long id, int titleRef, short startMinute, short endMinute }* }*
+ * int seriesCount, { long id, int titleRef, series body (see {@link SeriesCodec}) }*
+ * int crc32 of everything above
+ * </pre>
+ *
+ * Titles are written once in the string table and referenced by index, so
+ * repeated titles cost four bytes each and the event section is fixed-width.
+ * Reading maps the file and decodes straight out of the mapping.
+ */
+final class SnapshotFile {
+
+    static final int MAGIC = 0x43414C53; // "CALS"
+    static final int VERSION = 3;
+
+    /** What a loaded snapshot covers. */
+    record Header(long lastSeq, int eventCount) {
+    }
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Writes the given days atomically: the data goes to a temp file which is
+     * synced and then moved over {@code path}.
+     */
+    static void write(Path path, long lastSeq, long maxId, List<Map.Entry<LocalDate, List<Event>>> days,
+            List<Series> series) throws IOException {
+        Map<String, Integer> refs = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        for (Map.Entry<LocalDate, List<Event>> day : days) {
+            for (Event e : day.getValue()) {
+                intern(e.getTitle(), refs, strings);
+            }
+        }
+        for (Series s : series) {
+            intern(s.event().getTitle(), refs, strings);
+        }
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            OutputStream raw = Channels.newOutputStream(channel);
+            DataOutputStream out = new DataOutputStream(
+                    new CheckedOutputStream(new BufferedOutputStream(raw, 1 << 16), crc));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(lastSeq);
+            out.writeLong(maxId);
+
+            out.writeInt(strings.size());
+            for (String s : strings) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            out.writeInt(days.size());
+            for (Map.Entry<LocalDate, List<Event>> day : days) {
+                out.writeInt((int) day.getKey().toEpochDay());
+                out.writeInt(day.getValue().size());
+                for (Event e : day.getValue()) {
+                    out.writeLong(e.getId());
+                    out.writeInt(refs.get(e.getTitle()));
+                    out.writeShort(e.getTime().getStartMinute());
+                    out.writeShort(e.getTime().getEndMinute());
+                }
+            }
+
+            out.writeInt(series.size());
+            for (Series s : series) {
+                out.writeLong(s.id());
+                out.writeInt(refs.get(s.event().getTitle()));
+                SeriesCodec.writeBody(out, s);
+            }
+            out.flush();
+            // The checksum itself is not part of the checksummed range
+            new DataOutputStream(raw).writeInt((int) crc.getValue());
+            channel.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads a snapshot into an (empty) store.
+     *
+     * @throws IOException if the file is truncated or fails its checksum
+     */
+    static Header read(Path path, EventStore store) throws IOException {
+        MappedByteBuffer buf;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buf.limit() < 4 * 4 + 2 * 8)
+            throw new IOException("Snapshot too short: " + path);
+
+        int bodyLength = buf.limit() - 4;
+        CRC32 crc = new CRC32();
+        crc.update(buf.duplicate().limit(bodyLength));
+        if ((int) crc.getValue() != buf.getInt(bodyLength))
+            throw new IOException("Snapshot checksum mismatch: " + path);
+
+        if (buf.getInt() != MAGIC)
+            throw new IOException("Not a snapshot file: " + path);
+        int version = buf.getInt();
+        if (version != VERSION)
+            throw new IOException("Unsupported snapshot version " + version + ": " + path);
+        long lastSeq = buf.getLong();
+        // Deleted events may have had higher ids than anything still stored
+        store.reserveIdsThrough(buf.getLong());
+
+        String[] strings = new String[buf.getInt()];
+        byte[] scratch = new byte[256];
+        for (int i = 0; i < strings.length; i++) {
+            int len = buf.getInt();
+            if (len > scratch.length)
+                scratch = new byte[len];
+            buf.get(scratch, 0, len);
+            strings[i] = new String(scratch, 0, len, StandardCharsets.UTF_8);
+        }
+
+        int total = 0;
+        int dayCount = buf.getInt();
+        // Restored a month at a time: one write per month, without holding the whole file as events
+        Map<LocalDate, List<Event>> month = new HashMap<>();
+        YearMonth monthOf = null;
+        for (int d = 0; d < dayCount; d++) {
+            LocalDate date = LocalDate.ofEpochDay(buf.getInt());
+            if (!YearMonth.from(date).equals(monthOf)) {
+                store.restoreDays(month);
+                month.clear();
+                monthOf = YearMonth.from(date);
+            }
+            int n = buf.getInt();
+            List<Event> dayEvents = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                long id = buf.getLong();
+                String title = strings[buf.getInt()];
+                dayEvents.add(new Event(id, title, readTime(buf.getShort(), buf.getShort())));
+            }
+            // Days were written in store order, so each list is already sorted
+            month.put(date, dayEvents);
+            total += n;
+        }
+        store.restoreDays(month);
+
+        int seriesCount = buf.getInt();
+        for (int i = 0; i < seriesCount; i++) {
+            long id = buf.getLong();
+            store.restoreSeries(SeriesCodec.readBody(buf, id, strings[buf.getInt()]));
+        }
+        return new Header(lastSeq, total);
+    }
+
+    private static EventTime readTime(short start, short end) {
+        return start < 0 ? EventTime.ALL_DAY : EventTime.of(start, end);
+    }
+
+    private static void intern(String s, Map<String, Integer> refs, List<String> strings) {
+        if (!refs.containsKey(s)) {
+            refs.put(s, strings.size());
+            strings.add(s);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.calendar.summary;
+
+import com.calendar.model.DatedEvent;
+import com.calendar.model.Event;
+import com.calendar.model.EventStore;
+import com.calendar.model.Series;
+import com.calendar.model.StoreSnapshot;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Month summaries for the month grid, cached and kept current as the store
+ * changes.
+ * <p>
+ * A month is counted from the store once, on first use or ahead of time in
+ * the background for the months either side of the one shown; after that,
+ * adds, deletes and series changes are applied to the cached counts as
+ * deltas. Paging through months that are cached touches no events at all.
+ * The cache holds at most {@code capacity} months, least recently used first
+ * out.
+ * <p>
+ * Every summary carries the store version its counts are for, and a delta is
+ * only applied to summaries older than the write, so a month counted while a
+ * write is in flight is neither missing it nor counting it twice. Safe to use
+ * from any thread.
+ */
+public final class MonthSummaries implements EventStore.Listener {
+
+    private final EventStore store;
+    private final Executor prefetcher;
+    // Guarded by this
+    private final Map<YearMonth, MonthSummary> cache;
+    private final Set<YearMonth> prefetching = new HashSet<>();
+    private long lastWrite; // Version of the latest write seen
+    private long hits;
+    private long misses;
+
+    private MonthSummaries(EventStore store, int capacity, Executor prefetcher) {
+        this.store = store;
+        this.prefetcher = prefetcher;
+        this.cache = new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<YearMonth, MonthSummary> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /** Follows {@code store}, caching up to {@code capacity} months and prefetching on {@code prefetcher}. */
+    public static MonthSummaries attach(EventStore store, int capacity, Executor prefetcher) {
+        MonthSummaries summaries = new MonthSummaries(store, capacity, prefetcher);
+        store.addListener(summaries);
+        return summaries;
+    }
+
+    /** The summary for {@code month}, counting it now if it is not cached. Prefetches its neighbours. */
+    public MonthSummary get(YearMonth month) {
+        MonthSummary summary = lookup(month);
+        prefetch(month.minusMonths(1));
+        prefetch(month.plusMonths(1));
+        return summary;
+    }
+
+    /**
+     * Summaries for {@code count} consecutive months from {@code first}, e.g.
+     * for the year overview. Months not cached are counted now; nothing is
+     * prefetched.
+     */
+    public List<MonthSummary> range(YearMonth first, int count) {
+        List<MonthSummary> summaries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            summaries.add(lookup(first.plusMonths(i)));
+        }
+        return summaries;
+    }
+
+    /** Counts {@code month} in the background, unless it is cached or already on its way. */
+    public void prefetch(YearMonth month) {
+        synchronized (this) {
+            if (cache.containsKey(month) || !prefetching.add(month))
+                return;
+        }
+        prefetcher.execute(() -> {
+            try {
+                load(month);
+            } finally {
+                synchronized (this) {
+                    prefetching.remove(month);
+                }
+            }
+        });
+    }
+
+    /** Lookups answered from the cache. */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /** Lookups that had to count the month there and then. */
+    public synchronized long misses() {
+        return misses;
+    }
+
+    private MonthSummary lookup(YearMonth month) {
+        MonthSummary summary;
+        synchronized (this) {
+            summary = cache.get(month);
+            if (summary != null) {
+                hits++;
+            } else {
+                misses++;
+            }
+        }
+        return summary != null ? summary : load(month);
+    }
+
+    private MonthSummary load(YearMonth month) {
+        StoreSnapshot snapshot = store.snapshot();
+        MonthSummary counted = new MonthSummary(month, snapshot.countsFor(month), snapshot.version());
+        synchronized (this) {
+            MonthSummary cached = cache.get(month);
+            if (cached != null)
+                return cached;
+            // A write since the snapshot may not have reached us as a delta yet; the next lookup counts again
+            if (lastWrite <= counted.version)
+                cache.put(month, counted);
+        }
+        return counted;
+    }
+
+    // Listener callbacks run on the writing thread, right after the write's version is published
+
+    @Override
+    public void eventAdded(LocalDate date, Event event) {
+        written(List.of(new DatedEvent(date, event)), 1);
+    }
+
+    @Override
+    public void eventsAdded(List<DatedEvent> added) {
+        written(added, 1);
+    }
+
+    @Override
+    public void eventRemoved(LocalDate date, Event event) {
+        written(List.of(new DatedEvent(date, event)), -1);
+    }
+
+    @Override
+    public void eventsRemoved(List<DatedEvent> removed) {
+        written(removed, -1);
+    }
+
+    @Override
+    public void seriesChanged(Series previous, Series current) {
+        seriesPut(Collections.singletonList(previous), Collections.singletonList(current));
+    }
+
+    @Override
+    public void seriesPut(List<Series> previous, List<Series> current) {
+        long version = store.snapshot().version();
+        // One new summary per cached month, however many series
+        synchronized (this) {
+            lastWrite = version;
+            for (Map.Entry<YearMonth, MonthSummary> entry : cache.entrySet()) {
+                MonthSummary summary = entry.getValue();
+                if (summary.version >= version)
+                    continue;
+                YearMonth month = entry.getKey();
+                int[] deltas = new int[month.lengthOfMonth()];
+                boolean changed = false;
+                for (int i = 0; i < current.size(); i++) {
+                    changed |= occurrences(previous.get(i), month, deltas, -1);
+                    changed |= occurrences(current.get(i), month, deltas, 1);
+                }
+                if (changed)
+                    entry.setValue(summary.plus(deltas, version));
+            }
+        }
+    }
+
+    private void written(List<DatedEvent> events, int sign) {
+        long version = store.snapshot().version();
+        // One new summary per month touched, however big the batch
+        Map<YearMonth, int[]> deltas = new HashMap<>();
+        synchronized (this) {
+            lastWrite = version;
+            for (DatedEvent e : events) {
+                YearMonth month = YearMonth.from(e.date());
+                MonthSummary summary = cache.get(month);
+                if (summary == null || summary.version >= version)
+                    continue;
+                deltas.computeIfAbsent(month, m -> new int[m.lengthOfMonth()])[e.date().getDayOfMonth() - 1] += sign;
+            }
+            deltas.forEach((month, d) -> cache.put(month, cache.get(month).plus(d, version)));
+        }
+    }
+
+    private static boolean occurrences(Series series, YearMonth month, int[] deltas, int sign) {
+        if (series == null)
+            return false;
+        boolean[] any = new boolean[1];
+        series.forEachOccurrence(month.atDay(1), month.atEndOfMonth(), date -> {
+            deltas[date.getDayOfMonth() - 1] += sign;
+            any[0] = true;
+        });
+        return any[0];
+    }
+}
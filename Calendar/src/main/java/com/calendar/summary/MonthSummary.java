@@ -0,0 +1,58 @@
+package com.calendar.summary;
+
+import java.time.YearMonth;
+
+/**
+ * Per-day event counts for one month, occurrences included, with a bitmap of
+ * the days that have any. Immutable; a change produces a new summary.
+ */
+public final class MonthSummary {
+
+    private final YearMonth month;
+    private final int[] counts; // Index 0 is the 1st
+    private final int busy; // Bit d - 1 set when day d has events
+    final long version; // Store version the counts are correct for
+
+    MonthSummary(YearMonth month, int[] counts, long version) {
+        this.month = month;
+        this.counts = counts;
+        this.version = version;
+        int bits = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0)
+                bits |= 1 << i;
+        }
+        this.busy = bits;
+    }
+
+    public YearMonth month() {
+        return month;
+    }
+
+    public int countOn(int dayOfMonth) {
+        return counts[dayOfMonth - 1];
+    }
+
+    /** A copy of the counts; index 0 is the 1st. */
+    public int[] counts() {
+        return counts.clone();
+    }
+
+    public boolean isBusy(int dayOfMonth) {
+        return (busy & 1 << dayOfMonth - 1) != 0;
+    }
+
+    /** Bit {@code d - 1} is set when day {@code d} has any events. */
+    public int busyDays() {
+        return busy;
+    }
+
+    /** This summary with {@code deltas} added per day, as of {@code newVersion}. */
+    MonthSummary plus(int[] deltas, long newVersion) {
+        int[] updated = counts.clone();
+        for (int i = 0; i < updated.length; i++) {
+            updated[i] += deltas[i];
+        }
+        return new MonthSummary(month, updated, newVersion);
+    }
+}
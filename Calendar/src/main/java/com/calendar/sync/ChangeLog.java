@@ -0,0 +1,223 @@
+package com.calendar.sync;
+
+import com.calendar.model.DatedEvent;
+import com.calendar.model.Event;
+import com.calendar.model.EventStore;
+import com.calendar.model.StoreSnapshot;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * What the sync server needs to answer cheaply, kept current by listening to
+ * the store: each one-off event by id with the version it was last written
+ * in, the version each day last changed in, and a bounded log of which ids
+ * changed in which version.
+ * <p>
+ * Versions are the store's own. Waiting uses a {@link Condition} rather than a
+ * monitor, so a parked long-poll does not pin a virtual thread's carrier.
+ */
+final class ChangeLog implements EventStore.Listener {
+
+    /** An event as last written, and the version that wrote it. */
+    record Entry(DatedEvent event, long version) {
+    }
+
+    /** Ids written since a version: still present in {@code changed}, gone in {@code deleted}. */
+    record Changes(long version, List<Entry> changed, List<Long> deleted) {
+    }
+
+    private final EventStore store;
+    private final int capacity;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition advanced = lock.newCondition();
+    // Guarded by lock
+    private final Map<Long, Entry> byId = new HashMap<>();
+    private final TreeMap<LocalDate, Long> dayVersions = new TreeMap<>();
+    private final ArrayDeque<long[]> log = new ArrayDeque<>(); // {version, id}
+    private long baseVersion;
+    private long floor; // Oldest version changes can still be listed from
+    private long latest;
+    private boolean closed;
+
+    private ChangeLog(EventStore store, int capacity) {
+        this.store = store;
+        this.capacity = capacity;
+    }
+
+    /** Indexes the store's one-off events and follows it from there, keeping at most {@code capacity} log entries. */
+    static ChangeLog attach(EventStore store, int capacity) {
+        ChangeLog changes = new ChangeLog(store, capacity);
+        changes.lock.lock();
+        try {
+            // Writers block on our lock until the index has caught up to the version we start after
+            StoreSnapshot base = store.addListener(changes);
+            base.storedEventsBetween(LocalDate.MIN, LocalDate.MAX).forEach((date, dayEvents) -> {
+                for (Event e : dayEvents) {
+                    changes.byId.put(e.getId(), new Entry(new DatedEvent(date, e), base.version()));
+                }
+            });
+            changes.baseVersion = base.version();
+            changes.floor = base.version();
+            changes.latest = base.version();
+        } finally {
+            changes.lock.unlock();
+        }
+        return changes;
+    }
+
+    /** Stops following the store and releases everyone waiting. */
+    void close() {
+        store.removeListener(this);
+        lock.lock();
+        try {
+            closed = true;
+            advanced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Entry get(long id) {
+        lock.lock();
+        try {
+            return byId.get(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long latest() {
+        lock.lock();
+        try {
+            return latest;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The last version any day in {@code [from, to]} changed in; only the changed days are visited. */
+    long rangeVersion(LocalDate from, LocalDate to) {
+        lock.lock();
+        try {
+            long version = baseVersion;
+            for (long v : dayVersions.subMap(from, true, to, true).values()) {
+                version = Math.max(version, v);
+            }
+            return version;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Every event, for a client without a usable sync token. */
+    Changes all() {
+        lock.lock();
+        try {
+            return new Changes(latest, List.copyOf(byId.values()), List.of());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * What changed after {@code since}, waiting up to {@code waitMillis} for
+     * something to. Null if {@code since} is older than the log reaches back,
+     * in which case the client has to start over from {@link #all()}.
+     */
+    Changes since(long since, long waitMillis) throws InterruptedException {
+        lock.lock();
+        try {
+            long nanos = TimeUnit.MILLISECONDS.toNanos(waitMillis);
+            while (latest <= since && !closed && nanos > 0) {
+                nanos = advanced.awaitNanos(nanos);
+            }
+            if (since < floor || since > latest)
+                return null;
+
+            Set<Long> ids = new LinkedHashSet<>();
+            // Newest last, so walk back from the end until we pass the client's version
+            Iterator<long[]> it = log.descendingIterator();
+            while (it.hasNext()) {
+                long[] change = it.next();
+                if (change[0] <= since)
+                    break;
+                ids.add(change[1]);
+            }
+            List<Entry> changed = new ArrayList<>();
+            List<Long> deleted = new ArrayList<>();
+            for (long id : ids) {
+                Entry e = byId.get(id);
+                if (e != null) {
+                    changed.add(e);
+                } else {
+                    deleted.add(id);
+                }
+            }
+            return new Changes(latest, changed, deleted);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Listener callbacks run on the writing thread, after the new version is published
+
+    @Override
+    public void eventAdded(LocalDate date, Event event) {
+        written(List.of(new DatedEvent(date, event)), true);
+    }
+
+    @Override
+    public void eventsAdded(List<DatedEvent> added) {
+        written(added, true);
+    }
+
+    @Override
+    public void eventRemoved(LocalDate date, Event event) {
+        written(List.of(new DatedEvent(date, event)), false);
+    }
+
+    @Override
+    public void eventsRemoved(List<DatedEvent> removed) {
+        written(removed, false);
+    }
+
+    private void written(List<DatedEvent> events, boolean added) {
+        long version = store.snapshot().version();
+        lock.lock();
+        try {
+            for (DatedEvent e : events) {
+                long id = e.event().getId();
+                if (added) {
+                    byId.put(id, new Entry(e, version));
+                } else {
+                    // Only if the id still means this event; an edit may have re-added it already
+                    Entry current = byId.get(id);
+                    if (current != null && current.event().event().equals(e.event()))
+                        byId.remove(id);
+                }
+                dayVersions.put(e.date(), version);
+                log.addLast(new long[] { version, id });
+            }
+            while (log.size() > capacity) {
+                floor = Math.max(floor, log.removeFirst()[0]);
+            }
+            latest = Math.max(latest, version);
+            advanced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
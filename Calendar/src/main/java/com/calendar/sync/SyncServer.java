@@ -0,0 +1,472 @@
+package com.calendar.sync;
+
+import com.calendar.ics.IcsReader;
+import com.calendar.ics.IcsWriter;
+import com.calendar.model.DatedEvent;
+import com.calendar.model.Event;
+import com.calendar.model.EventStore;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Optional HTTP endpoint that lets phones and other desktops read and write
+ * the calendar: a small CalDAV-style subset with iCalendar bodies.
+ * <pre>
+ * GET    /events?from=2026-01-01&amp;to=2026-01-31  one-off events in a range
+ * GET    /events/{id}                             one event
+ * PUT    /events/{id}                             replace it, or recreate it, from a VEVENT
+ * POST   /events                                  create one under a new id
+ * DELETE /events/{id}
+ * GET    /sync?token=...&amp;wait=30                 ids changed since a token, as JSON
+ * </pre>
+ * Ids are only ever handed out by the server: a new event is POSTed and
+ * gets its id back in {@code Location}. A PUT may recreate a deleted event
+ * under its old id, but an id the server never issued, or one that belongs
+ * to a series, is refused with 409 Conflict, so ids stay unique.
+ * <p>
+ * Ranges and events carry ETags made from store versions, so a matching
+ * {@code If-None-Match} gets a 304 without anything being serialized, and
+ * {@code If-Match} or {@code If-None-Match: *} make writes conditional.
+ * <p>
+ * A sync without a token lists every event; with one it lists what changed
+ * since, first waiting up to {@code wait} seconds for something to (long-poll).
+ * A token older than the change log reaches back gets 410 Gone, and the
+ * client starts over without one. Tokens do not survive a restart.
+ * <p>
+ * Requests run one per virtual thread, so thousands of parked long-polls cost
+ * little. Series are not synced. There is no TLS; if a secret is set,
+ * requests must send it as a bearer token.
+ * <p>
+ * Sync clients are not browsers, so any request with an {@code Origin}
+ * header is refused: a web page cannot post to the calendar, even as a
+ * simple CORS request. Without a secret the {@code Host} must also be an IP
+ * address or {@code localhost}, so a page whose domain has been rebound to
+ * this machine's address gets nowhere.
+ */
+public final class SyncServer implements AutoCloseable {
+
+    private static final System.Logger LOG = System.getLogger(SyncServer.class.getName());
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int MAX_WAIT_SECONDS = 60;
+    private static final int CHANGE_LOG_CAPACITY = 100_000;
+    private static final int BACKLOG = 1024;
+
+    private final EventStore store;
+    private final ChangeLog changes;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final byte[] authorization;
+    // Tags and tokens from an earlier run must not match this one's versions
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private SyncServer(EventStore store, InetSocketAddress address, String secret) throws IOException {
+        this.store = store;
+        this.authorization = secret == null ? null : ("Bearer " + secret).getBytes(StandardCharsets.UTF_8);
+        this.server = HttpServer.create(address, BACKLOG);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor(); // A parked long-poll holds no platform thread
+        this.changes = ChangeLog.attach(store, CHANGE_LOG_CAPACITY);
+        server.setExecutor(executor);
+        server.createContext("/events", guarded(this::events));
+        server.createContext("/sync", guarded(this::sync));
+    }
+
+    /** Serves {@code store} on {@code address}; {@code secret} may be null for none. */
+    public static SyncServer start(EventStore store, InetSocketAddress address, String secret) throws IOException {
+        SyncServer sync = new SyncServer(store, address, secret);
+        sync.server.start();
+        LOG.log(System.Logger.Level.INFO, "Sync server listening on {0}", sync.address());
+        return sync;
+    }
+
+    public InetSocketAddress address() {
+        return server.getAddress();
+    }
+
+    @Override
+    public void close() {
+        changes.close(); // Answers parked long-polls, so stopping does not wait on them
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    /** Ends a request with a status and a plain-text reason. */
+    private static final class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        HttpError(int status, String message) {
+            super(message, null, false, false);
+            this.status = status;
+        }
+    }
+
+    /** An {@link HttpHandler} that may also be interrupted while waiting. */
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException, InterruptedException;
+    }
+
+    private HttpHandler guarded(Handler handler) {
+        return exchange -> {
+            try {
+                if (exchange.getRequestHeaders().containsKey("Origin"))
+                    throw new HttpError(403, "Browser requests are not accepted");
+                if (authorization == null && !addressedDirectly(exchange))
+                    throw new HttpError(403, "Host must be an IP address or localhost");
+                if (authorization != null && !authorized(exchange))
+                    throw new HttpError(401, "Missing or wrong sync secret");
+                handler.handle(exchange);
+            } catch (HttpError e) {
+                sendText(exchange, e.status, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                sendText(exchange, 503, "Shutting down");
+            } catch (IOException e) {
+                // Usually the client went away
+                LOG.log(System.Logger.Level.DEBUG, "Sync request failed", e);
+            } catch (RuntimeException e) {
+                LOG.log(System.Logger.Level.WARNING, "Sync request failed", e);
+                sendText(exchange, 500, "Internal error");
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    private boolean authorized(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        return header != null && MessageDigest.isEqual(authorization, header.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // A DNS-rebound name would be a domain, never a literal address
+    private static boolean addressedDirectly(HttpExchange exchange) {
+        String host = exchange.getRequestHeaders().getFirst("Host");
+        if (host == null)
+            return false;
+        if (host.startsWith("["))
+            return host.indexOf(']') > 0; // IPv6 literal
+        int colon = host.indexOf(':');
+        String name = colon < 0 ? host : host.substring(0, colon);
+        if (name.equalsIgnoreCase("localhost"))
+            return true;
+        if (name.isEmpty())
+            return false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c != '.' && (c < '0' || c > '9'))
+                return false;
+        }
+        return true;
+    }
+
+    // /events
+
+    private void events(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+        if (path.equals("/events") || path.equals("/events/")) {
+            switch (method) {
+                case "GET" -> listRange(exchange);
+                case "POST" -> create(exchange);
+                default -> notAllowed(exchange, "GET, POST");
+            }
+            return;
+        }
+        if (!path.startsWith("/events/"))
+            throw new HttpError(404, "Not found");
+        long id = parseId(path.substring("/events/".length()));
+        switch (method) {
+            case "GET" -> get(exchange, id);
+            case "PUT" -> put(exchange, id);
+            case "DELETE" -> delete(exchange, id);
+            default -> notAllowed(exchange, "GET, PUT, DELETE");
+        }
+    }
+
+    private void listRange(HttpExchange exchange) throws IOException {
+        Map<String, String> query = query(exchange);
+        LocalDate from = dateParam(query, "from");
+        LocalDate to = dateParam(query, "to");
+        if (to.isBefore(from))
+            throw new HttpError(400, "'to' is before 'from'");
+
+        String tag = tag(changes.rangeVersion(from, to));
+        if (matches(exchange.getRequestHeaders().getFirst("If-None-Match"), tag)) {
+            notModified(exchange, tag);
+            return;
+        }
+        // Read after taking the tag, so the body is never older than the tag says
+        NavigableMap<LocalDate, List<Event>> days = store.storedEventsBetween(from, to);
+        exchange.getResponseHeaders().set("Content-Type", "text/calendar; charset=utf-8");
+        exchange.getResponseHeaders().set("ETag", tag);
+        exchange.sendResponseHeaders(200, 0); // Chunked, however long the range
+        try (IcsWriter writer = new IcsWriter(new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)))) {
+            for (Map.Entry<LocalDate, List<Event>> day : days.entrySet()) {
+                for (Event e : day.getValue()) {
+                    writer.write(day.getKey(), e);
+                }
+            }
+        }
+    }
+
+    private void get(HttpExchange exchange, long id) throws IOException {
+        ChangeLog.Entry entry = changes.get(id);
+        if (entry == null)
+            throw new HttpError(404, "No event " + id);
+        String tag = tag(entry.version());
+        if (matches(exchange.getRequestHeaders().getFirst("If-None-Match"), tag)) {
+            notModified(exchange, tag);
+            return;
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream(512);
+        try (IcsWriter writer = new IcsWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8))) {
+            writer.write(entry.event().date(), entry.event().event());
+        }
+        exchange.getResponseHeaders().set("Content-Type", "text/calendar; charset=utf-8");
+        exchange.getResponseHeaders().set("ETag", tag);
+        exchange.sendResponseHeaders(200, body.size());
+        body.writeTo(exchange.getResponseBody());
+    }
+
+    private void put(HttpExchange exchange, long id) throws IOException {
+        IcsReader.VEvent parsed = readEvent(exchange);
+        ChangeLog.Entry[] result = new ChangeLog.Entry[2]; // {before, after}
+        // Holding the store's write lock makes check-then-write atomic
+        store.batch(() -> {
+            if (id > store.lastId())
+                throw new HttpError(409, "Id " + id + " was never issued; POST new events instead");
+            if (store.series(id) != null)
+                throw new HttpError(409, "Id " + id + " belongs to a series, which is not synced");
+            ChangeLog.Entry current = changes.get(id);
+            checkPreconditions(exchange, current);
+            if (current != null)
+                store.remove(current.event().date(), current.event().event());
+            store.add(parsed.date(), new Event(id, parsed.summary(), parsed.time()));
+            result[0] = current;
+            result[1] = changes.get(id);
+        });
+        exchange.getResponseHeaders().set("ETag", tag(result[1].version()));
+        exchange.sendResponseHeaders(result[0] == null ? 201 : 204, -1);
+    }
+
+    private void create(HttpExchange exchange) throws IOException {
+        IcsReader.VEvent parsed = readEvent(exchange);
+        Event event = new Event(store.nextId(), parsed.summary(), parsed.time());
+        ChangeLog.Entry[] result = new ChangeLog.Entry[1];
+        store.batch(() -> {
+            store.add(parsed.date(), event);
+            result[0] = changes.get(event.getId());
+        });
+        exchange.getResponseHeaders().set("Location", "/events/" + event.getId());
+        exchange.getResponseHeaders().set("ETag", tag(result[0].version()));
+        exchange.sendResponseHeaders(201, -1);
+    }
+
+    private void delete(HttpExchange exchange, long id) throws IOException {
+        store.batch(() -> {
+            ChangeLog.Entry current = changes.get(id);
+            if (current == null)
+                throw new HttpError(404, "No event " + id);
+            checkPreconditions(exchange, current);
+            store.remove(current.event().date(), current.event().event());
+        });
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    // If-Match: only over a version the client names; If-None-Match: not over one it names (or any, for *)
+    private void checkPreconditions(HttpExchange exchange, ChangeLog.Entry current) {
+        String tag = current == null ? null : tag(current.version());
+        String ifMatch = exchange.getRequestHeaders().getFirst("If-Match");
+        if (ifMatch != null && (tag == null || !matches(ifMatch, tag)))
+            throw new HttpError(412, "Event has changed");
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch != null && tag != null && matches(ifNoneMatch, tag))
+            throw new HttpError(412, "Event already exists");
+    }
+
+    private static IcsReader.VEvent readEvent(HttpExchange exchange) throws IOException {
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readNBytes(MAX_BODY_BYTES + 1);
+        }
+        if (body.length > MAX_BODY_BYTES)
+            throw new HttpError(413, "Body over " + MAX_BODY_BYTES + " bytes");
+        IcsReader.VEvent parsed;
+        try (IcsReader reader = new IcsReader(new BufferedReader(new StringReader(
+                new String(body, StandardCharsets.UTF_8))), ZoneId.systemDefault())) {
+            parsed = reader.next();
+        }
+        if (parsed == null)
+            throw new HttpError(400, "Expected a VEVENT with a DTSTART");
+        if (parsed.rule() != null)
+            throw new HttpError(400, "Recurring events are not synced");
+        return parsed;
+    }
+
+    // /sync
+
+    private void sync(HttpExchange exchange) throws IOException, InterruptedException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            notAllowed(exchange, "GET");
+            return;
+        }
+        Map<String, String> query = query(exchange);
+        String token = query.get("token");
+        ChangeLog.Changes changed;
+        if (token == null || token.isEmpty()) {
+            changed = changes.all();
+        } else {
+            long since = parseToken(token);
+            long waitSeconds = Math.max(0, Math.min(MAX_WAIT_SECONDS, longParam(query, "wait", 0)));
+            changed = since < 0 ? null : changes.since(since, waitSeconds * 1000);
+            if (changed == null)
+                throw new HttpError(410, "Sync token expired; sync again without one");
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, 0);
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(),
+                StandardCharsets.UTF_8))) {
+            out.write("{\"token\":\"" + epoch + "-" + changed.version() + "\",\"changed\":[");
+            boolean first = true;
+            for (ChangeLog.Entry e : changed.changed()) {
+                DatedEvent event = e.event();
+                out.write(first ? "{\"id\":" : ",{\"id\":");
+                out.write(event.event().getId() + ",\"date\":\"" + event.date() + "\",\"etag\":\""
+                        + tag(e.version()).replace("\"", "\\\"") + "\"}");
+                first = false;
+            }
+            out.write("],\"deleted\":[");
+            first = true;
+            for (long id : changed.deleted()) {
+                out.write(first ? Long.toString(id) : "," + id);
+                first = false;
+            }
+            out.write("]}");
+        }
+    }
+
+    // -1 if the token is not one of ours
+    private long parseToken(String token) {
+        int dash = token.lastIndexOf('-');
+        if (dash < 0 || !token.substring(0, dash).equals(epoch))
+            return -1;
+        try {
+            return Long.parseLong(token.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // HTTP helpers
+
+    private String tag(long version) {
+        return "\"" + epoch + "-" + version + "\"";
+    }
+
+    // A list of tags, possibly weak, or *
+    private static boolean matches(String header, String tag) {
+        if (header == null)
+            return false;
+        for (String candidate : header.split(",")) {
+            String c = candidate.trim();
+            if (c.startsWith("W/"))
+                c = c.substring(2);
+            if (c.equals("*") || c.equals(tag))
+                return true;
+        }
+        return false;
+    }
+
+    private static void notModified(HttpExchange exchange, String tag) throws IOException {
+        exchange.getResponseHeaders().set("ETag", tag);
+        exchange.sendResponseHeaders(304, -1);
+    }
+
+    private static void notAllowed(HttpExchange exchange, String allowed) throws IOException {
+        exchange.getResponseHeaders().set("Allow", allowed);
+        sendText(exchange, 405, "Method not allowed");
+    }
+
+    private static void sendText(HttpExchange exchange, int status, String message) {
+        try {
+            byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+        } catch (IOException e) {
+            // Headers already sent, or the client went away
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null)
+            return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static LocalDate dateParam(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null)
+            throw new HttpError(400, "Missing '" + name + "' (yyyy-mm-dd)");
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new HttpError(400, "Bad '" + name + "': " + value);
+        }
+    }
+
+    private static long longParam(Map<String, String> query, String name, long fallback) {
+        String value = query.get(name);
+        if (value == null)
+            return fallback;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new HttpError(400, "Bad '" + name + "': " + value);
+        }
+    }
+
+    private static long parseId(String value) {
+        try {
+            long id = Long.parseLong(value);
+            if (id > 0)
+                return id;
+        } catch (NumberFormatException e) {
+            // Fall through
+        }
+        throw new HttpError(404, "No event " + value);
+    }
+}
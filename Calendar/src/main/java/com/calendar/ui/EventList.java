@@ -0,0 +1,186 @@
+package com.calendar.ui;
+
+import com.calendar.model.Event;
+import com.calendar.model.EventTime;
+import com.calendar.schedule.DaySchedule;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.css.PseudoClass;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.SVGPath;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * The details pane's list of event cards for one day.
+ * <p>
+ * Virtualized: only the rows in view have cells, and scrolling rebinds those
+ * cells to other events instead of building new cards. A single trailing row
+ * holds the caller's "add" node. Adding or deleting one event touches just
+ * that row.
+ * <p>
+ * Cards of events that overlap another event of the day are marked with the
+ * {@code :conflict} pseudo-class.
+ */
+public class EventList extends ListView<Event> {
+
+    // Stands for the trailing row; never shown as an event
+    private static final Event TRAILER = new Event(-1, "", EventTime.ALL_DAY);
+
+    private static final PseudoClass CONFLICT = PseudoClass.getPseudoClass("conflict");
+
+    private final Node trailer;
+    // Replaced, never changed, so cells can tell by listening to the property
+    private final ObjectProperty<Set<Event>> conflicts = new SimpleObjectProperty<>(Set.of());
+
+    /**
+     * @param trailer  shown after the last event, e.g. an "add" button
+     * @param onDelete called with the event whose delete button was pressed
+     */
+    public EventList(Node trailer, Consumer<Event> onDelete) {
+        this.trailer = trailer;
+        getStyleClass().add("event-list");
+        setFocusTraversable(false);
+        setCellFactory(list -> new EventCell(onDelete));
+        getItems().add(TRAILER);
+    }
+
+    /** Shows {@code events}, already sorted by start time. Showing the same events again is a no-op. */
+    public void setEvents(List<Event> events) {
+        if (shows(events))
+            return; // e.g. a refresh after an insert the list already made
+        Event[] rows = events.toArray(new Event[events.size() + 1]);
+        rows[events.size()] = TRAILER;
+        getItems().setAll(rows);
+        scrollTo(0);
+        updateConflicts();
+    }
+
+    private boolean shows(List<Event> events) {
+        List<Event> items = getItems();
+        if (items.size() != events.size() + 1)
+            return false;
+        for (int i = 0; i < events.size(); i++) {
+            if (!items.get(i).equals(events.get(i)))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Inserts one event at {@code index}, its place in the day's list from the
+     * store, which alone knows how it orders events that start together. A
+     * negative index, as when the event is already gone again, is ignored.
+     */
+    public void insert(Event event, int index) {
+        if (index < 0)
+            return;
+        List<Event> items = getItems();
+        int at = Math.min(index, items.size() - 1); // Before the trailer
+        items.add(at, event);
+        scrollTo(at);
+        updateConflicts();
+    }
+
+    /** Removes one event; returns false if it is not shown. */
+    public boolean remove(Event event) {
+        List<Event> items = getItems();
+        for (int i = 0; i < items.size() - 1; i++) {
+            if (items.get(i).equals(event)) {
+                items.remove(i);
+                updateConflicts();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void updateConflicts() {
+        List<Event> items = getItems();
+        conflicts.set(DaySchedule.of(items.subList(0, items.size() - 1)).conflicts());
+    }
+
+    private final class EventCell extends ListCell<Event> {
+        private final HBox card = new HBox(10);
+        private final Label title = new Label();
+        private final Label time = new Label();
+
+        EventCell(Consumer<Event> onDelete) {
+            setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+            setPrefWidth(0); // Follow the list's width instead of widening it
+
+            card.getStyleClass().add("event-card");
+            card.setAlignment(Pos.CENTER_LEFT);
+
+            VBox txt = new VBox(2);
+            title.getStyleClass().add("event-title");
+            time.getStyleClass().add("event-time");
+            txt.getChildren().addAll(title, time);
+            HBox.setHgrow(txt, Priority.ALWAYS);
+
+            Button delBtn = new Button();
+            delBtn.getStyleClass().add("delete-button");
+            HoverAnimator.scaleAndShadow(delBtn);
+            SVGPath trashIcon = new SVGPath();
+            trashIcon.setContent("M15.5 4l-1-1h-5l-1 1H5v2h14V4zM6 19c0 1.1.9 2 2 2h8c1.1 0 2-.9 2-2V7H6v12z"); // Trash can
+            trashIcon.setFill(Color.WHITE);
+            trashIcon.setScaleX(0.7);
+            trashIcon.setScaleY(0.7);
+            delBtn.setGraphic(trashIcon);
+            delBtn.setOnAction(e -> {
+                if (getItem() != null && getItem() != TRAILER)
+                    onDelete.accept(getItem());
+            });
+
+            card.getChildren().addAll(txt, delBtn);
+            conflicts.addListener((obs, oldSet, newSet) -> markConflict());
+        }
+
+        private void markConflict() {
+            Event event = getItem();
+            card.pseudoClassStateChanged(CONFLICT, event != null && conflicts.get().contains(event));
+        }
+
+        @Override
+        protected void updateItem(Event event, boolean empty) {
+            super.updateItem(event, empty);
+            if (empty || event == null) {
+                setGraphic(null);
+            } else if (event == TRAILER) {
+                // Moves over from whichever cell had it last. That cell may have been
+                // this one, in which case an unchanged property would not re-add it.
+                if (getGraphic() == trailer)
+                    setGraphic(null);
+                setGraphic(trailer);
+            } else {
+                title.setText(event.getTitle());
+                time.setText(event.getTime().toString());
+                markConflict();
+                setGraphic(card);
+            }
+        }
+
+        // Cards and the trailer span the full row, like the old VBox children
+        @Override
+        protected void layoutChildren() {
+            super.layoutChildren();
+            Node graphic = getGraphic();
+            if (graphic != null && graphic.getParent() == this) {
+                double width = getWidth() - snappedLeftInset() - snappedRightInset();
+                graphic.resizeRelocate(snappedLeftInset(), snappedTopInset(), width, graphic.prefHeight(width));
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.calendar.ui;
+
+import javafx.animation.ScaleTransition;
+import javafx.animation.Transition;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.geometry.Insets;
+import javafx.scene.Node;
+import javafx.scene.control.Labeled;
+import javafx.scene.effect.DropShadow;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundFill;
+import javafx.scene.layout.CornerRadii;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import javafx.util.Duration;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Hover effects for buttons and cells.
+ * <p>
+ * Each node gets one animation when the effect is installed. Hovering in or
+ * out re-targets that animation from wherever it currently is, so quick
+ * back-and-forth hovering never leaves competing animations running. Effects
+ * react to {@link Node#hoverProperty()} rather than mouse handlers, so several
+ * can be installed on the same node.
+ */
+public final class HoverAnimator {
+
+    private static final Duration SCALE_DURATION = Duration.millis(200);
+    private static final Duration FADE_DURATION = Duration.millis(300);
+    private static final int RAMP_STEPS = 32;
+    private static final DropShadow HOVER_SHADOW = new DropShadow(10, Color.BLACK);
+
+    private HoverAnimator() {
+    }
+
+    /** Grows the node slightly and drops a shadow while hovered. */
+    public static void scaleAndShadow(Node node) {
+        ScaleTransition st = new ScaleTransition(SCALE_DURATION, node);
+        node.hoverProperty().addListener((obs, was, hover) -> {
+            double scale = hover ? 1.1 : 1.0;
+            // From the current scale, so a reversal continues smoothly
+            st.stop();
+            st.setToX(scale);
+            st.setToY(scale);
+            st.playFromStart();
+            node.setEffect(hover ? HOVER_SHADOW : null);
+        });
+    }
+
+    /**
+     * Fades background and text colour while hovered.
+     * <p>
+     * Both colours are precomputed into a ramp, and the control's background
+     * and text fill are bound to the current step, so a frame is two property
+     * sets with no CSS parsing. Being bound also keeps the style sheet from
+     * overriding them.
+     */
+    public static void colorFade(Labeled control, CornerRadii radii, Color normalBg, Color hoverBg,
+            Color normalText, Color hoverText) {
+        Background[] backgrounds = new Background[RAMP_STEPS];
+        Color[] textFills = new Color[RAMP_STEPS];
+        for (int i = 0; i < RAMP_STEPS; i++) {
+            double t = (double) i / (RAMP_STEPS - 1);
+            backgrounds[i] = new Background(new BackgroundFill(normalBg.interpolate(hoverBg, t), radii, Insets.EMPTY));
+            textFills[i] = normalText.interpolate(hoverText, t);
+        }
+
+        ObjectProperty<Background> background = new SimpleObjectProperty<>(backgrounds[0]);
+        ObjectProperty<Paint> textFill = new SimpleObjectProperty<>(textFills[0]);
+        control.backgroundProperty().bind(background);
+        control.textFillProperty().bind(textFill);
+
+        Fade fade = new Fade(step -> {
+            background.set(backgrounds[step]);
+            textFill.set(textFills[step]);
+        });
+        control.hoverProperty().addListener((obs, was, hover) -> fade.animateTo(hover ? 1 : 0));
+    }
+
+    /** Animates a 0..1 progress value towards a target, starting from wherever it is now. */
+    private static final class Fade extends Transition {
+
+        private final IntConsumer sink;
+        private double from;
+        private double to;
+        private double progress;
+        private int step;
+
+        Fade(IntConsumer sink) {
+            this.sink = sink;
+        }
+
+        void animateTo(double target) {
+            stop();
+            from = progress;
+            to = target;
+            double distance = Math.abs(to - from);
+            if (distance == 0)
+                return;
+            setCycleDuration(FADE_DURATION.multiply(distance));
+            playFromStart();
+        }
+
+        @Override
+        protected void interpolate(double frac) {
+            progress = from + (to - from) * frac;
+            int next = (int) Math.round(progress * (RAMP_STEPS - 1));
+            if (next != step) {
+                step = next;
+                sink.accept(step);
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.calendar.ui;
+
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.SVGPath;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.function.Consumer;
+
+/**
+ * The month view's 6x7 grid of day cells.
+ * <p>
+ * All 42 cells, with their labels, bell icon and hover animation, are built
+ * once. Showing another month only rebinds each cell to its date and count;
+ * cells outside the month are hidden and taken out of layout. Moving the
+ * selection touches just the old and the new cell.
+ */
+public class MonthGrid extends GridPane {
+
+    private static final int COLUMNS = 7;
+    private static final int ROWS = 6;
+
+    private final DayCell[] cells = new DayCell[COLUMNS * ROWS];
+    private YearMonth month;
+    private int offset; // Grid index of the 1st of the month
+    private DayCell selected;
+
+    /**
+     * @param onSelect called with the date when a cell is clicked
+     * @param decorate applied once to every cell, e.g. to add hover effects
+     */
+    public MonthGrid(Consumer<LocalDate> onSelect, Consumer<Node> decorate) {
+        setHgap(10);
+        setVgap(10);
+        for (int i = 0; i < cells.length; i++) {
+            DayCell cell = new DayCell();
+            cell.setOnAction(e -> onSelect.accept(cell.date));
+            decorate.accept(cell);
+            cells[i] = cell;
+            add(cell, i % COLUMNS, i / COLUMNS);
+        }
+    }
+
+    /** Binds the grid to {@code month}; {@code counts[d - 1]} is the event count for day d. */
+    public void show(YearMonth month, int[] counts, LocalDate today, LocalDate selectedDate) {
+        this.month = month;
+        // Weeks start on Monday
+        offset = month.atDay(1).getDayOfWeek().getValue() - 1;
+        int daysInMonth = month.lengthOfMonth();
+        selected = null;
+
+        for (int i = 0; i < cells.length; i++) {
+            DayCell cell = cells[i];
+            int day = i - offset + 1;
+            boolean inMonth = day >= 1 && day <= daysInMonth;
+            cell.setVisible(inMonth);
+            cell.setManaged(inMonth);
+            if (!inMonth) {
+                cell.date = null;
+                continue;
+            }
+            LocalDate date = month.atDay(day);
+            cell.bind(date, counts[day - 1]);
+            cell.setStyleClass("current-day-cell", date.equals(today));
+            boolean isSelected = date.equals(selectedDate);
+            cell.setStyleClass("selected-day-cell", isSelected);
+            if (isSelected)
+                selected = cell;
+        }
+    }
+
+    /** Moves the selection highlight without rebinding anything else. */
+    public void select(LocalDate date) {
+        DayCell target = cellFor(date);
+        if (target == selected)
+            return;
+        if (selected != null)
+            selected.setStyleClass("selected-day-cell", false);
+        if (target != null)
+            target.setStyleClass("selected-day-cell", true);
+        selected = target;
+    }
+
+    /** Updates one day's badge, e.g. after an add or delete. */
+    public void setCount(LocalDate date, int count) {
+        DayCell cell = cellFor(date);
+        if (cell != null)
+            cell.setCount(count);
+    }
+
+    private DayCell cellFor(LocalDate date) {
+        if (month == null || date == null || !YearMonth.from(date).equals(month))
+            return null;
+        return cells[offset + date.getDayOfMonth() - 1];
+    }
+
+    private static final class DayCell extends Button {
+
+        private final Label dateLbl = new Label();
+        private final Label countLbl = new Label();
+        private final HBox countBox;
+        private LocalDate date;
+        private int day = -1;
+        private int count = -1;
+
+        DayCell() {
+            setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+            setPrefSize(80, 80);
+            setAlignment(Pos.TOP_LEFT);
+            getStyleClass().add("day-cell");
+
+            dateLbl.setStyle("-fx-text-fill: white; -fx-font-size: 16px; -fx-font-weight: 700;");
+            countLbl.setStyle("-fx-text-fill: #FF5252; -fx-font-size: 11px; -fx-font-weight: 900;");
+
+            SVGPath icon = new SVGPath();
+            // Bell/Alarm icon path
+            icon.setContent(
+                    "M12 22c1.1 0 2-.9 2-2h-4c0 1.1.9 2 2 2zm6-6v-5c0-3.07-1.63-5.64-4.5-6.32V4c0-.83-.67-1.5-1.5-1.5s-1.5.67-1.5 1.5v.68C7.64 5.36 6 7.92 6 11v5l-2 2v1h16v-1l-2-2z");
+            icon.setFill(Color.web("#FF5252")); // Neon Red
+            icon.setScaleX(0.6);
+            icon.setScaleY(0.6);
+
+            // Container for icon to ensure correct spacing/sizing
+            StackPane iconPane = new StackPane(icon);
+            iconPane.setPrefSize(16, 16);
+
+            countBox = new HBox(0, countLbl, iconPane);
+            countBox.setAlignment(Pos.CENTER_LEFT);
+
+            VBox content = new VBox(0, dateLbl, countBox);
+            content.setAlignment(Pos.TOP_LEFT);
+            setGraphic(content);
+        }
+
+        void bind(LocalDate date, int count) {
+            this.date = date;
+            if (date.getDayOfMonth() != day) {
+                day = date.getDayOfMonth();
+                dateLbl.setText(String.valueOf(day));
+            }
+            setCount(count);
+        }
+
+        void setCount(int count) {
+            if (count == this.count)
+                return;
+            this.count = count;
+            boolean hasEvents = count > 0;
+            countBox.setVisible(hasEvents);
+            countBox.setManaged(hasEvents);
+            if (hasEvents)
+                countLbl.setText(String.valueOf(count));
+        }
+
+        void setStyleClass(String styleClass, boolean on) {
+            boolean present = getStyleClass().contains(styleClass);
+            if (on && !present) {
+                getStyleClass().add(styleClass);
+            } else if (!on && present) {
+                getStyleClass().remove(styleClass);
+            }
+        }
+    }
+}
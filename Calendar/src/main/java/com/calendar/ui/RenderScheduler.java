@@ -0,0 +1,148 @@
+package com.calendar.ui;
+
+import javafx.application.Platform;
+import javafx.scene.Scene;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Dirty flags for the parts of the window that are rebuilt from the model.
+ * Handlers mark what they made stale; once per pulse, just before layout, a
+ * single pass rebuilds what is marked, each part once however often it was
+ * marked. A part that another rebuild covers is not rebuilt separately, e.g.
+ * day badges and the selection when the whole grid is redrawn anyway.
+ * <p>
+ * {@link #skipped()} counts the marks that did not need a rebuild of their
+ * own. FX thread only.
+ */
+public final class RenderScheduler {
+
+    /** Parts of the window, rebuilt in this order. */
+    public enum Area {
+        /** The month and year label. */
+        HEADER,
+        /** The calendar view as a whole: every cell of the month grid, or every day of the timeline. */
+        GRID,
+        /** Which day is highlighted as selected. */
+        SELECTION,
+        /** The selected day's label and event list. */
+        DETAILS
+    }
+
+    private final Map<Area, Runnable> renderers = new EnumMap<>(Area.class);
+    private Consumer<LocalDate> dayRenderer = date -> {
+    };
+    private final EnumSet<Area> dirty = EnumSet.noneOf(Area.class);
+    private final Set<LocalDate> dirtyDays = new LinkedHashSet<>();
+    private final Runnable requestPulse;
+    private boolean requested;
+
+    private long marks;
+    private long rebuilds;
+    private long passes;
+
+    /** Rebuilds in {@code scene}'s pulses. */
+    public RenderScheduler(Scene scene) {
+        this(Platform::requestNextPulse);
+        scene.addPreLayoutPulseListener(this::flush);
+    }
+
+    // For driving the pulses by hand, with requestPulse standing in for asking the toolkit for one
+    RenderScheduler(Runnable requestPulse) {
+        this.requestPulse = requestPulse;
+    }
+
+    /** What rebuilds {@code area}. */
+    public void setRenderer(Area area, Runnable renderer) {
+        renderers.put(area, renderer);
+    }
+
+    /** What refreshes one day of the calendar view, e.g. its badge in the grid. */
+    public void setDayRenderer(Consumer<LocalDate> renderer) {
+        dayRenderer = renderer;
+    }
+
+    public void invalidate(Area area) {
+        marks++;
+        dirty.add(area);
+        request();
+    }
+
+    /** Marks the several areas a change made stale. */
+    public void invalidate(Area first, Area... rest) {
+        invalidate(first);
+        for (Area area : rest) {
+            invalidate(area);
+        }
+    }
+
+    /** Marks one day of the calendar view stale, e.g. after an event was added on that day. */
+    public void invalidateDay(LocalDate date) {
+        marks++;
+        dirtyDays.add(date);
+        request();
+    }
+
+    /** Rebuilds whatever is marked now instead of at the next pulse. */
+    public void flush() {
+        requested = false;
+        if (dirty.isEmpty() && dirtyDays.isEmpty())
+            return;
+        // Taken up front, so marks made while rebuilding go to the next pass
+        EnumSet<Area> areas = EnumSet.copyOf(dirty);
+        List<LocalDate> days = new ArrayList<>(dirtyDays);
+        dirty.clear();
+        dirtyDays.clear();
+        passes++;
+
+        boolean grid = areas.contains(Area.GRID);
+        for (Area area : areas) {
+            if (area == Area.SELECTION && grid)
+                continue;
+            Runnable renderer = renderers.get(area);
+            if (renderer != null) {
+                renderer.run();
+                rebuilds++;
+            }
+        }
+        if (!grid) {
+            for (LocalDate date : days) {
+                dayRenderer.accept(date);
+                rebuilds++;
+            }
+        }
+    }
+
+    /** Passes that rebuilt anything. */
+    public long passes() {
+        return passes;
+    }
+
+    public long rebuilds() {
+        return rebuilds;
+    }
+
+    /** Marks folded into another mark or into a larger rebuild instead of causing a rebuild. */
+    public long skipped() {
+        return marks - rebuilds - pending();
+    }
+
+    private int pending() {
+        return dirty.size() + dirtyDays.size();
+    }
+
+    private void request() {
+        if (!requested) {
+            requested = true;
+            requestPulse.run();
+        }
+    }
+}
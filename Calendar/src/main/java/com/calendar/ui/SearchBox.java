@@ -0,0 +1,124 @@
+package com.calendar.ui;
+
+import com.calendar.search.SearchIndex;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.geometry.Side;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.CustomMenuItem;
+import javafx.scene.control.Label;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Search-as-you-type field with a drop-down of matching events.
+ * <p>
+ * Typing restarts a short pause; only when it runs out is the query handed to
+ * a background thread, so fast typing costs one search, not one per key, and
+ * the FX thread never waits on the index. Results from a query that has been
+ * overtaken by newer typing are dropped.
+ * <p>
+ * The box stays disabled until it is given an index, so it can be shown
+ * before the events have loaded.
+ */
+public class SearchBox extends TextField {
+
+    private static final Duration DEBOUNCE = Duration.millis(150);
+    private static final int MAX_RESULTS = 12;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("d MMM yy");
+
+    private SearchIndex index;
+    private final Consumer<SearchIndex.Hit> onSelect;
+    private final ContextMenu results = new ContextMenu();
+    private final PauseTransition pause = new PauseTransition(DEBOUNCE);
+    private final ExecutorService searcher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "calendar-search");
+        t.setDaemon(true);
+        return t;
+    });
+    private long generation; // FX thread only
+
+    /**
+     * @param onSelect called on the FX thread with the hit the user picked
+     */
+    public SearchBox(Consumer<SearchIndex.Hit> onSelect) {
+        this.onSelect = onSelect;
+        setPromptText("Loading events...");
+        setDisable(true);
+        getStyleClass().add("search-field");
+        results.getStyleClass().add("search-results");
+
+        pause.setOnFinished(e -> search(getText()));
+        textProperty().addListener((obs, oldText, newText) -> {
+            generation++;
+            if (newText.isBlank()) {
+                pause.stop();
+                results.hide();
+            } else {
+                pause.playFromStart();
+            }
+        });
+        // Enter skips the wait and opens the first match
+        setOnAction(e -> {
+            if (!results.getItems().isEmpty() && results.isShowing()) {
+                results.getItems().get(0).fire();
+            } else {
+                pause.stop();
+                search(getText());
+            }
+        });
+    }
+
+    /** Enables the box, searching {@code index} from now on. */
+    public void setIndex(SearchIndex index) {
+        this.index = index;
+        setPromptText("Search events");
+        setDisable(false);
+    }
+
+    private void search(String query) {
+        SearchIndex index = this.index;
+        if (index == null)
+            return;
+        long requested = generation;
+        LocalDate today = LocalDate.now();
+        searcher.execute(() -> {
+            List<SearchIndex.Hit> hits = index.search(query, MAX_RESULTS, today);
+            Platform.runLater(() -> {
+                if (requested == generation)
+                    show(hits);
+            });
+        });
+    }
+
+    private void show(List<SearchIndex.Hit> hits) {
+        if (hits.isEmpty()) {
+            Label none = new Label("No matching events");
+            CustomMenuItem item = new CustomMenuItem(none, false);
+            item.setDisable(true);
+            results.getItems().setAll(item);
+        } else {
+            MenuItem[] items = new MenuItem[hits.size()];
+            for (int i = 0; i < items.length; i++) {
+                SearchIndex.Hit hit = hits.get(i);
+                items[i] = new MenuItem(hit.date().format(DATE_FORMAT).toUpperCase() + "   "
+                        + hit.event().getTitle() + "   " + hit.event().getTime());
+                items[i].setOnAction(e -> {
+                    results.hide();
+                    onSelect.accept(hit);
+                });
+            }
+            results.getItems().setAll(items);
+        }
+        if (!results.isShowing() && getScene() != null)
+            results.show(this, Side.BOTTOM, 0, 0);
+    }
+}
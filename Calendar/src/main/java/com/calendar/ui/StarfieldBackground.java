@@ -0,0 +1,261 @@
+package com.calendar.ui;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.stage.Stage;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The drifting, twinkling star field behind the calendar.
+ * <p>
+ * Frames are capped at a target rate rather than drawn on every pulse, and
+ * motion is scaled by elapsed time so the cap does not change the speed.
+ * Opacity is quantized into a fixed set of precomputed colours and stars are
+ * drawn grouped by colour, so a frame allocates nothing and sets the fill once
+ * per bucket instead of once per star. If frames arrive late the number of
+ * stars drawn is reduced, and it creeps back up once frames are on time again.
+ * The animation stops while the window is minimized or hidden, and can be
+ * turned off entirely, leaving a plain background.
+ */
+public class StarfieldBackground {
+
+    /** Told about every drawn frame, e.g. by diagnostics. Without one nothing is measured. */
+    public interface FrameObserver {
+        /**
+         * @param drawNanos     time spent moving and drawing the stars
+         * @param droppedPulses 60Hz pulses that never reached the timer since the last frame
+         * @param stars         stars drawn
+         */
+        void frameDrawn(long drawNanos, int droppedPulses, int stars);
+    }
+
+    private static final Color BACKGROUND = Color.web("#0b0b0b");
+    private static final int OPACITY_BUCKETS = 16;
+    private static final double MIN_OPACITY = 0.2;
+    private static final Color[] STAR_COLORS = new Color[OPACITY_BUCKETS];
+    private static final double BASE_FRAME_NANOS = 1_000_000_000.0 / 60; // Speeds below are per 60Hz frame
+    private static final long PULSE_SLACK_NANOS = 2_000_000; // Pulses jitter; don't skip one that is nearly due
+
+    static {
+        for (int b = 0; b < OPACITY_BUCKETS; b++) {
+            STAR_COLORS[b] = Color.color(1, 1, 1, MIN_OPACITY + (1 - MIN_OPACITY) * b / (OPACITY_BUCKETS - 1));
+        }
+    }
+
+    private final Canvas canvas;
+    private final GraphicsContext gc;
+    private final long frameIntervalNanos;
+    private final int maxParticles;
+    private final int minParticles;
+
+    private final double[] x;
+    private final double[] y;
+    private final double[] vx;
+    private final double[] vy;
+    private final double[] size;
+    private final double[] opacity;
+    private final double[] opacitySpeed;
+    // Scratch space for grouping stars by colour bucket
+    private final int[] bucketStart = new int[OPACITY_BUCKETS + 1];
+    private final int[] order;
+    private final byte[] bucketOf;
+
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            frame(now);
+        }
+    };
+
+    private int activeParticles;
+    private long lastFrame;
+    private double avgFrameNanos;
+    private int onTimeFrames;
+    private FrameObserver frameObserver;
+    private long lastPulse;
+    private int droppedPulses;
+    private boolean enabled = true;
+    private boolean paused;
+    private boolean running;
+
+    /**
+     * @param targetFps    frames per second to draw at most
+     * @param maxParticles stars drawn when frames keep up
+     */
+    public StarfieldBackground(Canvas canvas, int targetFps, int maxParticles) {
+        this.canvas = canvas;
+        this.gc = canvas.getGraphicsContext2D();
+        this.frameIntervalNanos = 1_000_000_000L / Math.max(1, targetFps);
+        this.maxParticles = Math.max(1, maxParticles);
+        this.minParticles = Math.max(1, this.maxParticles / 5);
+        this.activeParticles = this.maxParticles;
+
+        x = new double[this.maxParticles];
+        y = new double[this.maxParticles];
+        vx = new double[this.maxParticles];
+        vy = new double[this.maxParticles];
+        size = new double[this.maxParticles];
+        opacity = new double[this.maxParticles];
+        opacitySpeed = new double[this.maxParticles];
+        order = new int[this.maxParticles];
+        bucketOf = new byte[this.maxParticles];
+
+        Random rand = new Random();
+        for (int i = 0; i < this.maxParticles; i++) {
+            x[i] = rand.nextDouble() * 1000;
+            y[i] = rand.nextDouble() * 700;
+            // Very slow drift
+            vx[i] = (rand.nextDouble() - 0.5) * 0.2;
+            vy[i] = (rand.nextDouble() - 0.5) * 0.2;
+            size[i] = 1 + rand.nextDouble() * 3; // Small stars
+            opacity[i] = rand.nextDouble();
+            opacitySpeed[i] = (rand.nextDouble() - 0.5) * 0.02; // Twinkle speed
+        }
+    }
+
+    /** Pauses the animation whenever {@code stage} is minimized or not showing. */
+    public void pauseWhenHidden(Stage stage) {
+        stage.iconifiedProperty().addListener((obs, was, iconified) -> setPaused(iconified || !stage.isShowing()));
+        stage.showingProperty().addListener((obs, was, showing) -> setPaused(!showing || stage.isIconified()));
+    }
+
+    public void start() {
+        running = true;
+        update();
+    }
+
+    public void stop() {
+        running = false;
+        update();
+    }
+
+    /** Turns the stars off (plain background) or back on. */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        update();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setFrameObserver(FrameObserver observer) {
+        this.frameObserver = observer;
+        lastPulse = 0;
+        droppedPulses = 0;
+    }
+
+    /** Stars currently drawn per frame, after adapting to frame time. */
+    public int getActiveParticles() {
+        return activeParticles;
+    }
+
+    private void setPaused(boolean paused) {
+        this.paused = paused;
+        update();
+    }
+
+    private void update() {
+        if (running && enabled && !paused) {
+            lastFrame = 0;
+            lastPulse = 0; // A pause is not a run of dropped pulses
+            timer.start();
+        } else {
+            timer.stop();
+            if (!enabled) {
+                gc.setFill(BACKGROUND);
+                gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            }
+        }
+    }
+
+    private void frame(long now) {
+        FrameObserver observer = frameObserver;
+        if (observer != null) {
+            if (lastPulse != 0)
+                droppedPulses += Math.max(0, (int) Math.round((now - lastPulse) / BASE_FRAME_NANOS) - 1);
+            lastPulse = now;
+        }
+        if (lastFrame != 0 && now - lastFrame < frameIntervalNanos - PULSE_SLACK_NANOS)
+            return; // Frame cap: skip this pulse
+        long drawStart = observer != null ? System.nanoTime() : 0;
+        double elapsed = lastFrame == 0 ? frameIntervalNanos : now - lastFrame;
+        lastFrame = now;
+        adaptParticleCount(elapsed);
+
+        double step = elapsed / BASE_FRAME_NANOS;
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        int n = activeParticles;
+
+        // Move, twinkle and count stars per opacity bucket
+        Arrays.fill(bucketStart, 0);
+        for (int i = 0; i < n; i++) {
+            x[i] += vx[i] * step;
+            y[i] += vy[i] * step;
+
+            // Wrap around screen
+            if (x[i] < -10)
+                x[i] = width + 10;
+            if (x[i] > width + 10)
+                x[i] = -10;
+            if (y[i] < -10)
+                y[i] = height + 10;
+            if (y[i] > height + 10)
+                y[i] = -10;
+
+            opacity[i] += opacitySpeed[i] * step;
+            if (opacity[i] > 1.0 || opacity[i] < MIN_OPACITY) {
+                opacitySpeed[i] = -opacitySpeed[i]; // Reverse twinkle direction
+            }
+            double clamped = Math.max(MIN_OPACITY, Math.min(1.0, opacity[i]));
+            int bucket = (int) Math.round((clamped - MIN_OPACITY) / (1 - MIN_OPACITY) * (OPACITY_BUCKETS - 1));
+            bucketOf[i] = (byte) bucket;
+            bucketStart[bucket + 1]++;
+        }
+        for (int b = 0; b < OPACITY_BUCKETS; b++) {
+            bucketStart[b + 1] += bucketStart[b];
+        }
+        for (int i = 0; i < n; i++) {
+            order[bucketStart[bucketOf[i]]++] = i;
+        }
+
+        // Clear background, then one fill colour per bucket
+        gc.setFill(BACKGROUND);
+        gc.fillRect(0, 0, width, height);
+        int k = 0;
+        for (int b = 0; b < OPACITY_BUCKETS; b++) {
+            int end = bucketStart[b];
+            if (k == end)
+                continue;
+            gc.setFill(STAR_COLORS[b]);
+            for (; k < end; k++) {
+                int i = order[k];
+                gc.fillOval(x[i], y[i], size[i], size[i]);
+            }
+        }
+
+        if (observer != null) {
+            observer.frameDrawn(System.nanoTime() - drawStart, droppedPulses, n);
+            droppedPulses = 0;
+        }
+    }
+
+    private void adaptParticleCount(double elapsedNanos) {
+        avgFrameNanos = avgFrameNanos == 0 ? elapsedNanos : avgFrameNanos * 0.9 + elapsedNanos * 0.1;
+        if (avgFrameNanos > frameIntervalNanos * 1.25) {
+            // Falling behind: shed stars quickly
+            activeParticles = Math.max(minParticles, activeParticles - Math.max(1, activeParticles / 10));
+            avgFrameNanos = frameIntervalNanos;
+            onTimeFrames = 0;
+        } else if (activeParticles < maxParticles && ++onTimeFrames >= 60) {
+            // On time for a while: add a few back
+            activeParticles = Math.min(maxParticles, activeParticles + Math.max(1, maxParticles / 20));
+            onTimeFrames = 0;
+        }
+    }
+}
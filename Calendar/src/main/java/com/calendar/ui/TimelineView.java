@@ -0,0 +1,484 @@
+package com.calendar.ui;
+
+import com.calendar.model.Event;
+import com.calendar.schedule.DayLayout;
+import javafx.animation.AnimationTimer;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+import java.time.LocalDate;
+import java.time.format.TextStyle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Hour-by-hour view of one day or a week, drawn on a {@link Canvas} like the
+ * star field rather than built from nodes, so a crowded week costs draw calls
+ * instead of thousands of scene-graph nodes.
+ * <p>
+ * The canvas holds all 24 hours and scrolling just moves it under a clip, so a
+ * scroll redraws nothing. Everything else repaints only what it changed:
+ * hovering the old and the new event, replacing a day its column, and only
+ * showing other days or resizing everything. Changes are collected into one
+ * dirty rectangle, painted at most once per pulse. Hover and clicks go through
+ * a per-day grid of 15-minute buckets listing the events in each, so a hit
+ * test looks at a handful of events however full the week is.
+ * <p>
+ * Overlapping events are placed side by side as {@link DayLayout} says.
+ * All-day events are counted in the header. FX thread only.
+ */
+public class TimelineView extends Region {
+
+    private static final double HOUR_HEIGHT = 48;
+    private static final double PX_PER_MINUTE = HOUR_HEIGHT / 60;
+    private static final double CONTENT_HEIGHT = 24 * HOUR_HEIGHT;
+    private static final double GUTTER = 48; // Hour labels
+    private static final double HEADER_HEIGHT = 40;
+    private static final int MIN_EVENT_MINUTES = 15;
+    private static final int SLOT_MINUTES = 15;
+    private static final int SLOTS = 24 * 60 / SLOT_MINUTES;
+    private static final double CHAR_WIDTH = 6.5; // Roughly, at the event font size
+
+    private static final Color GRID_LINE = Color.rgb(255, 255, 255, 0.07);
+    private static final Color BACKGROUND = Color.rgb(255, 255, 255, 0.02);
+    private static final Color EVENT_FILL = Color.rgb(255, 255, 255, 0.12);
+    private static final Color EVENT_HOVER = Color.rgb(255, 255, 255, 0.28);
+    private static final Color EVENT_EDGE = Color.web("#F8FF9C");
+    private static final Color TEXT = Color.WHITE;
+    private static final Color DIM_TEXT = Color.rgb(255, 255, 255, 0.5);
+    private static final Font EVENT_FONT = Font.font(11);
+    private static final Font HEADER_FONT = Font.font(null, FontWeight.BOLD, 13);
+
+    private final Canvas header = new Canvas();
+    private final Canvas body = new Canvas();
+    private final GraphicsContext gc = body.getGraphicsContext2D();
+
+    private LocalDate[] days = new LocalDate[0];
+    private DayLayout[] layouts = new DayLayout[0];
+    private HitIndex[] hits = new HitIndex[0];
+    private LocalDate selected;
+    private double scrollY;
+    private int hoverDay = -1;
+    private int hoverEvent = -1;
+
+    // Painted on the next pulse; one rectangle covering everything marked
+    private boolean dirty;
+    private double dirtyX0;
+    private double dirtyY0;
+    private double dirtyX1;
+    private double dirtyY1;
+    private boolean headerDirty;
+    private final AnimationTimer painter = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            stop();
+            flush();
+        }
+    };
+    // Scratch for collecting a column's events to paint; stamps drop ones found in several buckets
+    private int[] visible = new int[64];
+    private int[] stamps = new int[0];
+    private int stamp;
+
+    /**
+     * @param onEventClicked called with the day and the event when an event is clicked
+     * @param onDayClicked   called when a day's empty space or header is clicked
+     */
+    public TimelineView(BiConsumer<LocalDate, Event> onEventClicked, Consumer<LocalDate> onDayClicked) {
+        getStyleClass().add("timeline");
+        body.setHeight(CONTENT_HEIGHT);
+        header.setHeight(HEADER_HEIGHT);
+        getChildren().addAll(body, header);
+
+        Rectangle clip = new Rectangle();
+        clip.widthProperty().bind(widthProperty());
+        clip.heightProperty().bind(heightProperty());
+        setClip(clip);
+
+        setOnScroll(e -> scrollBy(-e.getDeltaY()));
+        body.setOnMouseMoved(e -> hover(e.getX(), e.getY()));
+        body.setOnMouseExited(e -> setHover(-1, -1));
+        body.setOnMouseClicked(e -> {
+            int day = dayAt(e.getX());
+            if (day < 0)
+                return;
+            int i = hitTest(day, e.getX(), e.getY());
+            if (i >= 0) {
+                onEventClicked.accept(days[day], layouts[day].event(i));
+            } else {
+                onDayClicked.accept(days[day]);
+            }
+        });
+        header.setOnMouseClicked(e -> {
+            int day = dayAt(e.getX());
+            if (day >= 0)
+                onDayClicked.accept(days[day]);
+        });
+    }
+
+    /** Shows {@code dayEvents.get(i)}, sorted by start time, for {@code dates.get(i)}. Repaints everything. */
+    public void setDays(List<LocalDate> dates, List<List<Event>> dayEvents) {
+        int n = dates.size();
+        days = dates.toArray(new LocalDate[0]);
+        layouts = new DayLayout[n];
+        hits = new HitIndex[n];
+        for (int d = 0; d < n; d++) {
+            layouts[d] = DayLayout.of(dayEvents.get(d), MIN_EVENT_MINUTES);
+            hits[d] = new HitIndex(layouts[d]);
+        }
+        hoverDay = -1;
+        hoverEvent = -1;
+        headerDirty = true;
+        markAll();
+    }
+
+    /** Replaces one shown day's events, e.g. after an edit; repaints just its column. Ignored if not shown. */
+    public void setDay(LocalDate date, List<Event> dayEvents) {
+        int d = indexOf(date);
+        if (d < 0)
+            return;
+        layouts[d] = DayLayout.of(dayEvents, MIN_EVENT_MINUTES);
+        hits[d] = new HitIndex(layouts[d]);
+        if (hoverDay == d) {
+            hoverDay = -1;
+            hoverEvent = -1;
+        }
+        headerDirty = true;
+        double x = dayX(d);
+        mark(x, 0, x + dayWidth(), CONTENT_HEIGHT);
+    }
+
+    /** The days shown, in order. */
+    public List<LocalDate> days() {
+        return List.of(days);
+    }
+
+    public boolean shows(LocalDate date) {
+        return indexOf(date) >= 0;
+    }
+
+    /** Highlights {@code date}'s header, if it is shown. */
+    public void setSelected(LocalDate date) {
+        selected = date;
+        headerDirty = true;
+        painter.start();
+    }
+
+    /** Scrolls so that {@code minute} of the day is at the top. */
+    public void scrollToMinute(int minute) {
+        scrollBy(minute * PX_PER_MINUTE - scrollY);
+    }
+
+    /** Moves the canvas; nothing is redrawn. */
+    public void scrollBy(double pixels) {
+        double max = Math.max(0, CONTENT_HEIGHT - (getHeight() - HEADER_HEIGHT));
+        scrollY = Math.max(0, Math.min(max, scrollY + pixels));
+        body.setLayoutY(HEADER_HEIGHT - scrollY);
+    }
+
+    /** Paints whatever is marked now instead of at the next pulse. */
+    public void flush() {
+        if (headerDirty) {
+            headerDirty = false;
+            paintHeader();
+        }
+        if (dirty) {
+            dirty = false;
+            paint(dirtyX0, dirtyY0, dirtyX1, dirtyY1);
+        }
+    }
+
+    /** Hovers whatever is at {@code (x, y)} in the body canvas. */
+    public void hover(double x, double y) {
+        int day = dayAt(x);
+        int i = day < 0 ? -1 : hitTest(day, x, y);
+        setHover(i < 0 ? -1 : day, i);
+    }
+
+    @Override
+    protected void layoutChildren() {
+        double width = getWidth();
+        if (body.getWidth() != width) {
+            body.setWidth(width);
+            header.setWidth(width);
+            headerDirty = true;
+            markAll();
+        }
+        header.relocate(0, 0);
+        scrollBy(0); // Re-clamp to the new height
+        body.setLayoutX(0);
+    }
+
+    @Override
+    protected double computePrefWidth(double height) {
+        return 700;
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        return HEADER_HEIGHT + 12 * HOUR_HEIGHT;
+    }
+
+    private void setHover(int day, int event) {
+        if (day == hoverDay && event == hoverEvent)
+            return;
+        if (hoverEvent >= 0)
+            markEvent(hoverDay, hoverEvent);
+        hoverDay = day;
+        hoverEvent = event;
+        if (event >= 0)
+            markEvent(day, event);
+    }
+
+    private int indexOf(LocalDate date) {
+        for (int d = 0; d < days.length; d++) {
+            if (days[d].equals(date))
+                return d;
+        }
+        return -1;
+    }
+
+    private double dayWidth() {
+        return days.length == 0 ? 0 : (body.getWidth() - GUTTER) / days.length;
+    }
+
+    private double dayX(int day) {
+        return GUTTER + day * dayWidth();
+    }
+
+    private int dayAt(double x) {
+        if (x < GUTTER || days.length == 0)
+            return -1;
+        int day = (int) ((x - GUTTER) / dayWidth());
+        return day < days.length ? day : -1;
+    }
+
+    // Topmost event in the bucket under the point, i.e. the last one painted
+    private int hitTest(int day, double x, double y) {
+        DayLayout layout = layouts[day];
+        HitIndex index = hits[day];
+        int minute = (int) (y / PX_PER_MINUTE);
+        if (minute < 0 || minute >= 24 * 60)
+            return -1;
+        int slot = minute / SLOT_MINUTES;
+        double width = dayWidth();
+        double left = dayX(day);
+        for (int k = index.slotStarts[slot + 1] - 1; k >= index.slotStarts[slot]; k--) {
+            int i = index.entries[k];
+            if (minute < layout.start(i) || minute >= layout.end(i))
+                continue;
+            double columnWidth = width / layout.columnCount(i);
+            double ex = left + layout.column(i) * columnWidth;
+            if (x >= ex && x < ex + columnWidth)
+                return i;
+        }
+        return -1;
+    }
+
+    private void markEvent(int day, int i) {
+        DayLayout layout = layouts[day];
+        double columnWidth = dayWidth() / layout.columnCount(i);
+        double x = dayX(day) + layout.column(i) * columnWidth;
+        mark(x - 1, layout.start(i) * PX_PER_MINUTE - 1, x + columnWidth + 1, layout.end(i) * PX_PER_MINUTE + 1);
+    }
+
+    private void markAll() {
+        mark(0, 0, body.getWidth(), CONTENT_HEIGHT);
+    }
+
+    private void mark(double x0, double y0, double x1, double y1) {
+        if (dirty) {
+            dirtyX0 = Math.min(dirtyX0, x0);
+            dirtyY0 = Math.min(dirtyY0, y0);
+            dirtyX1 = Math.max(dirtyX1, x1);
+            dirtyY1 = Math.max(dirtyY1, y1);
+        } else {
+            dirty = true;
+            dirtyX0 = x0;
+            dirtyY0 = y0;
+            dirtyX1 = x1;
+            dirtyY1 = y1;
+        }
+        painter.start();
+    }
+
+    private void paint(double x0, double y0, double x1, double y1) {
+        x0 = Math.max(0, Math.floor(x0));
+        y0 = Math.max(0, Math.floor(y0));
+        x1 = Math.min(body.getWidth(), Math.ceil(x1));
+        y1 = Math.min(CONTENT_HEIGHT, Math.ceil(y1));
+        if (x1 <= x0 || y1 <= y0)
+            return;
+        if (x0 == 0 && y0 == 0 && x1 == body.getWidth() && y1 == CONTENT_HEIGHT)
+            gc.clearRect(0, 0, x1, y1); // Unclipped, so drawing still queued from earlier paints is dropped
+        gc.save();
+        gc.beginPath();
+        gc.rect(x0, y0, x1 - x0, y1 - y0);
+        gc.clip();
+        gc.clearRect(x0, y0, x1 - x0, y1 - y0);
+        gc.setFill(BACKGROUND);
+        gc.fillRect(x0, y0, x1 - x0, y1 - y0);
+
+        // Hour lines and labels, then day separators
+        gc.setStroke(GRID_LINE);
+        gc.setLineWidth(1);
+        gc.setFont(EVENT_FONT);
+        gc.setFill(DIM_TEXT);
+        int firstHour = (int) (y0 / HOUR_HEIGHT);
+        int lastHour = Math.min(23, (int) (y1 / HOUR_HEIGHT));
+        for (int h = firstHour; h <= lastHour; h++) {
+            double y = h * HOUR_HEIGHT + 0.5;
+            gc.strokeLine(GUTTER, y, x1, y);
+            if (x0 < GUTTER)
+                gc.fillText(String.format("%02d:00", h), 6, y + 12);
+        }
+        for (int d = 0; d <= days.length; d++) {
+            double x = Math.floor(dayX(d)) + 0.5;
+            if (x >= x0 - 1 && x <= x1 + 1)
+                gc.strokeLine(x, y0, x, y1);
+        }
+
+        int firstDay = x0 <= GUTTER ? 0 : (int) ((x0 - GUTTER) / dayWidth());
+        int lastDay = x1 <= GUTTER ? -1 : Math.min(days.length - 1, (int) ((x1 - GUTTER) / dayWidth()));
+        int firstSlot = (int) (y0 / PX_PER_MINUTE) / SLOT_MINUTES;
+        int lastSlot = Math.min(SLOTS - 1, (int) (y1 / PX_PER_MINUTE) / SLOT_MINUTES);
+        for (int d = firstDay; d <= lastDay; d++) {
+            paintEvents(d, firstSlot, lastSlot);
+        }
+        gc.restore();
+    }
+
+    // Fills, then edges, then titles, so the fill colour changes three times per column, not per event
+    private void paintEvents(int day, int firstSlot, int lastSlot) {
+        DayLayout layout = layouts[day];
+        HitIndex index = hits[day];
+        if (stamps.length < layout.size())
+            stamps = new int[layout.size()];
+        if (++stamp == 0) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+        int n = 0;
+        for (int k = index.slotStarts[firstSlot]; k < index.slotStarts[lastSlot + 1]; k++) {
+            int i = index.entries[k];
+            if (stamps[i] == stamp)
+                continue;
+            stamps[i] = stamp;
+            if (n == visible.length)
+                visible = Arrays.copyOf(visible, n * 2);
+            visible[n++] = i;
+        }
+        if (n == 0)
+            return;
+
+        double left = dayX(day);
+        double width = dayWidth();
+        gc.setFill(EVENT_FILL);
+        for (int k = 0; k < n; k++) {
+            int i = visible[k];
+            if (day != hoverDay || i != hoverEvent)
+                fillEvent(layout, i, left, width, 0);
+        }
+        if (day == hoverDay && hoverEvent >= 0 && stamps[hoverEvent] == stamp) {
+            gc.setFill(EVENT_HOVER);
+            fillEvent(layout, hoverEvent, left, width, 0);
+        }
+        gc.setFill(EVENT_EDGE);
+        for (int k = 0; k < n; k++) {
+            fillEvent(layout, visible[k], left, width, 2);
+        }
+        gc.setFill(TEXT);
+        for (int k = 0; k < n; k++) {
+            int i = visible[k];
+            double columnWidth = width / layout.columnCount(i);
+            double height = (layout.end(i) - layout.start(i)) * PX_PER_MINUTE;
+            int chars = (int) ((columnWidth - 10) / CHAR_WIDTH);
+            if (chars < 3 || height < 14)
+                continue;
+            String title = layout.event(i).getTitle();
+            if (title.length() > chars)
+                title = title.substring(0, chars - 1) + "\u2026";
+            gc.fillText(title, left + layout.column(i) * columnWidth + 6, layout.start(i) * PX_PER_MINUTE + 12);
+        }
+    }
+
+    // The event's box, or with barWidth > 0 just a bar of that width along its left edge
+    private void fillEvent(DayLayout layout, int i, double left, double width, double barWidth) {
+        double columnWidth = width / layout.columnCount(i);
+        double x = left + layout.column(i) * columnWidth + 1;
+        double y = layout.start(i) * PX_PER_MINUTE + 1;
+        double h = (layout.end(i) - layout.start(i)) * PX_PER_MINUTE - 2;
+        gc.fillRect(x, y, barWidth > 0 ? Math.min(barWidth, columnWidth - 2) : columnWidth - 2, h);
+    }
+
+    private void paintHeader() {
+        GraphicsContext g = header.getGraphicsContext2D();
+        double width = header.getWidth();
+        g.clearRect(0, 0, width, HEADER_HEIGHT);
+        g.setFill(Color.rgb(5, 5, 5, 0.9));
+        g.fillRect(0, 0, width, HEADER_HEIGHT);
+        for (int d = 0; d < days.length; d++) {
+            double x = dayX(d);
+            LocalDate date = days[d];
+            if (date.equals(selected)) {
+                g.setFill(EVENT_FILL);
+                g.fillRect(x + 1, 2, dayWidth() - 2, HEADER_HEIGHT - 4);
+            }
+            g.setFill(TEXT);
+            g.setFont(HEADER_FONT);
+            g.fillText(date.getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.ENGLISH).toUpperCase() + " "
+                    + date.getDayOfMonth(), x + 6, 17);
+            int allDay = layouts[d].allDay().size();
+            if (allDay > 0) {
+                g.setFill(DIM_TEXT);
+                g.setFont(EVENT_FONT);
+                g.fillText(allDay + " all day", x + 6, 33);
+            }
+        }
+    }
+
+    /**
+     * Which events touch each 15-minute slot of a day, as one array per slot
+     * packed into {@code entries}: slot {@code s} holds
+     * {@code entries[slotStarts[s] .. slotStarts[s + 1])}, in layout order.
+     */
+    private static final class HitIndex {
+        final int[] slotStarts = new int[SLOTS + 1];
+        final int[] entries;
+
+        HitIndex(DayLayout layout) {
+            int n = layout.size();
+            for (int i = 0; i < n; i++) {
+                for (int s = firstSlot(layout, i); s <= lastSlot(layout, i); s++) {
+                    slotStarts[s + 1]++;
+                }
+            }
+            for (int s = 0; s < SLOTS; s++) {
+                slotStarts[s + 1] += slotStarts[s];
+            }
+            entries = new int[slotStarts[SLOTS]];
+            int[] next = Arrays.copyOf(slotStarts, SLOTS);
+            for (int i = 0; i < n; i++) {
+                for (int s = firstSlot(layout, i); s <= lastSlot(layout, i); s++) {
+                    entries[next[s]++] = i;
+                }
+            }
+        }
+
+        private static int firstSlot(DayLayout layout, int i) {
+            return layout.start(i) / SLOT_MINUTES;
+        }
+
+        private static int lastSlot(DayLayout layout, int i) {
+            return (layout.end(i) - 1) / SLOT_MINUTES;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.calendar.ui;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * How busy every day of one or more whole years is, as a heatmap on a single
+ * {@link Canvas}: one square per day, brighter the more events it has. Each
+ * year is a row of week columns with Monday on top, years stacked oldest
+ * first.
+ * <p>
+ * Counts come in per month, as {@code MonthSummaries} keeps them, so showing
+ * ten years reads 120 small arrays and no events. After that a changed day
+ * repaints only its square, unless its count widens the colour scale, and
+ * moving the selection repaints the two squares involved; at most once per
+ * pulse. Clicking a day reports it. FX thread only.
+ */
+public class YearHeatmap extends Region {
+
+    private static final double GUTTER = 48; // Year labels
+    private static final double LABEL_HEIGHT = 16; // Month names above each year
+    private static final double YEAR_GAP = 10;
+    private static final int WEEKS = 54; // Columns a year can touch, partial weeks included
+
+    private static final Color EMPTY = Color.rgb(255, 255, 255, 0.06);
+    private static final Color[] LEVELS = { Color.web("#F8FF9C", 0.25), Color.web("#F8FF9C", 0.45),
+            Color.web("#F8FF9C", 0.7), Color.web("#F8FF9C") };
+    private static final Color SELECTED = Color.WHITE;
+    private static final Color TEXT = Color.WHITE;
+    private static final Color DIM_TEXT = Color.rgb(255, 255, 255, 0.5);
+    private static final Font YEAR_FONT = Font.font(null, FontWeight.BOLD, 13);
+    private static final Font MONTH_FONT = Font.font(10);
+
+    private final Canvas canvas = new Canvas();
+    private final GraphicsContext gc = canvas.getGraphicsContext2D();
+
+    private int firstYear;
+    private int[][] counts = new int[0][]; // Per month from January of firstYear; index 0 is the 1st
+    private int max; // Top of the colour scale
+    private LocalDate selected;
+
+    // Painted on the next pulse
+    private boolean fullyDirty;
+    private final List<LocalDate> dirtyDays = new ArrayList<>();
+    private final AnimationTimer painter = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            stop();
+            flush();
+        }
+    };
+
+    /** @param onDayClicked called with the date when a day is clicked */
+    public YearHeatmap(Consumer<LocalDate> onDayClicked) {
+        getStyleClass().add("year-heatmap");
+        getChildren().add(canvas);
+        canvas.setOnMouseClicked(e -> {
+            LocalDate date = dayAt(e.getX(), e.getY());
+            if (date != null)
+                onDayClicked.accept(date);
+        });
+    }
+
+    /**
+     * Shows the years from {@code firstYear}, {@code monthCounts.length / 12}
+     * of them; {@code monthCounts[m][d - 1]} is the event count for day d of
+     * the m-th month from January of {@code firstYear}. Repaints everything.
+     */
+    public void show(int firstYear, int[][] monthCounts, LocalDate selectedDate) {
+        this.firstYear = firstYear;
+        counts = monthCounts;
+        selected = selectedDate;
+        max = 0;
+        for (int[] month : monthCounts) {
+            for (int count : month) {
+                max = Math.max(max, count);
+            }
+        }
+        markAll();
+    }
+
+    /** Updates one day's count, e.g. after an edit; repaints just its square. Ignored if not shown. */
+    public void setCount(LocalDate date, int count) {
+        if (!shows(date))
+            return;
+        counts[monthIndex(date)][date.getDayOfMonth() - 1] = count;
+        if (count > max) {
+            max = count; // Every other square's shade depends on the scale
+            markAll();
+        } else {
+            markDay(date);
+        }
+    }
+
+    public boolean shows(LocalDate date) {
+        int m = monthIndex(date);
+        return m >= 0 && m < counts.length;
+    }
+
+    /** Outlines {@code date}'s square, if it is shown. */
+    public void setSelected(LocalDate date) {
+        LocalDate previous = selected;
+        selected = date;
+        if (previous != null && shows(previous))
+            markDay(previous);
+        if (date != null && shows(date))
+            markDay(date);
+    }
+
+    /** Paints whatever is marked now instead of at the next pulse. */
+    public void flush() {
+        if (fullyDirty) {
+            fullyDirty = false;
+            dirtyDays.clear();
+            paintAll();
+        } else if (!dirtyDays.isEmpty()) {
+            for (LocalDate date : dirtyDays) {
+                paintDay(date);
+            }
+            dirtyDays.clear();
+        }
+    }
+
+    @Override
+    protected void layoutChildren() {
+        if (canvas.getWidth() != getWidth() || canvas.getHeight() != getHeight()) {
+            canvas.setWidth(getWidth());
+            canvas.setHeight(getHeight());
+            markAll();
+        }
+    }
+
+    @Override
+    protected double computePrefWidth(double height) {
+        return 700;
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        return 560;
+    }
+
+    private int years() {
+        return counts.length / 12;
+    }
+
+    private int monthIndex(LocalDate date) {
+        return (date.getYear() - firstYear) * 12 + date.getMonthValue() - 1;
+    }
+
+    private double cellWidth() {
+        return Math.floor((canvas.getWidth() - GUTTER) / WEEKS);
+    }
+
+    // As tall as wide, unless that would not fit every year
+    private double cellHeight() {
+        int years = Math.max(1, years());
+        double fit = (canvas.getHeight() - years * (LABEL_HEIGHT + YEAR_GAP)) / (7 * years);
+        return Math.max(2, Math.floor(Math.min(cellWidth(), fit)));
+    }
+
+    private double yearY(int year) {
+        return year * (LABEL_HEIGHT + 7 * cellHeight() + YEAR_GAP);
+    }
+
+    // Monday-based weekday of 1 January, i.e. how many squares the first week column skips
+    private static int yearOffset(int year) {
+        return Year.of(year).atDay(1).getDayOfWeek().getValue() - 1;
+    }
+
+    private LocalDate dayAt(double x, double y) {
+        double cellWidth = cellWidth();
+        double cellHeight = cellHeight();
+        if (x < GUTTER || cellWidth <= 0)
+            return null;
+        double block = LABEL_HEIGHT + 7 * cellHeight + YEAR_GAP;
+        int year = (int) (y / block);
+        double inBlock = y - year * block - LABEL_HEIGHT;
+        if (year >= years() || inBlock < 0 || inBlock >= 7 * cellHeight)
+            return null;
+        int week = (int) ((x - GUTTER) / cellWidth);
+        int dayOfYear = week * 7 + (int) (inBlock / cellHeight) - yearOffset(firstYear + year) + 1;
+        Year shown = Year.of(firstYear + year);
+        return dayOfYear >= 1 && dayOfYear <= shown.length() ? shown.atDay(dayOfYear) : null;
+    }
+
+    private void markDay(LocalDate date) {
+        if (!fullyDirty)
+            dirtyDays.add(date);
+        painter.start();
+    }
+
+    private void markAll() {
+        fullyDirty = true;
+        painter.start();
+    }
+
+    private void paintAll() {
+        double width = canvas.getWidth();
+        gc.clearRect(0, 0, width, canvas.getHeight());
+        if (width <= GUTTER)
+            return;
+        double cellWidth = cellWidth();
+        double cellHeight = cellHeight();
+        boolean longNames = cellWidth >= 7;
+        for (int year = 0; year < years(); year++) {
+            double top = yearY(year);
+            int offset = yearOffset(firstYear + year);
+            gc.setFill(TEXT);
+            gc.setFont(YEAR_FONT);
+            gc.fillText(Integer.toString(firstYear + year), 4, top + LABEL_HEIGHT + 12);
+
+            // Month names over the week each month starts in, then the squares a month at a time
+            int dayOfYear = 0;
+            for (int month = 0; month < 12; month++) {
+                int[] monthCounts = counts[year * 12 + month];
+                gc.setFill(DIM_TEXT);
+                gc.setFont(MONTH_FONT);
+                String name = Month.of(month + 1).getDisplayName(TextStyle.SHORT, Locale.ENGLISH).toUpperCase();
+                gc.fillText(longNames ? name : name.substring(0, 1),
+                        GUTTER + (dayOfYear + offset) / 7 * cellWidth, top + LABEL_HEIGHT - 4);
+                for (int day = 0; day < monthCounts.length; day++, dayOfYear++) {
+                    int i = dayOfYear + offset;
+                    gc.setFill(fill(monthCounts[day]));
+                    gc.fillRect(GUTTER + i / 7 * cellWidth, top + LABEL_HEIGHT + i % 7 * cellHeight, cellWidth - 1,
+                            cellHeight - 1);
+                }
+            }
+        }
+        if (selected != null && shows(selected))
+            paintDay(selected);
+    }
+
+    private void paintDay(LocalDate date) {
+        double cellWidth = cellWidth();
+        double cellHeight = cellHeight();
+        int i = date.getDayOfYear() - 1 + yearOffset(date.getYear());
+        double x = GUTTER + i / 7 * cellWidth;
+        double y = yearY(date.getYear() - firstYear) + LABEL_HEIGHT + i % 7 * cellHeight;
+        gc.clearRect(x, y, cellWidth - 1, cellHeight - 1);
+        gc.setFill(fill(counts[monthIndex(date)][date.getDayOfMonth() - 1]));
+        gc.fillRect(x, y, cellWidth - 1, cellHeight - 1);
+        if (date.equals(selected)) {
+            // Inside the square, so it never spills onto a neighbour
+            gc.setStroke(SELECTED);
+            gc.setLineWidth(1);
+            gc.strokeRect(x + 0.5, y + 0.5, cellWidth - 2, cellHeight - 2);
+        }
+    }
+
+    // Four shades between the quietest and the busiest day shown
+    private Color fill(int count) {
+        if (count <= 0)
+            return EMPTY;
+        return LEVELS[Math.min(LEVELS.length - 1, (count * LEVELS.length - 1) / max)];
+    }
+}
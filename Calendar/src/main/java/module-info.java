@@ -2,8 +2,11 @@ module com.calendar {
     requires javafx.controls;
     requires javafx.fxml;
     requires java.desktop; // For Toolkit.beep()
+    requires jdk.jfr; // Custom events, see com.calendar.diagnostics
+    requires jdk.httpserver; // See com.calendar.sync
 
     opens com.calendar to javafx.fxml;
 
     exports com.calendar;
+    exports com.calendar.model;
 }
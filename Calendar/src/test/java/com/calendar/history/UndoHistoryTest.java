@@ -0,0 +1,86 @@
+package com.calendar.history;
+
+import com.calendar.model.DatedEvent;
+import com.calendar.model.Event;
+import com.calendar.model.EventStore;
+import com.calendar.model.EventTime;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UndoHistoryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 14);
+
+    private final EventStore store = new EventStore();
+    private final UndoHistory history = new UndoHistory(store, 10);
+
+    @Test
+    void undoesAndRedoesABulkAddOverSeveralBatches() {
+        Event before = new Event(store.nextId(), "Before", EventTime.of(60, 120));
+        store.add(DAY, before);
+
+        UndoHistory.Step step = history.begin("Import");
+        for (int batch = 0; batch < 3; batch++) {
+            history.record(step, () -> store.addAll(newEvents(100)));
+            store.add(DAY, new Event(store.nextId(), "Synced", EventTime.ALL_DAY)); // Interleaved, not recorded
+        }
+        history.commit(step);
+        assertEquals(304, store.size());
+
+        assertEquals("Import", history.undo());
+        assertEquals(4, store.size());
+        assertTrue(store.eventsOn(DAY).contains(before));
+
+        assertEquals("Import", history.redo());
+        assertEquals(304, store.size());
+        assertEquals("Import", history.undo());
+        assertEquals(4, store.size());
+    }
+
+    @Test
+    void bulkAddedEventsRemovedInTheSameStepCancelOut() {
+        UndoHistory.Step step = history.begin("Import");
+        history.record(step, () -> {
+            List<DatedEvent> added = newEvents(10);
+            store.addAll(added);
+            store.removeAll(added.subList(0, 5));
+        });
+        history.commit(step);
+        assertEquals(5, store.size());
+
+        history.undo();
+        assertEquals(0, store.size());
+        history.redo();
+        assertEquals(5, store.size());
+    }
+
+    @Test
+    void undoRestoresAnEventMovedUnderTheSameId() {
+        Event original = new Event(store.nextId(), "Standup", EventTime.of(540, 555));
+        store.add(DAY, original);
+
+        history.record("Move", () -> {
+            store.removeAll(List.of(new DatedEvent(DAY, original)));
+            store.addAll(List.of(new DatedEvent(DAY.plusDays(1), original)));
+        });
+        assertEquals(List.of(), store.eventsOn(DAY));
+
+        history.undo();
+        assertEquals(List.of(original), store.eventsOn(DAY));
+        assertEquals(List.of(), store.eventsOn(DAY.plusDays(1)));
+    }
+
+    private List<DatedEvent> newEvents(int n) {
+        List<DatedEvent> events = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            events.add(new DatedEvent(DAY.plusDays(i % 40), new Event(store.nextId(), "Imported " + i, EventTime.of(i % 1400, i % 1400 + 30))));
+        }
+        return events;
+    }
+}
@@ -0,0 +1,108 @@
+package com.calendar.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CompactDayTableTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 14);
+
+    @Test
+    void roundTripsIdsPackedInline() {
+        assertRoundTrip(CompactDayTable.empty(), List.of(
+                new Event(7, "Standup", EventTime.of(9 * 60, 9 * 60 + 15)),
+                new Event(3, "Lunch", EventTime.of(12 * 60, 13 * 60)),
+                new Event(1_000_000, "Standup", EventTime.of(17 * 60, 18 * 60))));
+    }
+
+    @Test
+    void roundTripsIdsThatDoNotFitInlineBesideALargeTitleId() {
+        // 20 titles first, so a 32-bit id spread and a 5-bit title id overflow the long
+        DayTable table = CompactDayTable.empty();
+        List<Event> others = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            others.add(new Event(i + 1, "Title " + i, EventTime.ALL_DAY));
+        }
+        table = table.with(Map.of(DAY.minusMonths(1), others));
+
+        long base = 5;
+        assertRoundTrip(table, List.of(
+                new Event(base, "Title 19", EventTime.of(8 * 60, 9 * 60)),
+                new Event(base + 0xFFFF_FFFFL, "Title 18", EventTime.of(10 * 60, 11 * 60)),
+                new Event(base + 0x8000_0000L, "Title 17", EventTime.of(12 * 60, 13 * 60))));
+    }
+
+    @Test
+    void roundTripsIdsSpanningMoreThan32Bits() {
+        assertRoundTrip(CompactDayTable.empty(), List.of(
+                new Event(1, "Standup", EventTime.of(9 * 60, 9 * 60 + 15)),
+                new Event(1L << 40, "Lunch", EventTime.of(12 * 60, 13 * 60)),
+                new Event(Long.MAX_VALUE, "Retro", EventTime.of(16 * 60, 17 * 60))));
+    }
+
+    @Test
+    void keepsAllDayAndOpenEndedTimes() {
+        assertRoundTrip(CompactDayTable.empty(), List.of(
+                new Event(1, "Holiday", EventTime.ALL_DAY),
+                new Event(2, "Midnight", EventTime.of(0, -1)),
+                new Event(3, "Call", EventTime.of(14 * 60, -1)),
+                new Event(4, "Whole day", EventTime.of(0, 24 * 60 - 1)),
+                new Event(5, "Last minute", EventTime.of(24 * 60 - 1, -1))));
+    }
+
+    @Test
+    void withReplacesOnlyTheDaysItIsGiven() {
+        LocalDate first = DAY.withDayOfMonth(1);
+        LocalDate last = DAY.withDayOfMonth(31);
+        LocalDate nextMonth = DAY.plusMonths(1);
+        Event a = new Event(1, "A", EventTime.ALL_DAY);
+        Event b = new Event(2, "B", EventTime.of(60, 120));
+        Event c = new Event(3, "C", EventTime.of(60, -1));
+        Event d = new Event(4, "D", EventTime.ALL_DAY);
+        Event e = new Event(5, "E", EventTime.of(600, 660));
+        DayTable before = CompactDayTable.empty().with(Map.of(
+                first, List.of(a), DAY, List.of(b), last, List.of(c), nextMonth, List.of(d)));
+
+        Map<LocalDate, List<Event>> changed = new HashMap<>();
+        changed.put(DAY, List.of(e, b));
+        changed.put(last, null);
+        DayTable after = before.with(changed);
+
+        assertEquals(List.of(a), after.get(first));
+        assertEquals(List.of(e, b), after.get(DAY));
+        assertNull(after.get(last));
+        assertEquals(List.of(d), after.get(nextMonth));
+        int[] counts = new int[31];
+        after.countsInto(YearMonth.from(DAY), counts);
+        int[] expected = new int[31];
+        expected[0] = 1;
+        expected[13] = 2;
+        assertArrayEquals(expected, counts);
+
+        // The old version is left as it was
+        assertEquals(List.of(b), before.get(DAY));
+        assertEquals(List.of(c), before.get(last));
+    }
+
+    private static void assertRoundTrip(DayTable table, List<Event> events) {
+        DayTable packed = table.with(Map.of(DAY, events));
+        assertEquals(events, packed.get(DAY));
+        assertEquals(events.size(), packed.countOn(DAY));
+        for (Event e : events) {
+            assertEquals(e, packed.find(DAY, e.getId()));
+        }
+        List<Event> visited = new ArrayList<>();
+        packed.forEachInRange(DAY, DAY, (date, day) -> visited.addAll(day));
+        assertEquals(events, visited);
+    }
+}
@@ -0,0 +1,115 @@
+package com.calendar.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersistentTreeMapTest {
+
+    @Test
+    void matchesATreeMapThroughRandomPutsAndRemoves() {
+        Random random = new Random(42);
+        TreeMap<Integer, String> oracle = new TreeMap<>();
+        PersistentTreeMap<Integer, String> map = PersistentTreeMap.empty();
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                oracle.remove(key);
+                map = map.remove(key);
+            } else {
+                oracle.put(key, "v" + i);
+                map = map.put(key, "v" + i);
+            }
+            assertEquals(oracle.get(key), map.get(key));
+        }
+
+        assertEquals(oracle.size(), map.size());
+        assertEquals(oracle, entries(map));
+        for (int key = -1; key <= 2_000; key++) {
+            assertEquals(oracle.get(key), map.get(key));
+        }
+    }
+
+    @Test
+    void removingAMissingKeyReturnsTheSameMap() {
+        PersistentTreeMap<Integer, String> map = PersistentTreeMap.<Integer, String>empty().put(1, "a");
+
+        assertSame(map, map.remove(2));
+        assertTrue(map.remove(1).isEmpty());
+    }
+
+    @Test
+    void forEachInRangeIncludesBothBounds() {
+        PersistentTreeMap<Integer, String> map = PersistentTreeMap.empty();
+        for (int key = 0; key < 100; key += 10) {
+            map = map.put(key, "v" + key);
+        }
+
+        assertEquals(List.of(20, 30, 40), keysIn(map, 20, 40));
+        assertEquals(List.of(20, 30), keysIn(map, 15, 35));
+        assertEquals(List.of(0), keysIn(map, -5, 0));
+        assertEquals(List.of(90), keysIn(map, 90, 500));
+        assertEquals(List.of(), keysIn(map, 41, 49));
+        assertEquals(List.of(50), keysIn(map, 50, 50));
+    }
+
+    @Test
+    void staysBalancedUnderSequentialInserts() {
+        PersistentTreeMap<Integer, Integer> ascending = PersistentTreeMap.empty();
+        PersistentTreeMap<Integer, Integer> descending = PersistentTreeMap.empty();
+        int n = 100_000;
+        for (int i = 0; i < n; i++) {
+            ascending = ascending.put(i, i);
+            descending = descending.put(n - i, i);
+        }
+
+        double bound = 1.45 * Math.log(n + 2) / Math.log(2);
+        assertTrue(ascending.height() <= bound, "height " + ascending.height());
+        assertTrue(descending.height() <= bound, "height " + descending.height());
+        assertEquals(n, ascending.size());
+    }
+
+    @Test
+    void oldVersionsAreUnchangedByLaterWrites() {
+        PersistentTreeMap<Integer, String> v1 = PersistentTreeMap.empty();
+        for (int key = 0; key < 50; key++) {
+            v1 = v1.put(key, "a" + key);
+        }
+        Map<Integer, String> before = entries(v1);
+
+        PersistentTreeMap<Integer, String> v2 = v1.put(10, "b").put(100, "c").remove(20).remove(0);
+
+        assertEquals(before, entries(v1));
+        assertEquals(50, v1.size());
+        assertEquals("a10", v1.get(10));
+        assertEquals("b", v2.get(10));
+        assertNull(v2.get(20));
+        assertEquals(49, v2.size());
+    }
+
+    private static <K extends Comparable<? super K>, V> TreeMap<K, V> entries(PersistentTreeMap<K, V> map) {
+        TreeMap<K, V> copy = new TreeMap<>();
+        List<K> order = new ArrayList<>();
+        map.forEach((k, v) -> {
+            copy.put(k, v);
+            order.add(k);
+        });
+        assertEquals(new ArrayList<>(copy.keySet()), order);
+        return copy;
+    }
+
+    private static List<Integer> keysIn(PersistentTreeMap<Integer, String> map, int from, int to) {
+        List<Integer> keys = new ArrayList<>();
+        map.forEachInRange(from, to, (k, v) -> keys.add(k));
+        return keys;
+    }
+}
@@ -0,0 +1,137 @@
+package com.calendar.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeriesTest {
+
+    private static final Event EVENT = new Event(1, "Review", EventTime.of(16 * 60, 17 * 60));
+
+    @Test
+    void monthlyOnThe31stSkipsShorterMonths() {
+        Series series = series(LocalDate.of(2026, 1, 31), RecurrenceRule.every(RecurrenceRule.Frequency.MONTHLY));
+
+        assertEquals(List.of(
+                LocalDate.of(2026, 1, 31), LocalDate.of(2026, 3, 31), LocalDate.of(2026, 5, 31),
+                LocalDate.of(2026, 7, 31), LocalDate.of(2026, 8, 31), LocalDate.of(2026, 10, 31),
+                LocalDate.of(2026, 12, 31)),
+                occurrences(series, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 12, 31)));
+        assertFalse(series.occursOn(LocalDate.of(2026, 2, 28)));
+    }
+
+    @Test
+    void skippedMonthsStillCountTowardsTheCount() {
+        Series series = series(LocalDate.of(2026, 1, 31),
+                new RecurrenceRule(RecurrenceRule.Frequency.MONTHLY, 1, 3, null));
+
+        assertEquals(List.of(LocalDate.of(2026, 1, 31), LocalDate.of(2026, 3, 31)),
+                occurrences(series, LocalDate.of(2026, 1, 1), LocalDate.of(2027, 12, 31)));
+        assertEquals(LocalDate.of(2026, 3, 31), series.lastDate());
+    }
+
+    @Test
+    void yearlyOnLeapDayOnlyOccursInLeapYears() {
+        Series series = series(LocalDate.of(2024, 2, 29), RecurrenceRule.every(RecurrenceRule.Frequency.YEARLY));
+
+        assertEquals(List.of(LocalDate.of(2024, 2, 29), LocalDate.of(2028, 2, 29)),
+                occurrences(series, LocalDate.of(2024, 1, 1), LocalDate.of(2031, 12, 31)));
+    }
+
+    @Test
+    void exceptionsDoNotExtendACountedSeries() {
+        LocalDate start = LocalDate.of(2026, 3, 2);
+        Series series = new Series(EVENT, start, new RecurrenceRule(RecurrenceRule.Frequency.WEEKLY, 1, 4, null),
+                Set.of(start.plusWeeks(1)));
+
+        assertEquals(List.of(start, start.plusWeeks(2), start.plusWeeks(3)),
+                occurrences(series, start.minusYears(1), start.plusYears(1)));
+        assertEquals(start.plusWeeks(3), series.lastDate());
+
+        Series fewer = series.withException(start);
+        assertEquals(List.of(start.plusWeeks(2), start.plusWeeks(3)),
+                occurrences(fewer, start.minusYears(1), start.plusYears(1)));
+    }
+
+    @Test
+    void untilIsTheLastDayItCanOccur() {
+        LocalDate start = LocalDate.of(2026, 3, 2);
+        LocalDate until = start.plusDays(6);
+        Series series = series(start, new RecurrenceRule(RecurrenceRule.Frequency.DAILY, 2, 0, until));
+
+        assertEquals(List.of(start, start.plusDays(2), start.plusDays(4), until),
+                occurrences(series, start, until.plusMonths(1)));
+        assertTrue(series.occursOn(until));
+        assertFalse(series.occursOn(until.plusDays(2)));
+        assertEquals(List.of(), occurrences(series, until.plusDays(1), until.plusMonths(1)));
+        assertEquals(until, series.lastDate());
+    }
+
+    @Test
+    void theEarlierOfCountAndUntilEndsTheSeries() {
+        LocalDate start = LocalDate.of(2026, 3, 2);
+        RecurrenceRule rule = new RecurrenceRule(RecurrenceRule.Frequency.DAILY, 1, 3, start.plusDays(10));
+
+        assertEquals(start.plusDays(2), series(start, rule).lastDate());
+        assertNull(series(start, RecurrenceRule.every(RecurrenceRule.Frequency.DAILY)).lastDate());
+    }
+
+    @Test
+    void startsPartWayThroughARangeWithoutWalkingFromTheStart() {
+        Series series = series(LocalDate.of(2000, 1, 1), RecurrenceRule.every(RecurrenceRule.Frequency.WEEKLY));
+
+        List<LocalDate> dates = occurrences(series, LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31));
+
+        assertEquals(List.of(LocalDate.of(2026, 3, 7), LocalDate.of(2026, 3, 14), LocalDate.of(2026, 3, 21),
+                LocalDate.of(2026, 3, 28)), dates);
+    }
+
+    @Test
+    void firstOnOrAfterFindsTheNextOccurrenceHoweverFarAway() {
+        Series leapDay = series(LocalDate.of(2024, 2, 29), RecurrenceRule.every(RecurrenceRule.Frequency.YEARLY));
+        assertEquals(LocalDate.of(2028, 2, 29), leapDay.firstOnOrAfter(LocalDate.of(2024, 3, 1)));
+        assertEquals(LocalDate.of(2024, 2, 29), leapDay.firstOnOrAfter(LocalDate.of(2020, 1, 1)));
+        assertEquals(LocalDate.of(2024, 2, 29), leapDay.firstOnOrAfter(LocalDate.of(2024, 2, 29)));
+
+        LocalDate start = LocalDate.of(2026, 3, 2);
+        Series weekly = new Series(EVENT, start, new RecurrenceRule(RecurrenceRule.Frequency.WEEKLY, 1, 3, null),
+                Set.of(start.plusWeeks(1)));
+        assertEquals(start.plusWeeks(2), weekly.firstOnOrAfter(start.plusDays(1)));
+        assertNull(weekly.firstOnOrAfter(start.plusWeeks(2).plusDays(1)));
+
+        Series until = series(start, new RecurrenceRule(RecurrenceRule.Frequency.DAILY, 3, 0, start.plusDays(7)));
+        assertEquals(start.plusDays(6), until.firstOnOrAfter(start.plusDays(4)));
+        assertNull(until.firstOnOrAfter(start.plusDays(7)));
+    }
+
+    @Test
+    void rejectsAnIntervalBelowOne() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new RecurrenceRule(RecurrenceRule.Frequency.DAILY, 0, 0, null));
+    }
+
+    @Test
+    void printsAsAnRrule() {
+        assertEquals("FREQ=WEEKLY;INTERVAL=2;COUNT=10;UNTIL=20261231",
+                new RecurrenceRule(RecurrenceRule.Frequency.WEEKLY, 2, 10, LocalDate.of(2026, 12, 31)).toString());
+    }
+
+    private static Series series(LocalDate start, RecurrenceRule rule) {
+        return new Series(EVENT, start, rule, Set.of());
+    }
+
+    private static List<LocalDate> occurrences(Series series, LocalDate from, LocalDate to) {
+        List<LocalDate> dates = new ArrayList<>();
+        series.forEachOccurrence(from, to, dates::add);
+        return dates;
+    }
+}
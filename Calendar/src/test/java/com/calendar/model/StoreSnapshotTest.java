@@ -0,0 +1,55 @@
+package com.calendar.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StoreSnapshotTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 14);
+
+    @Test
+    void eventsOnMergesOneOffsWithOccurrencesByStartTime() {
+        for (EventStore store : List.of(new EventStore(), EventStore.compact())) {
+            Event lunch = new Event(1, "Lunch", EventTime.of(12 * 60, 13 * 60));
+            Event call = new Event(2, "Call", EventTime.of(9 * 60, -1));
+            Event holiday = new Event(3, "Holiday", EventTime.ALL_DAY);
+            store.add(DAY, lunch);
+            store.add(DAY, call);
+            store.add(DAY, holiday);
+            Event standup = new Event(4, "Standup", EventTime.of(9 * 60, 9 * 60 + 15));
+            Event early = new Event(5, "Gym", EventTime.of(7 * 60, 8 * 60));
+            Event skipped = new Event(6, "Review", EventTime.of(10 * 60, 11 * 60));
+            store.putSeries(daily(standup));
+            store.putSeries(daily(early));
+            store.putSeries(new Series(skipped, DAY.minusDays(7), RecurrenceRule.every(RecurrenceRule.Frequency.DAILY),
+                    Set.of(DAY)));
+
+            // A one-off goes ahead of an occurrence at the same time
+            assertEquals(List.of(early, call, standup, lunch, holiday), store.snapshot().eventsOn(DAY));
+            assertEquals(5, store.snapshot().countOn(DAY));
+            assertEquals(List.of(early, standup, skipped), store.snapshot().eventsOn(DAY.plusDays(1)));
+            assertEquals(List.of(call, lunch, holiday), store.snapshot().storedEventsBetween(DAY, DAY).get(DAY));
+        }
+    }
+
+    @Test
+    void eventsBetweenMatchesEventsOnForEachDay() {
+        EventStore store = new EventStore();
+        store.add(DAY, new Event(1, "Lunch", EventTime.of(12 * 60, 13 * 60)));
+        store.putSeries(daily(new Event(2, "Standup", EventTime.of(9 * 60, 9 * 60 + 15))));
+        StoreSnapshot snapshot = store.snapshot();
+
+        snapshot.eventsBetween(DAY.minusDays(3), DAY.plusDays(3))
+                .forEach((date, events) -> assertEquals(snapshot.eventsOn(date), events));
+        assertEquals(7, snapshot.eventsBetween(DAY.minusDays(3), DAY.plusDays(3)).size());
+    }
+
+    private static Series daily(Event event) {
+        return new Series(event, DAY.minusDays(7), RecurrenceRule.every(RecurrenceRule.Frequency.DAILY), Set.of());
+    }
+}
@@ -0,0 +1,115 @@
+package com.calendar.schedule;
+
+import com.calendar.model.Event;
+import com.calendar.model.EventStore;
+import com.calendar.model.EventTime;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DayScheduleTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 14);
+
+    private long nextId = 1;
+
+    @Test
+    void nestedEventsConflictButTouchingOnesDoNot() {
+        Event outer = timed(9, 0, 12, 0);
+        Event inner = timed(10, 0, 11, 0);
+        Event after = timed(12, 0, 13, 0); // Starts as outer ends
+        Event first = timed(14, 0, 15, 0);
+        Event second = timed(15, 0, 16, 0);
+        DaySchedule day = DaySchedule.of(List.of(outer, inner, after, first, second));
+
+        assertEquals(Set.of(outer, inner), day.conflicts());
+        assertEquals(List.of(outer, inner), day.overlapping(10 * 60 + 30, 10 * 60 + 45));
+        assertEquals(List.of(), day.overlapping(13 * 60, 14 * 60));
+        assertTrue(day.isFree(13 * 60, 14 * 60));
+        assertFalse(day.isFree(13 * 60, 14 * 60 + 1));
+    }
+
+    @Test
+    void aLongEventConflictsWithEverythingItSpans() {
+        Event allMorning = timed(8, 0, 12, 0);
+        Event early = timed(8, 30, 9, 0);
+        Event late = timed(11, 0, 11, 30); // Not next to allMorning in start order
+        DaySchedule day = DaySchedule.of(List.of(allMorning, early, late));
+
+        assertEquals(Set.of(allMorning, early, late), day.conflicts());
+    }
+
+    @Test
+    void anEventWithoutAnEndTakesUpOnlyItsStartMinute() {
+        Event call = event(EventTime.of(17 * 60, -1));
+        Event meeting = timed(17, 0, 18, 0);
+        Event reminder = event(EventTime.of(18 * 60, -1)); // At meeting's end
+        Event holiday = event(EventTime.ALL_DAY);
+        DaySchedule day = DaySchedule.of(List.of(call, meeting, reminder, holiday));
+
+        assertEquals(3, day.size());
+        assertEquals(Set.of(call, meeting), day.conflicts());
+        assertFalse(day.isFree(17 * 60 + 1, 17 * 60 + 30));
+        assertTrue(DaySchedule.of(List.of(call)).isFree(17 * 60 + 1, 18 * 60));
+        assertEquals(17 * 60 + 1, DaySchedule.of(List.of(call)).firstFree(17 * 60, 20 * 60, 30));
+    }
+
+    @Test
+    void firstFreeSkipsBusyStretchesAndRespectsTheEnd() {
+        DaySchedule day = DaySchedule.of(List.of(timed(9, 0, 10, 0), timed(10, 0, 11, 0), timed(12, 0, 13, 0)));
+
+        assertEquals(8 * 60, day.firstFree(8 * 60, 17 * 60, 60));
+        assertEquals(11 * 60, day.firstFree(9 * 60, 17 * 60, 60));
+        assertEquals(13 * 60, day.firstFree(9 * 60, 17 * 60, 90));
+        assertEquals(-1, day.firstFree(9 * 60, 12 * 60 + 30, 90));
+        assertEquals(11 * 60, day.firstFree(10 * 60 + 30, 12 * 60, 60)); // Ends exactly at the next start
+    }
+
+    @Test
+    void freeSlotsStartTodayAtTheNextQuarterHour() {
+        Schedule schedule = new Schedule(new EventStore().snapshot());
+
+        assertEquals(9 * 60, firstSlotStart(schedule, DAY.atTime(9, 0)));
+        assertEquals(9 * 60 + 15, firstSlotStart(schedule, DAY.atTime(9, 1)));
+        assertEquals(9 * 60 + 15, firstSlotStart(schedule, DAY.atTime(9, 14)));
+        assertEquals(9 * 60 + 15, firstSlotStart(schedule, DAY.atTime(9, 15)));
+        assertEquals(8 * 60, firstSlotStart(schedule, DAY.atTime(6, 50))); // The window starts later anyway
+    }
+
+    @Test
+    void freeSlotsFollowEachOtherAndMoveOnToLaterDays() {
+        EventStore store = new EventStore();
+        store.add(DAY, timed(9, 0, 16, 0));
+        Schedule schedule = new Schedule(store.snapshot());
+
+        List<Schedule.Slot> slots = schedule.freeSlots(DAY, DAY.plusDays(1), 60, 8 * 60, 17 * 60,
+                DAY.minusDays(1).atTime(12, 0), 4);
+
+        List<Schedule.Slot> expected = new ArrayList<>();
+        expected.add(new Schedule.Slot(DAY, 8 * 60, 9 * 60));
+        expected.add(new Schedule.Slot(DAY, 16 * 60, 17 * 60));
+        expected.add(new Schedule.Slot(DAY.plusDays(1), 8 * 60, 9 * 60));
+        expected.add(new Schedule.Slot(DAY.plusDays(1), 9 * 60, 10 * 60));
+        assertEquals(expected, slots);
+    }
+
+    private static int firstSlotStart(Schedule schedule, LocalDateTime now) {
+        return schedule.freeSlots(DAY, DAY, 30, 8 * 60, 17 * 60, now, 1).get(0).startMinute();
+    }
+
+    private Event timed(int startHour, int startMinute, int endHour, int endMinute) {
+        return event(EventTime.of(startHour * 60 + startMinute, endHour * 60 + endMinute));
+    }
+
+    private Event event(EventTime time) {
+        return new Event(nextId++, "Event " + nextId, time);
+    }
+}
@@ -0,0 +1,50 @@
+package com.calendar.search;
+
+import com.calendar.model.Event;
+import com.calendar.model.EventStore;
+import com.calendar.model.EventTime;
+import com.calendar.model.RecurrenceRule;
+import com.calendar.model.Series;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SearchIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 14);
+
+    @Test
+    void queriesInARowDoNotSeeEachOthersCounts() {
+        EventStore store = new EventStore();
+        Event standup = new Event(1, "Team standup", EventTime.of(9 * 60, 9 * 60 + 15));
+        Event stand = new Event(2, "Stand by", EventTime.ALL_DAY);
+        Event lunch = new Event(3, "Lunch", EventTime.of(12 * 60, 13 * 60));
+        store.add(TODAY, standup);
+        store.add(TODAY, stand);
+        store.add(TODAY, lunch);
+        SearchIndex index = SearchIndex.attach(store);
+
+        List<SearchIndex.Hit> first = index.search("standup", 10, TODAY);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(first, index.search("standup", 10, TODAY));
+            assertEquals(List.of(new SearchIndex.Hit(TODAY, lunch)), index.search("lunch", 10, TODAY));
+        }
+        assertEquals(standup, first.get(0).event());
+    }
+
+    @Test
+    void reportsTheNextOccurrenceOfARepeatingEventHoweverFarAway() {
+        EventStore store = new EventStore();
+        Event leapDay = new Event(1, "Leap day party", EventTime.ALL_DAY);
+        store.putSeries(new Series(leapDay, LocalDate.of(2024, 2, 29),
+                RecurrenceRule.every(RecurrenceRule.Frequency.YEARLY), Set.of()));
+        SearchIndex index = SearchIndex.attach(store);
+
+        assertEquals(List.of(new SearchIndex.Hit(LocalDate.of(2028, 2, 29), leapDay)),
+                index.search("leap", 5, LocalDate.of(2025, 3, 1)));
+    }
+}
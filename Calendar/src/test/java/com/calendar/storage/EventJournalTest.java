@@ -0,0 +1,152 @@
+package com.calendar.storage;
+
+import com.calendar.model.DatedEvent;
+import com.calendar.model.Event;
+import com.calendar.model.EventTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventJournalTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 14);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysEveryRecordNewerThanTheSnapshot() throws Exception {
+        Path path = dir.resolve("events.journal");
+        try (EventJournal journal = EventJournal.open(path, 0, entry -> {
+        })) {
+            journal.appendAdd(DAY, event(1, "Standup"));
+            journal.appendAdds(List.of(new DatedEvent(DAY, event(2, "Lunch")),
+                    new DatedEvent(DAY.plusDays(1), event(3, "Gym"))));
+            journal.appendDelete(DAY, event(1, "Standup"));
+            journal.flush();
+        }
+
+        List<EventJournal.Entry> all = replay(path, 0);
+        assertEquals(List.of(1L, 2L, 3L, 4L), all.stream().map(EventJournal.Entry::seq).toList());
+        assertEquals(List.of(EventJournal.ADD, EventJournal.ADD, EventJournal.ADD, EventJournal.DELETE),
+                all.stream().map(EventJournal.Entry::op).toList());
+        EventJournal.Entry gym = all.get(2);
+        assertEquals(DAY.plusDays(1), gym.date());
+        assertEquals("Gym", gym.title());
+        assertEquals(EventTime.of(9 * 60, 10 * 60), gym.time());
+        assertEquals(1, all.get(3).id());
+
+        // Records up to the snapshot's sequence are already in it
+        assertEquals(List.of(3L, 4L), replay(path, 2).stream().map(EventJournal.Entry::seq).toList());
+    }
+
+    @Test
+    void dropsARecordCutShortAndAppendsAfterTheLastGoodOne() throws Exception {
+        Path path = dir.resolve("events.journal");
+        long goodLength;
+        try (EventJournal journal = EventJournal.open(path, 0, entry -> {
+        })) {
+            journal.appendAdd(DAY, event(1, "Standup"));
+            journal.appendAdd(DAY, event(2, "Lunch"));
+            journal.flush();
+            goodLength = Files.size(path);
+            journal.appendAdd(DAY, event(3, "Gym"));
+            journal.flush();
+        }
+        truncate(path, Files.size(path) - 3); // A crash in the middle of the last write
+
+        try (EventJournal journal = EventJournal.open(path, 0, entry -> {
+        })) {
+            assertEquals(goodLength, Files.size(path));
+            assertEquals(2, journal.recordCount());
+            journal.appendAdd(DAY, event(4, "Dinner"));
+            journal.flush();
+        }
+
+        List<EventJournal.Entry> all = replay(path, 0);
+        assertEquals(List.of(1L, 2L, 4L), all.stream().map(EventJournal.Entry::id).toList());
+        assertEquals(3, all.get(2).seq()); // Numbering carries on from the last record kept
+    }
+
+    @Test
+    void stopsAtARecordThatFailsItsChecksum() throws Exception {
+        Path path = dir.resolve("events.journal");
+        long firstLength;
+        try (EventJournal journal = EventJournal.open(path, 0, entry -> {
+        })) {
+            journal.appendAdd(DAY, event(1, "Standup"));
+            journal.flush();
+            firstLength = Files.size(path);
+            journal.appendAdd(DAY, event(2, "Lunch"));
+            journal.appendAdd(DAY, event(3, "Gym"));
+            journal.flush();
+        }
+        flipByte(path, firstLength + 12); // Inside the second record's payload
+
+        assertEquals(List.of(1L), replay(path, 0).stream().map(EventJournal.Entry::id).toList());
+        assertEquals(firstLength, Files.size(path));
+    }
+
+    @Test
+    void ignoresGarbageAfterTheLastRecord() throws Exception {
+        Path path = dir.resolve("events.journal");
+        try (EventJournal journal = EventJournal.open(path, 0, entry -> {
+        })) {
+            journal.appendAdd(DAY, event(1, "Standup"));
+            journal.flush();
+        }
+        long length = Files.size(path);
+        Files.write(path, new byte[] { 0, 0, 0x7F, 1, 2 }, StandardOpenOption.APPEND);
+
+        assertEquals(1, replay(path, 0).size());
+        assertEquals(length, Files.size(path));
+    }
+
+    @Test
+    void rejectsOtherVersions() throws Exception {
+        Path path = dir.resolve("events.journal");
+        Files.write(path, ByteBuffer.allocate(8).putInt(EventJournal.MAGIC).putInt(EventJournal.VERSION - 1)
+                .array());
+
+        IOException e = assertThrows(IOException.class, () -> EventJournal.open(path, 0, entry -> {
+        }));
+        assertTrue(e.getMessage().contains("Unsupported journal version"), e.getMessage());
+    }
+
+    private static Event event(long id, String title) {
+        return new Event(id, title, EventTime.of(9 * 60, 10 * 60));
+    }
+
+    private static List<EventJournal.Entry> replay(Path path, long afterSeq) throws IOException {
+        List<EventJournal.Entry> entries = new ArrayList<>();
+        EventJournal.open(path, afterSeq, entries::add).close();
+        return entries;
+    }
+
+    private static void truncate(Path path, long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+        }
+    }
+
+    static void flipByte(Path path, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, position);
+            channel.write(b.put(0, (byte) ~b.get(0)).rewind(), position);
+        }
+    }
+}
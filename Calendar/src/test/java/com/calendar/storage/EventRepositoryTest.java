@@ -0,0 +1,213 @@
+package com.calendar.storage;
+
+import com.calendar.model.Event;
+import com.calendar.model.EventStore;
+import com.calendar.model.EventTime;
+import com.calendar.model.RecurrenceRule;
+import com.calendar.model.Series;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventRepositoryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 14);
+    private static final int NO_COMPACTION = Integer.MAX_VALUE;
+
+    @TempDir
+    Path dir;
+
+    private int copies;
+
+    @Test
+    void isFreshOnlyOnTheFirstOpen() throws Exception {
+        Path data = dir.resolve("data");
+        EventStore store = new EventStore();
+        try (EventRepository repository = EventRepository.open(data, store, NO_COMPACTION)) {
+            assertTrue(repository.isFresh());
+            Event event = new Event(store.nextId(), "Demo", EventTime.ALL_DAY);
+            store.add(DAY, event);
+            store.remove(DAY, event);
+        }
+
+        EventStore reopened = new EventStore();
+        try (EventRepository repository = EventRepository.open(data, reopened, NO_COMPACTION)) {
+            assertFalse(repository.isFresh()); // Empty, but because everything was deleted
+            assertTrue(reopened.isEmpty());
+        }
+    }
+
+    @Test
+    void replaysTheJournalOnTopOfTheSnapshot() throws Exception {
+        Path data = dir.resolve("data");
+        EventStore store = new EventStore();
+        Path copy;
+        try (EventRepository repository = EventRepository.open(data, store, 3)) {
+            Event first = add(store, DAY, "Standup");
+            add(store, DAY, "Lunch");
+            add(store, DAY.plusDays(1), "Gym"); // Third write: compacts into the snapshot
+            add(store, DAY.plusDays(2), "Dentist");
+            store.remove(DAY, first);
+            repository.flush();
+            copy = crashCopy(data);
+        }
+        assertTrue(Files.exists(copy.resolve("events.snapshot")));
+        assertTrue(Files.size(copy.resolve("events.journal")) > 8, "expected records after the snapshot");
+
+        EventStore loaded = new EventStore();
+        try (EventRepository repository = EventRepository.open(copy, loaded, NO_COMPACTION)) {
+            assertFalse(repository.isFresh());
+            assertEquals(List.of("Lunch", "Gym", "Dentist"), titles(loaded));
+            assertEquals(store.lastId(), loaded.lastId());
+        }
+    }
+
+    @Test
+    void replaysDeletesByIdNotByContent() throws Exception {
+        Path data = dir.resolve("data");
+        EventStore store = new EventStore();
+        Path copy;
+        long kept;
+        try (EventRepository repository = EventRepository.open(data, store, NO_COMPACTION)) {
+            // Identical but for the id
+            Event deleted = add(store, DAY, "Standup");
+            kept = add(store, DAY, "Standup").getId();
+            store.remove(DAY, deleted);
+            repository.flush();
+            copy = crashCopy(data);
+        }
+
+        EventStore loaded = new EventStore();
+        try (EventRepository repository = EventRepository.open(copy, loaded, NO_COMPACTION)) {
+            assertFalse(repository.isFresh());
+            List<Event> day = loaded.eventsOn(DAY);
+            assertEquals(1, day.size());
+            assertEquals(kept, day.get(0).getId());
+        }
+    }
+
+    @Test
+    void replaysSeriesChanges() throws Exception {
+        Path data = dir.resolve("data");
+        EventStore store = new EventStore();
+        Path copy;
+        Series kept;
+        List<Series> imported;
+        try (EventRepository repository = EventRepository.open(data, store, NO_COMPACTION)) {
+            Series weekly = series(store, "Review");
+            store.putSeries(weekly);
+            kept = weekly.withException(DAY.plusWeeks(1));
+            store.putSeries(kept);
+            Series removed = series(store, "Retro");
+            store.putSeries(removed);
+            store.removeSeries(removed.id());
+            imported = List.of(series(store, "Planning"), series(store, "Demo"));
+            store.putAllSeries(imported);
+            repository.flush();
+            copy = crashCopy(data);
+        }
+
+        EventStore loaded = new EventStore();
+        try (EventRepository repository = EventRepository.open(copy, loaded, NO_COMPACTION)) {
+            assertFalse(repository.isFresh());
+            assertEquals(List.of(kept, imported.get(0), imported.get(1)), List.copyOf(loaded.allSeries()));
+        }
+    }
+
+    @Test
+    void setsAnUnreadableSnapshotAsideAndKeepsTheJournal() throws Exception {
+        Path data = dir.resolve("data");
+        EventStore store = new EventStore();
+        try (EventRepository repository = EventRepository.open(data, store, NO_COMPACTION)) {
+            add(store, DAY, "Standup");
+            repository.flush();
+        }
+        // close() compacted; now lose the snapshot's contents but keep a journal record after it
+        EventStore again = new EventStore();
+        try (EventRepository repository = EventRepository.open(data, again, NO_COMPACTION)) {
+            add(again, DAY, "Lunch");
+            repository.flush();
+            Path copy = crashCopy(data);
+            Files.write(copy.resolve("events.snapshot"), new byte[] { 1, 2, 3 });
+
+            EventStore loaded = new EventStore();
+            try (EventRepository reopened = EventRepository.open(copy, loaded, NO_COMPACTION)) {
+                assertTrue(Files.exists(copy.resolve("events.snapshot.corrupt")));
+                assertFalse(reopened.isFresh());
+                assertEquals(List.of("Lunch"), titles(loaded));
+            }
+        }
+    }
+
+    @Test
+    void closesCleanlyWhileAnotherThreadIsWriting() throws Exception {
+        for (int round = 0; round < 100; round++) {
+            Path data = dir.resolve("busy-" + round);
+            EventStore store = new EventStore();
+            EventRepository repository = EventRepository.open(data, store, NO_COMPACTION);
+            AtomicBoolean stop = new AtomicBoolean();
+            Thread writer = new Thread(() -> {
+                while (!stop.get()) {
+                    add(store, DAY, "Import");
+                }
+            });
+            writer.start();
+            Thread.sleep(1);
+            repository.close();
+            stop.set(true);
+            writer.join();
+
+            // Whatever made it in is there exactly once: ids 1..n, none replayed twice
+            EventStore loaded = new EventStore();
+            try (EventRepository reopened = EventRepository.open(data, loaded, NO_COMPACTION)) {
+                assertFalse(reopened.isFresh());
+                List<Event> day = loaded.eventsOn(DAY);
+                for (int i = 0; i < day.size(); i++) {
+                    assertEquals(i + 1, day.get(i).getId(), "round " + round);
+                }
+            }
+        }
+    }
+
+    private static Event add(EventStore store, LocalDate date, String title) {
+        Event event = new Event(store.nextId(), title, EventTime.of(9 * 60, 10 * 60));
+        store.add(date, event);
+        return event;
+    }
+
+    private static Series series(EventStore store, String title) {
+        return new Series(new Event(store.nextId(), title, EventTime.ALL_DAY), DAY,
+                RecurrenceRule.every(RecurrenceRule.Frequency.WEEKLY), Set.of());
+    }
+
+    private static List<String> titles(EventStore store) {
+        List<String> titles = new ArrayList<>();
+        store.storedEventsBetween(LocalDate.MIN, LocalDate.MAX)
+                .forEach((date, events) -> events.forEach(e -> titles.add(e.getTitle())));
+        return titles;
+    }
+
+    // The files as a crash would leave them: what was flushed, without the compaction close() does
+    private Path crashCopy(Path data) throws IOException {
+        Path copy = Files.createDirectory(dir.resolve("crash-" + copies++));
+        try (Stream<Path> files = Files.list(data)) {
+            for (Path file : files.toList()) {
+                Files.copy(file, copy.resolve(file.getFileName()));
+            }
+        }
+        return copy;
+    }
+}
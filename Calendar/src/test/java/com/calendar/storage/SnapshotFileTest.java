@@ -0,0 +1,103 @@
+package com.calendar.storage;
+
+import com.calendar.model.Event;
+import com.calendar.model.EventStore;
+import com.calendar.model.EventTime;
+import com.calendar.model.RecurrenceRule;
+import com.calendar.model.Series;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SnapshotFileTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 14);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsBackWhatWasWritten() throws Exception {
+        EventStore store = new EventStore();
+        store.add(DAY, new Event(1, "Standup", EventTime.of(9 * 60, 9 * 60 + 15)));
+        store.add(DAY, new Event(2, "Standup", EventTime.ALL_DAY)); // Same title, one string table entry
+        store.add(DAY.plusDays(40), new Event(3, "Dentist", EventTime.of(14 * 60, -1)));
+        store.putSeries(new Series(new Event(4, "Review", EventTime.of(16 * 60, 17 * 60)), DAY,
+                new RecurrenceRule(RecurrenceRule.Frequency.WEEKLY, 2, 10, null), Set.of(DAY.plusWeeks(2))));
+        Path path = dir.resolve("events.snapshot");
+        write(path, store, 42, 50);
+
+        EventStore loaded = new EventStore();
+        SnapshotFile.Header header = SnapshotFile.read(path, loaded);
+
+        assertEquals(42, header.lastSeq());
+        assertEquals(3, header.eventCount());
+        assertEquals(store.storedEventsBetween(LocalDate.MIN, LocalDate.MAX),
+                loaded.storedEventsBetween(LocalDate.MIN, LocalDate.MAX));
+        assertEquals(List.copyOf(store.allSeries()), List.copyOf(loaded.allSeries()));
+        assertEquals(50, loaded.lastId()); // Deleted events' ids stay used
+    }
+
+    @Test
+    void readsIntoACompactStoreAMonthAtATime() throws Exception {
+        EventStore store = new EventStore();
+        for (int d = 0; d < 90; d++) {
+            store.add(DAY.plusDays(d), new Event(d + 1, "Day " + d % 7, EventTime.of(d * 10, d * 10 + 30)));
+        }
+        Path path = dir.resolve("events.snapshot");
+        write(path, store, 1, 90);
+
+        EventStore loaded = EventStore.compact();
+        SnapshotFile.read(path, loaded);
+
+        assertEquals(store.storedEventsBetween(LocalDate.MIN, LocalDate.MAX),
+                loaded.storedEventsBetween(LocalDate.MIN, LocalDate.MAX));
+        assertEquals(90, loaded.size());
+    }
+
+    @Test
+    void rejectsAFileThatFailsItsChecksum() throws Exception {
+        Path path = snapshotOfOneEvent();
+        EventJournalTest.flipByte(path, Files.size(path) / 2);
+
+        assertThrows(IOException.class, () -> SnapshotFile.read(path, new EventStore()));
+    }
+
+    @Test
+    void rejectsATruncatedFile() throws Exception {
+        Path path = snapshotOfOneEvent();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 6);
+        }
+
+        assertThrows(IOException.class, () -> SnapshotFile.read(path, new EventStore()));
+    }
+
+    private Path snapshotOfOneEvent() throws IOException {
+        EventStore store = new EventStore();
+        store.add(DAY, new Event(1, "Standup", EventTime.ALL_DAY));
+        Path path = dir.resolve("events.snapshot");
+        write(path, store, 1, 1);
+        return path;
+    }
+
+    private static void write(Path path, EventStore store, long lastSeq, long maxId) throws IOException {
+        SnapshotFile.write(path, lastSeq, maxId,
+                new ArrayList<Map.Entry<LocalDate, List<Event>>>(
+                        store.storedEventsBetween(LocalDate.MIN, LocalDate.MAX).entrySet()),
+                List.copyOf(store.allSeries()));
+    }
+}
@@ -0,0 +1,108 @@
+package com.calendar.summary;
+
+import com.calendar.model.DatedEvent;
+import com.calendar.model.Event;
+import com.calendar.model.EventStore;
+import com.calendar.model.EventTime;
+import com.calendar.model.RecurrenceRule;
+import com.calendar.model.Series;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MonthSummariesTest {
+
+    private static final YearMonth MARCH = YearMonth.of(2026, 3);
+    private static final LocalDate DAY = MARCH.atDay(14);
+
+    private final EventStore store = new EventStore();
+
+    @Test
+    void cachedCountsFollowAddsRemovesAndSeries() {
+        MonthSummaries summaries = MonthSummaries.attach(store, 12, Runnable::run);
+        summaries.range(MARCH, 1);
+        summaries.range(MARCH.plusMonths(1), 1);
+        long misses = summaries.misses();
+
+        Event lunch = event(1, EventTime.of(12 * 60, 13 * 60));
+        store.add(DAY, lunch);
+        assertCounted(summaries);
+        store.addAll(List.of(new DatedEvent(DAY, event(2, EventTime.ALL_DAY)),
+                new DatedEvent(DAY.plusDays(1), event(3, EventTime.ALL_DAY))));
+        assertCounted(summaries);
+        store.remove(DAY, lunch);
+        assertCounted(summaries);
+
+        Series weekly = new Series(event(4, EventTime.of(9 * 60, 10 * 60)), DAY.minusWeeks(3),
+                RecurrenceRule.every(RecurrenceRule.Frequency.WEEKLY), Set.of());
+        store.putSeries(weekly);
+        assertCounted(summaries);
+        store.putSeries(weekly.withException(DAY));
+        assertCounted(summaries);
+        store.putAllSeries(List.of(
+                new Series(event(5, EventTime.ALL_DAY), MARCH.atDay(31),
+                        RecurrenceRule.every(RecurrenceRule.Frequency.MONTHLY), Set.of()),
+                new Series(event(6, EventTime.ALL_DAY), DAY, RecurrenceRule.every(RecurrenceRule.Frequency.DAILY),
+                        Set.of())));
+        assertCounted(summaries);
+        store.removeSeries(weekly.id());
+        assertCounted(summaries);
+
+        assertEquals(misses, summaries.misses()); // Kept current, never counted again
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedMonthAtCapacity() {
+        MonthSummaries summaries = MonthSummaries.attach(store, 2, Runnable::run);
+        YearMonth april = MARCH.plusMonths(1);
+        YearMonth may = MARCH.plusMonths(2);
+        summaries.range(MARCH, 1);
+        summaries.range(april, 1);
+        summaries.range(MARCH, 1); // April is now the eldest
+        summaries.range(may, 1);
+        assertEquals(3, summaries.misses());
+
+        summaries.range(MARCH, 1);
+        summaries.range(may, 1);
+        assertEquals(3, summaries.misses());
+        summaries.range(april, 1);
+        assertEquals(4, summaries.misses());
+    }
+
+    @Test
+    void aCountRacingAWriteIsNotCachedStale() throws Exception {
+        Thread[] loader = new Thread[1];
+        MonthSummaries summaries = MonthSummaries.attach(store, 12, task -> {
+            loader[0] = new Thread(task);
+            loader[0].start();
+        });
+
+        synchronized (summaries) {
+            summaries.prefetch(MARCH);
+            // Counted, but waiting to cache: the write lands in between
+            while (loader[0].getState() != Thread.State.BLOCKED) {
+                Thread.onSpinWait();
+            }
+            store.add(DAY, event(1, EventTime.ALL_DAY));
+        }
+        loader[0].join();
+
+        assertEquals(1, summaries.range(MARCH, 1).get(0).countOn(DAY.getDayOfMonth()));
+    }
+
+    private void assertCounted(MonthSummaries summaries) {
+        for (YearMonth month : List.of(MARCH, MARCH.plusMonths(1))) {
+            assertArrayEquals(store.countsFor(month), summaries.range(month, 1).get(0).counts(), month.toString());
+        }
+    }
+
+    private static Event event(long id, EventTime time) {
+        return new Event(id, "Event " + id, time);
+    }
+}
@@ -0,0 +1,80 @@
+package com.calendar.ui;
+
+import com.calendar.ui.RenderScheduler.Area;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RenderSchedulerTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 14);
+
+    private final List<String> rebuilt = new ArrayList<>();
+    private int pulsesRequested;
+    private final RenderScheduler renders = new RenderScheduler(() -> pulsesRequested++);
+
+    RenderSchedulerTest() {
+        for (Area area : Area.values()) {
+            renders.setRenderer(area, () -> rebuilt.add(area.name()));
+        }
+        renders.setDayRenderer(date -> rebuilt.add(date.toString()));
+    }
+
+    @Test
+    void marksUntilThePulseCoalesceIntoOnePass() {
+        renders.invalidate(Area.DETAILS);
+        renders.invalidate(Area.HEADER);
+        renders.invalidate(Area.DETAILS);
+        renders.invalidate(Area.HEADER, Area.DETAILS);
+        renders.invalidateDay(DAY);
+        renders.invalidateDay(DAY);
+        assertEquals(1, pulsesRequested);
+        assertEquals(List.of(), rebuilt);
+
+        renders.flush();
+
+        assertEquals(List.of("HEADER", "DETAILS", DAY.toString()), rebuilt);
+        assertEquals(1, renders.passes());
+        assertEquals(4, renders.skipped());
+
+        renders.flush(); // A pulse with nothing marked
+        assertEquals(1, renders.passes());
+        renders.invalidate(Area.DETAILS);
+        assertEquals(2, pulsesRequested);
+    }
+
+    @Test
+    void dayMarksFoldIntoAGridRebuildWhenTheMonthChanges() {
+        renders.invalidateDay(DAY);
+        renders.invalidateDay(DAY.plusDays(1));
+        renders.invalidate(Area.SELECTION);
+        // Paging to the next month redraws every cell anyway
+        renders.invalidate(Area.HEADER, Area.GRID);
+
+        renders.flush();
+
+        assertEquals(List.of("HEADER", "GRID"), rebuilt);
+        assertEquals(3, renders.skipped());
+    }
+
+    @Test
+    void marksMadeWhileRebuildingWaitForTheNextPass() {
+        renders.setRenderer(Area.GRID, () -> {
+            rebuilt.add("GRID");
+            renders.invalidate(Area.DETAILS);
+        });
+        renders.invalidate(Area.GRID);
+
+        renders.flush();
+        assertEquals(List.of("GRID"), rebuilt);
+        assertEquals(2, pulsesRequested);
+
+        renders.flush();
+        assertEquals(List.of("GRID", "DETAILS"), rebuilt);
+        assertEquals(2, renders.passes());
+    }
+}